@@ -0,0 +1,82 @@
+package com.evaluation.project;
+
+import com.evaluation.project.service.impl.UserSnapshotService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Command line snapshot export and import, run against the configured database instead of serving requests:
+ * {@code --snapshot.export=<file>} or {@code --snapshot.import=<file>}. The file is written and read through a
+ * {@link FileChannel}, and the application exits when the command completes (status 1 if it failed).
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class SnapshotCommand implements ApplicationRunner {
+
+  static final String EXPORT = "snapshot.export";
+  static final String IMPORT = "snapshot.import";
+
+  private final UserSnapshotService userSnapshotService;
+  private final ConfigurableApplicationContext context;
+
+  @Override
+  public void run(ApplicationArguments arguments) {
+    if (!arguments.containsOption(EXPORT) && !arguments.containsOption(IMPORT)) {
+      return;
+    }
+    int status = 0;
+    try {
+      if (arguments.containsOption(EXPORT)) {
+        export(Path.of(arguments.getOptionValues(EXPORT).get(0)));
+      } else {
+        importSnapshot(Path.of(arguments.getOptionValues(IMPORT).get(0)));
+      }
+    } catch (RuntimeException | IOException e) {
+      log.error("Snapshot command failed: {}", e.getMessage());
+      status = 1;
+    }
+    int exitCode = status;
+    System.exit(SpringApplication.exit(context, () -> exitCode));
+  }
+
+  void export(Path path) throws IOException {
+    long start = System.nanoTime();
+    // written next to the target and moved into place, so an interrupted export never leaves a partial file
+    var partial = path.resolveSibling(path.getFileName() + ".tmp");
+    try (var channel = FileChannel.open(partial,
+        StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+      userSnapshotService.export()
+          .doOnNext(buffer -> {
+            try {
+              while (buffer.hasRemaining()) {
+                channel.write(buffer);
+              }
+            } catch (IOException e) {
+              throw new UncheckedIOException(e);
+            }
+          })
+          .blockLast();
+      channel.force(true);
+    }
+    Files.move(partial, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    log.info("Snapshot exported to {} ({} bytes) in {} ms", path, Files.size(path), (System.nanoTime() - start) / 1_000_000);
+  }
+
+  void importSnapshot(Path path) {
+    userSnapshotService.importSnapshot(path).block();
+  }
+}
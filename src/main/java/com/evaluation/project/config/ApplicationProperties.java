@@ -5,15 +5,125 @@ import lombok.Setter;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
 
+import java.time.Duration;
+
 @Getter
 @Setter
 @Configuration
 public class ApplicationProperties {
   
+  @Value("${app.jwt.require-on-reads:true}")
+  private boolean jwtRequiredOnReads;
+  
   @Value("${app.regex.email}")
   private String emailRegex;
   
   @Value("${app.regex.password}")
   private String passwordRegex;
   
+  @Value("${app.validation.max-email-length:254}")
+  private int maxEmailLength;
+  
+  @Value("${app.validation.max-password-length:128}")
+  private int maxPasswordLength;
+  
+  @Value("${app.validation.regex-timeout:10ms}")
+  private Duration regexTimeout;
+  
+  @Value("${app.datasource.url:r2dbc:h2:mem:///testdb?options=DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE;USER=sa;PASSWORD=}")
+  private String datasourceUrl;
+  
+  @Value("${app.datasource.migration.url:}")
+  private String migrationUrl;
+  
+  @Value("${app.datasource.migration.user:sa}")
+  private String migrationUser;
+  
+  @Value("${app.datasource.migration.password:}")
+  private String migrationPassword;
+  
+  @Value("${app.datasource.migration.locations:classpath:db/migration/h2}")
+  private String[] migrationLocations;
+  
+  @Value("${app.datasource.migration.target:latest}")
+  private String migrationTarget;
+  
+  @Value("${app.datasource.statement-cache-size:64}")
+  private int statementCacheSize;
+  
+  @Value("${app.datasource.pool.initial-size:4}")
+  private int poolInitialSize;
+  
+  @Value("${app.datasource.pool.max-size:16}")
+  private int poolMaxSize;
+  
+  @Value("${app.datasource.pool.min-idle:0}")
+  private int poolMinIdle;
+  
+  @Value("${app.datasource.pool.max-idle-time:30m}")
+  private Duration poolMaxIdleTime;
+  
+  @Value("${app.datasource.pool.max-acquire-time:5s}")
+  private Duration poolMaxAcquireTime;
+  
+  @Value("${app.datasource.pool.validation-query:SELECT 1}")
+  private String poolValidationQuery;
+  
+  @Value("${app.schedulers.crypto-threads:#{T(java.lang.Runtime).getRuntime().availableProcessors()}}")
+  private int cryptoThreads;
+  
+  @Value("${app.password.threads:#{T(java.lang.Runtime).getRuntime().availableProcessors()}}")
+  private int passwordThreads;
+  
+  @Value("${app.password.queue-capacity:32}")
+  private int passwordQueueCapacity;
+  
+  @Value("${app.pagination.default-limit:50}")
+  private int defaultPageSize;
+  
+  @Value("${app.pagination.max-limit:500}")
+  private int maxPageSize;
+  
+  @Value("${app.pagination.stream-chunk-size:256}")
+  private int streamChunkSize;
+  
+  @Value("${app.batch.size:500}")
+  private int batchSize;
+  
+  @Value("${app.snapshot.block-size:8192}")
+  private int snapshotBlockSize;
+  
+  @Value("${app.snapshot.admin-token:}")
+  private String snapshotAdminToken;
+  
+  @Value("${app.write-behind.enabled:false}")
+  private boolean writeBehindEnabled;
+  
+  @Value("${app.write-behind.journal:data/users-write-behind.journal}")
+  private String writeBehindJournal;
+  
+  @Value("${app.write-behind.dead-letter-journal:data/users-write-behind.dead}")
+  private String writeBehindDeadLetterJournal;
+  
+  @Value("${app.write-behind.max-retries:10}")
+  private int writeBehindMaxRetries;
+  
+  @Value("${app.write-behind.stranded-retry-interval:1m}")
+  private Duration writeBehindStrandedRetryInterval;
+  
+  @Value("${app.write-behind.fsync:true}")
+  private boolean writeBehindFsync;
+  
+  @Value("${app.write-behind.capacity:10000}")
+  private int writeBehindCapacity;
+  
+  @Value("${app.write-behind.batch-size:500}")
+  private int writeBehindBatchSize;
+  
+  @Value("${app.write-behind.flush-interval:20ms}")
+  private Duration writeBehindFlushInterval;
+  
+  @Value("${app.write-behind.shutdown-timeout:10s}")
+  private Duration writeBehindShutdownTimeout;
+  
 }
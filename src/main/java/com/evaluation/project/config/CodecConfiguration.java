@@ -0,0 +1,17 @@
+package com.evaluation.project.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.codec.ServerCodecConfigurer;
+import org.springframework.web.reactive.config.WebFluxConfigurer;
+
+@Configuration
+public class CodecConfiguration implements WebFluxConfigurer {
+  
+  // registered as a typed codec, so it is consulted before the default Jackson encoder for UserResponse
+  @Override
+  public void configureHttpMessageCodecs(ServerCodecConfigurer configurer) {
+    configurer.customCodecs().register(new UserResponseEncoder());
+    configurer.defaultCodecs().jackson2SmileEncoder(new SmileArrayEncoder());
+  }
+  
+}
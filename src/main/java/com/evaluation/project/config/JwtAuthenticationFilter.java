@@ -0,0 +1,97 @@
+package com.evaluation.project.config;
+
+import com.evaluation.project.service.impl.JwtService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+
+/**
+ * Requires {@code Authorization: Bearer <token>} with a token issued by {@link JwtService} on the {@code /users} read
+ * endpoints (reading the latency metrics stays open) and on {@code PATCH /users/id/{uuid}}. The verified claims are
+ * exposed as the {@link #CLAIMS_ATTRIBUTE} exchange attribute. Disabled for reads with
+ * {@code app.jwt.require-on-reads=false}; updates always need a token. A user token is not enough for {@code /admin}
+ * and {@code DELETE /users/metrics/latency}: they take the operator token {@code app.snapshot.admin-token}, and
+ * nothing gets in while that is not set.
+ */
+@Component
+@RequiredArgsConstructor
+public class JwtAuthenticationFilter implements WebFilter {
+
+  public static final String CLAIMS_ATTRIBUTE = JwtAuthenticationFilter.class.getName() + ".claims";
+
+  private static final String BEARER = "Bearer ";
+  private static final String ADMIN_PATH = "/admin/";
+  private static final byte[] UNAUTHORIZED_BODY =
+      "{\"message\":\"Missing or invalid bearer token\"}".getBytes(StandardCharsets.UTF_8);
+
+  private final JwtService jwtService;
+  private final ApplicationProperties applicationProperties;
+
+  @Override
+  public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+    var request = exchange.getRequest();
+    var path = request.getPath().value();
+    if (requiresOperatorToken(request.getMethod(), path)) {
+      return isAdmin(bearer(request)) ? chain.filter(exchange) : unauthorized(exchange);
+    }
+    if (!requiresToken(request.getMethod(), path)) {
+      return chain.filter(exchange);
+    }
+    var token = bearer(request);
+    var claims = token != null ? jwtService.verify(token) : null;
+    if (claims == null) {
+      return unauthorized(exchange);
+    }
+    exchange.getAttributes().put(CLAIMS_ATTRIBUTE, claims);
+    return chain.filter(exchange);
+  }
+
+  private static String bearer(ServerHttpRequest request) {
+    var authorization = request.getHeaders().getFirst(HttpHeaders.AUTHORIZATION);
+    return authorization != null && authorization.regionMatches(true, 0, BEARER, 0, BEARER.length())
+        ? authorization.substring(BEARER.length()).trim()
+        : null;
+  }
+
+  private boolean isAdmin(String token) {
+    var adminToken = applicationProperties.getSnapshotAdminToken();
+    return token != null && adminToken != null && !adminToken.isBlank()
+        && MessageDigest.isEqual(token.getBytes(StandardCharsets.UTF_8), adminToken.getBytes(StandardCharsets.UTF_8));
+  }
+
+  private static Mono<Void> unauthorized(ServerWebExchange exchange) {
+    var response = exchange.getResponse();
+    response.setStatusCode(HttpStatus.UNAUTHORIZED);
+    response.getHeaders().set(HttpHeaders.WWW_AUTHENTICATE, "Bearer");
+    response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+    return response.writeWith(Mono.fromSupplier(() -> response.bufferFactory().wrap(UNAUTHORIZED_BODY)));
+  }
+
+  // any caller can get a user token from POST /users, so operator actions do not accept one
+  private static boolean requiresOperatorToken(HttpMethod method, String path) {
+    return path.startsWith(ADMIN_PATH) || method == HttpMethod.DELETE && path.startsWith("/users/metrics/");
+  }
+
+  private boolean requiresToken(HttpMethod method, String path) {
+    if (method == HttpMethod.PATCH) {
+      return path.startsWith("/users/id/");
+    }
+    return applicationProperties.isJwtRequiredOnReads() && method == HttpMethod.GET && isUserRead(path);
+  }
+
+  private static boolean isUserRead(String path) {
+    return (path.equals("/users") || path.startsWith("/users/")) && !path.startsWith("/users/metrics/");
+  }
+
+}
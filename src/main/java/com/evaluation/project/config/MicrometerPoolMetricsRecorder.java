@@ -0,0 +1,92 @@
+package com.evaluation.project.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import reactor.pool.PoolMetricsRecorder;
+
+import java.util.concurrent.TimeUnit;
+
+class MicrometerPoolMetricsRecorder implements PoolMetricsRecorder {
+
+  private final Timer acquirePendingSuccess;
+  private final Timer acquirePendingFailure;
+  private final Timer allocationSuccess;
+  private final Timer allocationFailure;
+  private final Counter fastPath;
+  private final Counter slowPath;
+
+  MicrometerPoolMetricsRecorder(MeterRegistry meterRegistry, String pool) {
+    this.acquirePendingSuccess = timer(meterRegistry, "r2dbc.pool.acquire.pending", pool, "success");
+    this.acquirePendingFailure = timer(meterRegistry, "r2dbc.pool.acquire.pending", pool, "failure");
+    this.allocationSuccess = timer(meterRegistry, "r2dbc.pool.allocation", pool, "success");
+    this.allocationFailure = timer(meterRegistry, "r2dbc.pool.allocation", pool, "failure");
+    this.fastPath = counter(meterRegistry, pool, "fast");
+    this.slowPath = counter(meterRegistry, pool, "slow");
+  }
+
+  private static Timer timer(MeterRegistry meterRegistry, String name, String pool, String outcome) {
+    return Timer.builder(name)
+        .tag("name", pool)
+        .tag("outcome", outcome)
+        .publishPercentileHistogram()
+        .register(meterRegistry);
+  }
+
+  private static Counter counter(MeterRegistry meterRegistry, String pool, String path) {
+    return Counter.builder("r2dbc.pool.acquire.path")
+        .tag("name", pool)
+        .tag("path", path)
+        .register(meterRegistry);
+  }
+
+  @Override
+  public void recordAllocationSuccessAndLatency(long latencyMs) {
+    allocationSuccess.record(latencyMs, TimeUnit.MILLISECONDS);
+  }
+
+  @Override
+  public void recordAllocationFailureAndLatency(long latencyMs) {
+    allocationFailure.record(latencyMs, TimeUnit.MILLISECONDS);
+  }
+
+  @Override
+  public void recordPendingSuccessAndLatency(long latencyMs) {
+    acquirePendingSuccess.record(latencyMs, TimeUnit.MILLISECONDS);
+  }
+
+  @Override
+  public void recordPendingFailureAndLatency(long latencyMs) {
+    acquirePendingFailure.record(latencyMs, TimeUnit.MILLISECONDS);
+  }
+
+  @Override
+  public void recordFastPath() {
+    fastPath.increment();
+  }
+
+  @Override
+  public void recordSlowPath() {
+    slowPath.increment();
+  }
+
+  @Override
+  public void recordResetLatency(long latencyMs) {
+  }
+
+  @Override
+  public void recordDestroyLatency(long latencyMs) {
+  }
+
+  @Override
+  public void recordRecycled() {
+  }
+
+  @Override
+  public void recordLifetimeDuration(long millisecondsSinceAllocation) {
+  }
+
+  @Override
+  public void recordIdleTime(long millisecondsIdle) {
+  }
+}
@@ -0,0 +1,74 @@
+package com.evaluation.project.config;
+
+import com.evaluation.project.service.impl.RateLimiter;
+import com.evaluation.project.service.impl.RateLimiter.Scope;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rejects {@code POST /users}, {@code POST /users/batch} and {@code POST /users/id/{uuid}/login} with 429 and
+ * {@code Retry-After} when the client, identified by its {@value #API_KEY_HEADER} header or else its remote address,
+ * or all clients together exceed the {@link RateLimiter} rates; creations and logins have separate buckets. The
+ * request body is not read, so a rejection costs no decoding and no database work.
+ * Disabled with {@code app.admission.rate-limit.enabled=false}.
+ */
+@Component
+@RequiredArgsConstructor
+public class RateLimitFilter implements WebFilter {
+
+  public static final String API_KEY_HEADER = "X-API-Key";
+
+  private static final long NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+  private static final byte[] TOO_MANY_REQUESTS_BODY =
+      "{\"message\":\"Too many requests, retry later\"}".getBytes(StandardCharsets.UTF_8);
+
+  private final RateLimiter rateLimiter;
+
+  @Override
+  public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+    var request = exchange.getRequest();
+    var scope = request.getMethod() == HttpMethod.POST ? scope(request.getPath().value()) : null;
+    if (!rateLimiter.isEnabled() || scope == null) {
+      return chain.filter(exchange);
+    }
+    long waitNanos = rateLimiter.tryAcquire(scope, clientKey(request));
+    if (waitNanos == 0) {
+      return chain.filter(exchange);
+    }
+    var response = exchange.getResponse();
+    response.setStatusCode(HttpStatus.TOO_MANY_REQUESTS);
+    // whole seconds, rounded up
+    response.getHeaders().set(HttpHeaders.RETRY_AFTER, Long.toString((waitNanos + NANOS_PER_SECOND - 1) / NANOS_PER_SECOND));
+    response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+    return response.writeWith(Mono.fromSupplier(() -> response.bufferFactory().wrap(TOO_MANY_REQUESTS_BODY)));
+  }
+
+  private static Scope scope(String path) {
+    if (path.equals("/users") || path.equals("/users/batch")) {
+      return Scope.CREATE;
+    }
+    return path.startsWith("/users/id/") && path.endsWith("/login") ? Scope.LOGIN : null;
+  }
+
+  private static String clientKey(ServerHttpRequest request) {
+    var apiKey = request.getHeaders().getFirst(API_KEY_HEADER);
+    if (apiKey != null && !apiKey.isBlank()) {
+      return "key:" + apiKey;
+    }
+    var remoteAddress = request.getRemoteAddress();
+    return "ip:" + (remoteAddress == null ? "unknown" : remoteAddress.getHostString());
+  }
+
+}
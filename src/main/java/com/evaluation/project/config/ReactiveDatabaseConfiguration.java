@@ -1,38 +1,87 @@
 package com.evaluation.project.config;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
 import io.r2dbc.spi.ConnectionFactories;
-import io.r2dbc.spi.ConnectionFactory;
 import jakarta.annotation.Nonnull;
-import org.springframework.beans.factory.annotation.Qualifier;
+import org.flywaydb.core.Flyway;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.core.io.ClassPathResource;
+import org.springframework.context.annotation.DependsOn;
 import org.springframework.data.r2dbc.repository.config.EnableR2dbcRepositories;
-import org.springframework.r2dbc.connection.init.CompositeDatabasePopulator;
-import org.springframework.r2dbc.connection.init.ConnectionFactoryInitializer;
-import org.springframework.r2dbc.connection.init.ResourceDatabasePopulator;
+import reactor.core.scheduler.Schedulers;
 
 @Configuration
 @EnableR2dbcRepositories
 public class ReactiveDatabaseConfiguration {
   
-  @Bean
+  private static final String POOL_NAME = "connectionFactory";
+  private static final String R2DBC_H2 = "r2dbc:h2:";
+  private static final String OPTIONS = "?options=";
+  
+  @Bean(destroyMethod = "dispose")
+  @DependsOn("flyway")
   @Nonnull
-  public ConnectionFactory connectionFactory() {
-    return ConnectionFactories.get("r2dbc:h2:mem:///testdb?options=DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE;USER=sa;PASSWORD=");
+  public ConnectionPool connectionFactory(ApplicationProperties applicationProperties, MeterRegistry meterRegistry) {
+    var configuration = ConnectionPoolConfiguration.builder(ConnectionFactories.get(withStatementCache(applicationProperties)))
+        .name(POOL_NAME)
+        .initialSize(applicationProperties.getPoolInitialSize())
+        .maxSize(applicationProperties.getPoolMaxSize())
+        .minIdle(applicationProperties.getPoolMinIdle())
+        .maxIdleTime(applicationProperties.getPoolMaxIdleTime())
+        .maxAcquireTime(applicationProperties.getPoolMaxAcquireTime())
+        .validationQuery(applicationProperties.getPoolValidationQuery())
+        .metricsRecorder(new MicrometerPoolMetricsRecorder(meterRegistry, POOL_NAME))
+        // by default connections are created on Schedulers.single() and handed to their first borrower there; H2
+        // runs queries on the calling thread, so one long scan (startup loaders on a file database) would hold
+        // that thread and every other allocation would wait behind it until max-acquire-time
+        .allocatorSubscribeOn(Schedulers.boundedElastic())
+        .build();
+    return new ConnectionPool(configuration);
+  }
+  
+  // H2 keeps a per-session cache of parsed statements; pooled connections keep their session, so the
+  // fixed set of repository queries is parsed once per connection instead of once per request.
+  private static String withStatementCache(ApplicationProperties applicationProperties) {
+    var url = applicationProperties.getDatasourceUrl();
+    return url + (url.contains(OPTIONS) ? ";" : OPTIONS)
+        + "QUERY_CACHE_SIZE=" + applicationProperties.getStatementCacheSize();
+  }
+  
+  // Flyway only speaks JDBC, so the schema is migrated over a short-lived JDBC connection before the R2DBC pool
+  // is created.
+  @Bean(initMethod = "migrate")
+  public Flyway flyway(ApplicationProperties applicationProperties) {
+    return Flyway.configure()
+        .dataSource(
+            migrationUrl(applicationProperties),
+            applicationProperties.getMigrationUser(),
+            applicationProperties.getMigrationPassword())
+        .locations(applicationProperties.getMigrationLocations())
+        .target(applicationProperties.getMigrationTarget())
+        .load();
   }
   
-  @Bean
-  public ConnectionFactoryInitializer initializer(@Qualifier("connectionFactory") ConnectionFactory connectionFactory) {
-    var initializer = new ConnectionFactoryInitializer();
-    initializer.setConnectionFactory(connectionFactory);
-    
-    var populator = new CompositeDatabasePopulator();
-    populator.addPopulators(new ResourceDatabasePopulator(new ClassPathResource("scripts/h2/schema.sql")));
-    populator.addPopulators(new ResourceDatabasePopulator(new ClassPathResource("scripts/h2/data.sql")));
-    initializer.setDatabasePopulator(populator);
-    
-    return initializer;
+  // Without an explicit app.datasource.migration.url, an H2 R2DBC URL is translated to the JDBC URL of the same
+  // database: r2dbc:h2:mem:///testdb?options=A;B -> jdbc:h2:mem:testdb;A;B, r2dbc:h2:file:///./data/users ->
+  // jdbc:h2:file:./data/users
+  static String migrationUrl(ApplicationProperties applicationProperties) {
+    var migrationUrl = applicationProperties.getMigrationUrl();
+    if (migrationUrl != null && !migrationUrl.isBlank()) {
+      return migrationUrl;
+    }
+    var url = applicationProperties.getDatasourceUrl();
+    var protocolEnd = url.indexOf(":///");
+    var protocol = protocolEnd < 0 ? "" : url.substring(R2DBC_H2.length(), protocolEnd);
+    if (!url.startsWith(R2DBC_H2) || !(protocol.equals("mem") || protocol.equals("file"))) {
+      throw new IllegalStateException("app.datasource.migration.url is required for " + url);
+    }
+    var database = url.substring(protocolEnd + ":///".length());
+    var options = database.indexOf(OPTIONS);
+    return options < 0
+        ? "jdbc:h2:" + protocol + ":" + database
+        : "jdbc:h2:" + protocol + ":" + database.substring(0, options) + ";" + database.substring(options + OPTIONS.length());
   }
   
-}
\ No newline at end of file
+}
@@ -0,0 +1,33 @@
+package com.evaluation.project.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+@Configuration
+public class SchedulerConfiguration {
+  
+  @Bean(destroyMethod = "dispose")
+  public Scheduler cryptoScheduler(ApplicationProperties applicationProperties) {
+    return Schedulers.newParallel("crypto", applicationProperties.getCryptoThreads());
+  }
+  
+  // password hashing gets its own fixed pool with a short queue: once it is full new hashes are rejected (503)
+  // instead of piling up behind each other or starving the JWT and event-loop threads
+  @Bean(destroyMethod = "dispose")
+  public Scheduler passwordScheduler(ApplicationProperties applicationProperties) {
+    int threads = applicationProperties.getPasswordThreads();
+    var executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+        new ArrayBlockingQueue<>(applicationProperties.getPasswordQueueCapacity()),
+        new CustomizableThreadFactory("password-"),
+        new ThreadPoolExecutor.AbortPolicy());
+    return Schedulers.fromExecutorService(executor, "password");
+  }
+  
+}
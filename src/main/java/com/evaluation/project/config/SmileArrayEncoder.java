@@ -0,0 +1,36 @@
+package com.evaluation.project.config;
+
+import org.reactivestreams.Publisher;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.http.codec.json.Jackson2SmileEncoder;
+import org.springframework.util.MimeType;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * {@link Jackson2SmileEncoder} that writes a {@link Flux} sent as {@code application/x-jackson-smile} as one Smile
+ * array. The base encoder joins the elements with the textual {@code [ , ]} of a JSON array, which Smile decoders
+ * reject. The elements are collected first, which is fine for the bounded pages and batches the API returns;
+ * unbounded lists go through {@code application/stream+x-jackson-smile}, one Smile document per element.
+ */
+public class SmileArrayEncoder extends Jackson2SmileEncoder {
+
+    @Override
+    public Flux<DataBuffer> encode(
+            Publisher<?> inputStream,
+            DataBufferFactory bufferFactory,
+            ResolvableType elementType,
+            MimeType mimeType,
+            Map<String, Object> hints) {
+        if (inputStream instanceof Mono || getStreamingMediaTypeSeparator(mimeType) != null) {
+            return super.encode(inputStream, bufferFactory, elementType, mimeType, hints);
+        }
+        return super.encode(Flux.from(inputStream).collectList(), bufferFactory,
+                ResolvableType.forClassWithGenerics(List.class, elementType), mimeType, hints);
+    }
+}
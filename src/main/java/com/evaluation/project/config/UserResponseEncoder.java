@@ -0,0 +1,207 @@
+package com.evaluation.project.config;
+
+import com.evaluation.project.model.dto.Phone;
+import com.evaluation.project.model.dto.UserRequest;
+import com.evaluation.project.model.dto.UserResponse;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonFactoryBuilder;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import org.reactivestreams.Publisher;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.codec.EncodingException;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.HttpMessageEncoder;
+import org.springframework.util.MimeType;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes {@link UserResponse} as JSON (a single object, or an array for a {@link Flux}) and NDJSON straight into the
+ * response {@link DataBuffer}s with a streaming {@link JsonGenerator}, instead of the reflective bean serialization of
+ * the default Jackson encoder. Arrays are written in batches of {@value #BATCH_SIZE} users per buffer rather than
+ * collected first. The output matches what Jackson writes for the same objects.
+ */
+public class UserResponseEncoder implements HttpMessageEncoder<UserResponse> {
+
+    static final int BATCH_SIZE = 64;
+
+    private static final List<MimeType> MIME_TYPES = List.of(MediaType.APPLICATION_JSON, MediaType.APPLICATION_NDJSON);
+    private static final List<MediaType> STREAMING_MEDIA_TYPES = List.of(MediaType.APPLICATION_NDJSON);
+    private static final JsonFactory JSON = new JsonFactoryBuilder().rootValueSeparator((String) null).build();
+    private static final int BYTES_PER_USER = 384;
+    private static final byte[] EMPTY_ARRAY = {'[', ']'};
+    private static final byte[] END_ARRAY = {']'};
+
+    private static final SerializedString UUID = new SerializedString("uuid");
+    private static final SerializedString USER_INFORMATION = new SerializedString("userInformation");
+    private static final SerializedString NAME = new SerializedString("name");
+    private static final SerializedString EMAIL = new SerializedString("email");
+    private static final SerializedString PHONES = new SerializedString("phones");
+    private static final SerializedString NUMBER = new SerializedString("number");
+    private static final SerializedString CITY_CODE = new SerializedString("cityCode");
+    private static final SerializedString COUNTRY_CODE = new SerializedString("countryCode");
+    private static final SerializedString CREATED = new SerializedString("created");
+    private static final SerializedString MODIFIED = new SerializedString("modified");
+    private static final SerializedString LAST_LOGIN = new SerializedString("lastLogin");
+    private static final SerializedString TOKEN = new SerializedString("token");
+    private static final SerializedString IS_ACTIVE = new SerializedString("isActive");
+    private static final SerializedString VERSION = new SerializedString("version");
+
+    @Override
+    public boolean canEncode(ResolvableType elementType, MimeType mimeType) {
+        return UserResponse.class.isAssignableFrom(elementType.toClass())
+                && (mimeType == null || MIME_TYPES.stream().anyMatch(supported -> supported.isCompatibleWith(mimeType)));
+    }
+
+    @Override
+    public List<MimeType> getEncodableMimeTypes() {
+        return MIME_TYPES;
+    }
+
+    @Override
+    public List<MediaType> getStreamingMediaTypes() {
+        return STREAMING_MEDIA_TYPES;
+    }
+
+    @Override
+    public Flux<DataBuffer> encode(
+            Publisher<? extends UserResponse> inputStream,
+            DataBufferFactory bufferFactory,
+            ResolvableType elementType,
+            MimeType mimeType,
+            Map<String, Object> hints) {
+        if (inputStream instanceof Mono) {
+            return Mono.from(inputStream)
+                    .map(userResponse -> encodeValue(userResponse, bufferFactory, elementType, mimeType, hints))
+                    .flux();
+        }
+        if (mimeType != null && MediaType.APPLICATION_NDJSON.isCompatibleWith(mimeType)) {
+            // one buffer per line, each flushed as it is written
+            return Flux.from(inputStream)
+                    .map(userResponse -> write(bufferFactory, List.of(userResponse), -1, -1, '\n'));
+        }
+        return Flux.defer(() -> {
+            var first = new boolean[] {true};
+            return Flux.from(inputStream)
+                    .buffer(BATCH_SIZE)
+                    .map(batch -> {
+                        var buffer = write(bufferFactory, batch, first[0] ? '[' : ',', ',', -1);
+                        first[0] = false;
+                        return buffer;
+                    })
+                    .concatWith(Mono.fromSupplier(() -> bufferFactory.wrap(first[0] ? EMPTY_ARRAY : END_ARRAY)));
+        });
+    }
+
+    @Override
+    public DataBuffer encodeValue(
+            UserResponse userResponse,
+            DataBufferFactory bufferFactory,
+            ResolvableType valueType,
+            MimeType mimeType,
+            Map<String, Object> hints) {
+        return write(bufferFactory, List.of(userResponse), -1, -1, -1);
+    }
+
+    // prefix before the first user, separator between users and terminator after each one; -1 for none
+    private static DataBuffer write(
+            DataBufferFactory bufferFactory, List<? extends UserResponse> users, int prefix, int separator, int terminator) {
+        var buffer = bufferFactory.allocateBuffer(users.size() * BYTES_PER_USER);
+        try (var generator = JSON.createGenerator(buffer.asOutputStream())) {
+            for (int i = 0; i < users.size(); i++) {
+                int before = i == 0 ? prefix : separator;
+                if (before >= 0) {
+                    generator.writeRaw((char) before);
+                }
+                writeUser(generator, users.get(i));
+                if (terminator >= 0) {
+                    generator.writeRaw((char) terminator);
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            DataBufferUtils.release(buffer);
+            throw new EncodingException("Could not write users: " + e.getMessage(), e);
+        }
+        return buffer;
+    }
+
+    private static void writeUser(JsonGenerator generator, UserResponse userResponse) throws IOException {
+        generator.writeStartObject();
+        generator.writeFieldName(UUID);
+        generator.writeString(userResponse.getUuid());
+        generator.writeFieldName(USER_INFORMATION);
+        writeUserInformation(generator, userResponse.getUserInformation());
+        writeTimestamp(generator, CREATED, userResponse.getCreated());
+        writeTimestamp(generator, MODIFIED, userResponse.getModified());
+        writeTimestamp(generator, LAST_LOGIN, userResponse.getLastLogin());
+        // only the creation and login responses carry a token
+        if (userResponse.getToken() != null) {
+            generator.writeFieldName(TOKEN);
+            generator.writeString(userResponse.getToken());
+        }
+        generator.writeFieldName(IS_ACTIVE);
+        if (userResponse.getIsActive() == null) {
+            generator.writeNull();
+        } else {
+            generator.writeBoolean(userResponse.getIsActive());
+        }
+        generator.writeFieldName(VERSION);
+        if (userResponse.getVersion() == null) {
+            generator.writeNull();
+        } else {
+            generator.writeNumber(userResponse.getVersion());
+        }
+        generator.writeEndObject();
+    }
+
+    // the password is write-only and never set on responses
+    private static void writeUserInformation(JsonGenerator generator, UserRequest userInformation) throws IOException {
+        if (userInformation == null) {
+            generator.writeNull();
+            return;
+        }
+        generator.writeStartObject();
+        generator.writeFieldName(NAME);
+        generator.writeString(userInformation.getName());
+        generator.writeFieldName(EMAIL);
+        generator.writeString(userInformation.getEmail());
+        generator.writeFieldName(PHONES);
+        var phones = userInformation.getPhones();
+        if (phones == null) {
+            generator.writeNull();
+        } else {
+            generator.writeStartArray();
+            for (Phone phone : phones) {
+                generator.writeStartObject();
+                generator.writeFieldName(NUMBER);
+                generator.writeString(phone.getNumber());
+                generator.writeFieldName(CITY_CODE);
+                generator.writeString(phone.getCityCode());
+                generator.writeFieldName(COUNTRY_CODE);
+                generator.writeString(phone.getCountryCode());
+                generator.writeEndObject();
+            }
+            generator.writeEndArray();
+        }
+        generator.writeEndObject();
+    }
+
+    private static void writeTimestamp(JsonGenerator generator, SerializedString name, LocalDateTime value) throws IOException {
+        generator.writeFieldName(name);
+        if (value == null) {
+            generator.writeNull();
+        } else {
+            generator.writeString(DateTimeFormatter.ISO_LOCAL_DATE_TIME.format(value));
+        }
+    }
+}
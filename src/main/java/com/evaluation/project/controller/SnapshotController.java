@@ -0,0 +1,39 @@
+package com.evaluation.project.controller;
+
+import com.evaluation.project.model.dto.SnapshotSummary;
+import com.evaluation.project.service.impl.UserSnapshotService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+// Replacing every user is an operator action: the endpoints only exist with app.snapshot.enabled=true and
+// JwtAuthenticationFilter lets in only the app.snapshot.admin-token bearer.
+@RestController
+@RequestMapping("/admin/snapshot")
+@ConditionalOnProperty(name = "app.snapshot.enabled", havingValue = "true")
+@RequiredArgsConstructor
+public class SnapshotController {
+
+  private final UserSnapshotService userSnapshotService;
+
+  @GetMapping(produces = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+  public Flux<DataBuffer> exportSnapshot(ServerHttpResponse response) {
+    response.getHeaders().setContentDisposition(ContentDisposition.attachment().filename("users.snapshot").build());
+    return userSnapshotService.export().map(response.bufferFactory()::wrap);
+  }
+
+  @PostMapping(consumes = MediaType.APPLICATION_OCTET_STREAM_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
+  public Mono<SnapshotSummary> importSnapshot(@RequestBody Flux<DataBuffer> body) {
+    return userSnapshotService.importUpload(body);
+  }
+}
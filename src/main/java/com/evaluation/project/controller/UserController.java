@@ -1,39 +1,167 @@
 package com.evaluation.project.controller;
 
+import com.evaluation.project.config.JwtAuthenticationFilter;
+import com.evaluation.project.util.ApiException;
+import com.evaluation.project.model.dto.BatchUserResult;
+import com.evaluation.project.model.dto.LatencySnapshot;
+import com.evaluation.project.model.dto.LoginRequest;
+import com.evaluation.project.model.dto.UserField;
+import com.evaluation.project.model.dto.UserPatchRequest;
 import com.evaluation.project.model.dto.UserRequest;
 import com.evaluation.project.model.dto.UserResponse;
+import com.evaluation.project.service.impl.IdempotencyStore;
+import com.evaluation.project.service.impl.JwtService;
+import com.evaluation.project.service.impl.LatencyRecorder;
+import com.evaluation.project.service.impl.UserSearchIndex;
 import com.evaluation.project.service.impl.UserServiceImpl;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ServerWebExchange;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
+import static com.evaluation.project.util.UserMapper.project;
+
 @RestController
 @RequestMapping("/users")
 @RequiredArgsConstructor
 @Slf4j
 public class UserController {
 
+  // Smile (binary JSON) for service-to-service calls; the stream type sends one Smile document per user
+  public static final String APPLICATION_SMILE_VALUE = "application/x-jackson-smile";
+  public static final String APPLICATION_STREAM_SMILE_VALUE = "application/stream+x-jackson-smile";
+  public static final String APPLICATION_MERGE_PATCH_JSON_VALUE = "application/merge-patch+json";
+
+  static final String FORBIDDEN = "Token does not belong to this user";
+
   private final UserServiceImpl userService;
+  private final LatencyRecorder latencyRecorder;
+  private final IdempotencyStore idempotencyStore;
   
-  @GetMapping(produces = MediaType.APPLICATION_JSON_VALUE)
-  public Flux<UserResponse> getAllUsers() {
-    return userService.getUsers();
+  @GetMapping(produces = {MediaType.APPLICATION_JSON_VALUE, APPLICATION_SMILE_VALUE})
+  public Flux<UserResponse> getAllUsers(
+          @RequestParam(name = "after", required = false) UUID after,
+          @RequestParam(name = "limit", required = false) Integer limit) {
+    return latencyRecorder.record("GET /users", userService.getUsers(after, limit));
+  }
+
+  @GetMapping(params = "fields", produces = {MediaType.APPLICATION_JSON_VALUE, APPLICATION_SMILE_VALUE})
+  public Flux<Map<String, Object>> getAllUserFields(
+          @RequestParam(name = "after", required = false) UUID after,
+          @RequestParam(name = "limit", required = false) Integer limit,
+          @RequestParam(name = "fields") String fields) {
+    return latencyRecorder.record("GET /users?fields",
+            Flux.defer(() -> {
+              var selected = UserField.parse(fields);
+              return userService.getUsers(after, limit, selected).map(user -> project(user, selected));
+            }));
+  }
+
+  @GetMapping(produces = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.TEXT_EVENT_STREAM_VALUE, APPLICATION_STREAM_SMILE_VALUE})
+  public Flux<UserResponse> streamAllUsers() {
+    return latencyRecorder.record("GET /users (stream)", userService.streamUsers());
   }
 
-  @GetMapping(value = "/id/{uuid}", produces = MediaType.APPLICATION_JSON_VALUE)
+  @GetMapping(value = "/id/{uuid}", produces = {MediaType.APPLICATION_JSON_VALUE, APPLICATION_SMILE_VALUE})
   public Mono<UserResponse> getUserById (@PathVariable("uuid") UUID uuid) {
-    return userService.getUser(uuid);
+    return latencyRecorder.record("GET /users/id/{uuid}", userService.getUser(uuid));
+  }
+
+  @GetMapping(value = "/id/{uuid}", params = "fields", produces = {MediaType.APPLICATION_JSON_VALUE, APPLICATION_SMILE_VALUE})
+  public Mono<Map<String, Object>> getUserFieldsById(
+          @PathVariable("uuid") UUID uuid,
+          @RequestParam(name = "fields") String fields) {
+    return latencyRecorder.record("GET /users/id/{uuid}?fields",
+            Mono.defer(() -> {
+              var selected = UserField.parse(fields);
+              return userService.getUser(uuid, selected).map(user -> project(user, selected));
+            }));
+  }
+
+  @GetMapping(value = "/search", produces = {MediaType.APPLICATION_JSON_VALUE, APPLICATION_SMILE_VALUE})
+  public Flux<UserResponse> searchUsers(
+          @RequestParam(name = "name", required = false) String name,
+          @RequestParam(name = "emailDomain", required = false) String emailDomain,
+          @RequestParam(name = "countryCode", required = false) String countryCode,
+          @RequestParam(name = "cityCode", required = false) String cityCode,
+          @RequestParam(name = "after", required = false) UUID after,
+          @RequestParam(name = "limit", required = false) Integer limit) {
+    var query = new UserSearchIndex.Query(name, emailDomain, countryCode, cityCode);
+    return latencyRecorder.record("GET /users/search", userService.searchUsers(query, after, limit));
+  }
+
+  @GetMapping(value = "/search",
+          produces = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.TEXT_EVENT_STREAM_VALUE, APPLICATION_STREAM_SMILE_VALUE})
+  public Flux<UserResponse> streamSearchUsers(
+          @RequestParam(name = "name", required = false) String name,
+          @RequestParam(name = "emailDomain", required = false) String emailDomain,
+          @RequestParam(name = "countryCode", required = false) String countryCode,
+          @RequestParam(name = "cityCode", required = false) String cityCode) {
+    var query = new UserSearchIndex.Query(name, emailDomain, countryCode, cityCode);
+    return latencyRecorder.record("GET /users/search (stream)", userService.streamSearchUsers(query));
+  }
+
+  @PostMapping(
+          consumes = {MediaType.APPLICATION_JSON_VALUE, APPLICATION_SMILE_VALUE},
+          produces = {MediaType.APPLICATION_JSON_VALUE, APPLICATION_SMILE_VALUE})
+  public Mono<UserResponse> createUser(
+          @RequestHeader(name = "Idempotency-Key", required = false) String idempotencyKey,
+          @Valid @RequestBody UserRequest userRequest) {
+    if (idempotencyKey == null) {
+      return latencyRecorder.record("POST /users", userService.createUser(userRequest));
+    }
+    return latencyRecorder.record("POST /users",
+            idempotencyStore.execute(idempotencyKey, userRequest, () -> userService.createUser(userRequest)));
+  }
+
+  @PostMapping(value = "/batch",
+          consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE,
+                  APPLICATION_SMILE_VALUE, APPLICATION_STREAM_SMILE_VALUE},
+          produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE,
+                  APPLICATION_SMILE_VALUE, APPLICATION_STREAM_SMILE_VALUE})
+  public Flux<BatchUserResult> createUsers(@RequestBody Flux<UserRequest> userRequests) {
+    return latencyRecorder.record("POST /users/batch", userService.createUsers(userRequests));
+  }
+
+  @PatchMapping(value = "/id/{uuid}",
+          consumes = {MediaType.APPLICATION_JSON_VALUE, APPLICATION_MERGE_PATCH_JSON_VALUE, APPLICATION_SMILE_VALUE},
+          produces = {MediaType.APPLICATION_JSON_VALUE, APPLICATION_SMILE_VALUE})
+  public Mono<UserResponse> updateUser(
+          @PathVariable("uuid") UUID uuid,
+          @Valid @RequestBody UserPatchRequest userPatchRequest,
+          ServerWebExchange exchange) {
+    // a user may only modify itself
+    JwtService.Claims claims = exchange.getAttribute(JwtAuthenticationFilter.CLAIMS_ATTRIBUTE);
+    if (claims == null || !claims.subject().equals(uuid)) {
+      return Mono.error(new ApiException(FORBIDDEN, HttpStatus.FORBIDDEN));
+    }
+    return latencyRecorder.record("PATCH /users/id/{uuid}", userService.updateUser(uuid, userPatchRequest));
+  }
+
+  @PostMapping(value = "/id/{uuid}/login",
+          consumes = {MediaType.APPLICATION_JSON_VALUE, APPLICATION_SMILE_VALUE},
+          produces = {MediaType.APPLICATION_JSON_VALUE, APPLICATION_SMILE_VALUE})
+  public Mono<UserResponse> login(@PathVariable("uuid") UUID uuid, @Valid @RequestBody LoginRequest loginRequest) {
+    return latencyRecorder.record("POST /users/id/{uuid}/login", userService.login(uuid, loginRequest.getPassword()));
+  }
+
+  @GetMapping(value = "/metrics/latency", produces = MediaType.APPLICATION_JSON_VALUE)
+  public Mono<List<LatencySnapshot>> getLatency() {
+    return Mono.fromSupplier(latencyRecorder::snapshot);
   }
 
-  @PostMapping(consumes = MediaType.APPLICATION_JSON_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
-  public Mono<UserResponse> createUser(@Valid @RequestBody UserRequest userRequest) {
-    return userService.createUser(userRequest);
+  @DeleteMapping("/metrics/latency")
+  public Mono<Void> resetLatency() {
+    return Mono.fromRunnable(latencyRecorder::reset);
   }
 
 
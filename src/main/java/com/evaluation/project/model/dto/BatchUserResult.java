@@ -0,0 +1,30 @@
+package com.evaluation.project.model.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.Setter;
+
+@Setter
+@Getter
+@Builder
+@Schema(name = "BatchUserResult", description = "Outcome of a single user within a batch creation request")
+public class BatchUserResult {
+
+  public enum Status { CREATED, REJECTED }
+
+  @Schema(description = "Zero-based position of the user in the submitted batch", example = "0")
+  private long index;
+
+  @Schema(description = "Email address submitted for the user", example = "julio@gmail.com")
+  private String email;
+
+  @Schema(description = "Whether the user was created or rejected", example = "CREATED")
+  private Status status;
+
+  @Schema(description = "Reason the user was rejected", example = "Email already in use")
+  private String reason;
+
+  @Schema(description = "Created user, present only when status is CREATED")
+  private UserResponse user;
+}
@@ -0,0 +1,40 @@
+package com.evaluation.project.model.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.Setter;
+
+@Setter
+@Getter
+@Builder
+@Schema(name = "LatencySnapshot", description = "Latency percentiles recorded for one endpoint since startup")
+public class LatencySnapshot {
+
+  @Schema(description = "Endpoint the latencies were recorded for", example = "GET /users/id/{uuid}")
+  private String endpoint;
+
+  @Schema(description = "Number of completed requests", example = "12000")
+  private long count;
+
+  @Schema(description = "Number of requests that completed with an error", example = "3")
+  private long errors;
+
+  @Schema(description = "Mean latency in milliseconds", example = "1.84")
+  private double meanMs;
+
+  @Schema(description = "Median latency in milliseconds", example = "1.52")
+  private double p50Ms;
+
+  @Schema(description = "90th percentile latency in milliseconds", example = "2.91")
+  private double p90Ms;
+
+  @Schema(description = "99th percentile latency in milliseconds", example = "6.03")
+  private double p99Ms;
+
+  @Schema(description = "99.9th percentile latency in milliseconds", example = "11.7")
+  private double p999Ms;
+
+  @Schema(description = "Maximum latency in milliseconds", example = "23.4")
+  private double maxMs;
+}
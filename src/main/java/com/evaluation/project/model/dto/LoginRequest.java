@@ -0,0 +1,18 @@
+package com.evaluation.project.model.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotNull;
+import lombok.*;
+
+@Setter
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(name = "LoginRequest", description = "Credentials of a user logging in")
+public class LoginRequest {
+  @JsonProperty("password")
+  @NotNull
+  @Schema(description = "Password of the user account", example = "password123", accessMode = Schema.AccessMode.WRITE_ONLY)
+  private String password;
+}
@@ -0,0 +1,22 @@
+package com.evaluation.project.model.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.Setter;
+
+@Setter
+@Getter
+@Builder
+@Schema(name = "SnapshotSummary", description = "Rows written by a snapshot import")
+public class SnapshotSummary {
+
+  @Schema(description = "Users imported", example = "1000000")
+  private long users;
+
+  @Schema(description = "Phones imported", example = "2000000")
+  private long phones;
+
+  @Schema(description = "Time spent importing, in milliseconds", example = "41250")
+  private long elapsedMs;
+}
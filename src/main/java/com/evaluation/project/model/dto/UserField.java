@@ -0,0 +1,64 @@
+package com.evaluation.project.model.dto;
+
+import com.evaluation.project.util.ApiException;
+
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Properties of a {@link UserResponse} that can be requested with {@code fields=} on the read endpoints. {@code name},
+ * {@code email} and {@code phones} live under {@code userInformation}. The token is not one of them: it is returned
+ * only to whoever created the user or logged in.
+ */
+public enum UserField {
+  UUID("uuid", false),
+  NAME("name", true),
+  EMAIL("email", true),
+  PHONES("phones", true),
+  CREATED("created", false),
+  MODIFIED("modified", false),
+  LAST_LOGIN("lastLogin", false),
+  IS_ACTIVE("isActive", false),
+  VERSION("version", false);
+
+  public static final Set<UserField> ALL = Collections.unmodifiableSet(EnumSet.allOf(UserField.class));
+
+  private final String property;
+  private final boolean userInformation;
+
+  UserField(String property, boolean userInformation) {
+    this.property = property;
+    this.userInformation = userInformation;
+  }
+
+  public String property() {
+    return property;
+  }
+
+  public boolean isUserInformation() {
+    return userInformation;
+  }
+
+  /** Parses a comma-separated list of property names. {@code uuid} is always included, it is the page cursor. */
+  public static Set<UserField> parse(String fields) {
+    var selected = EnumSet.of(UUID);
+    for (String name : fields.split(",")) {
+      var field = byProperty(name.strip());
+      if (field == null) {
+        throw new ApiException("Unknown field: " + name.strip());
+      }
+      selected.add(field);
+    }
+    return Collections.unmodifiableSet(selected);
+  }
+
+  private static UserField byProperty(String property) {
+    for (UserField field : values()) {
+      if (field.property.equals(property)) {
+        return field;
+      }
+    }
+    return null;
+  }
+}
@@ -0,0 +1,41 @@
+package com.evaluation.project.model.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotNull;
+import lombok.*;
+
+import java.util.List;
+
+@Setter
+@Getter
+@Builder
+@AllArgsConstructor
+@Schema(name = "UserPatchRequest", description = "Partial update of a user; absent properties are left unchanged")
+public class UserPatchRequest {
+  @JsonProperty("name")
+  @Schema(description = "Full name of the user", example = "John Doe")
+  private String name;
+  
+  @JsonProperty("email")
+  @Schema(description = "Email address of the user", example = "julio@gmail.com")
+  private String email;
+  
+  @JsonProperty("password")
+  @Schema(description = "New password for the user account", example = "password123",
+          accessMode = Schema.AccessMode.WRITE_ONLY)
+  private String password;
+  
+  @JsonProperty("phones")
+  @Schema(description = "Complete list of phones; replaces the current ones")
+  private List<Phone> phones;
+  
+  @JsonProperty("isActive")
+  @Schema(description = "Indicates if the user account is active", example = "true")
+  private Boolean isActive;
+  
+  @JsonProperty("version")
+  @NotNull
+  @Schema(description = "Version of the user the change is based on, as last read", example = "0")
+  private Long version;
+}
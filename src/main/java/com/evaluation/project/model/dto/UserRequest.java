@@ -1,5 +1,6 @@
 package com.evaluation.project.model.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import io.swagger.v3.oas.annotations.media.Schema;
 import jakarta.validation.constraints.Email;
@@ -12,6 +13,8 @@ import java.util.List;
 @Setter
 @Getter
 @Builder
+@AllArgsConstructor
+@EqualsAndHashCode
 @Schema(name = "UserRequest", description = "Body with user information for creation or update")
 public class UserRequest {
   @JsonProperty("name")
@@ -24,9 +27,12 @@ public class UserRequest {
   @Schema(description = "Email address of the user", example = "julio@gmail.com")
   private String email;
   
+  // responses are built without the password, so it is left out of them rather than sent as null
   @JsonProperty("password")
+  @JsonInclude(JsonInclude.Include.NON_NULL)
   @NotNull
-  @Schema(description = "Password for the user account", example = "password123")
+  @Schema(description = "Password for the user account, never returned", example = "password123",
+          accessMode = Schema.AccessMode.WRITE_ONLY)
   private String password;
   
   @JsonProperty("phones")
@@ -1,7 +1,9 @@
 package com.evaluation.project.model.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Getter;
 import lombok.Setter;
@@ -9,7 +11,8 @@ import java.time.LocalDateTime;
 
 @Setter
 @Getter
-@Builder
+@Builder(toBuilder = true)
+@AllArgsConstructor
 @Schema(name = "UserResponse", description = "Response payload for user information")
 public class UserResponse {
 
@@ -28,9 +31,13 @@ public class UserResponse {
   @Schema(description = "Timestamp when the user last logged in", example = "2023-10-03T09:45:00")
   private LocalDateTime lastLogin;
   
-  @Schema(description = "Authentication token for the user", example = "")
+  @Schema(description = "Authentication token for the user, only in the creation and login responses", example = "")
+  @JsonInclude(JsonInclude.Include.NON_NULL)
   private String token;
   
   @Schema(description = "Indicates if the user account is active", example = "true")
   private Boolean isActive;
+  
+  @Schema(description = "Version of the user, sent back in PATCH requests to detect concurrent changes", example = "0")
+  private Long version;
 }
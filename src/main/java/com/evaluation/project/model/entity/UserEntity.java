@@ -21,6 +21,8 @@ public class UserEntity {
   private LocalDateTime createdAt;
   private LocalDateTime modifiedAt;
   private LocalDateTime lastLogin;
+  // issued on creation and returned once; never written to USERS.TOKEN, which is left NULL
   private String token;
   private boolean isActive;
+  private long version;
 }
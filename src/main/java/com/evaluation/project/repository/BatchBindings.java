@@ -0,0 +1,45 @@
+package com.evaluation.project.repository;
+
+import io.r2dbc.spi.Statement;
+import org.springframework.r2dbc.core.Parameter;
+
+import java.util.HashMap;
+import java.util.Map;
+
+final class BatchBindings {
+
+    private BatchBindings() {
+    }
+
+    static StringBuilder appendRow(StringBuilder sql, int row, String... parameters) {
+        if (row > 0) {
+            sql.append(", ");
+        }
+        sql.append('(');
+        for (int i = 0; i < parameters.length; i++) {
+            if (i > 0) {
+                sql.append(", ");
+            }
+            sql.append(':').append(parameters[i]).append(row);
+        }
+        return sql.append(')');
+    }
+
+    // GenericExecuteSpec.bind copies all existing bindings on every call, so a multi-row insert collects its
+    // values first and binds them once with bindValues.
+    static Map<String, Object> parameters(int rows, int parametersPerRow) {
+        return HashMap.newHashMap(rows * parametersPerRow);
+    }
+
+    static <T> void putNullable(Map<String, Object> parameters, String name, T value, Class<T> type) {
+        parameters.put(name, Parameter.fromOrEmpty(value, type));
+    }
+
+    static <T> void bindNullable(Statement statement, int index, T value, Class<T> type) {
+        if (value == null) {
+            statement.bindNull(index, type);
+        } else {
+            statement.bind(index, value);
+        }
+    }
+}
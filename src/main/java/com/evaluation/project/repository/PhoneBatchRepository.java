@@ -0,0 +1,14 @@
+package com.evaluation.project.repository;
+
+import com.evaluation.project.model.entity.PhoneEntity;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+public interface PhoneBatchRepository {
+
+    Mono<Void> insertAll(List<PhoneEntity> phoneEntities);
+
+    /** Phones counterpart of {@link UserBatchRepository#bulkInsert}. */
+    Mono<Void> bulkInsert(List<PhoneEntity> phoneEntities);
+}
@@ -0,0 +1,69 @@
+package com.evaluation.project.repository;
+
+import com.evaluation.project.model.entity.PhoneEntity;
+import io.r2dbc.spi.Result;
+import lombok.RequiredArgsConstructor;
+import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+import static com.evaluation.project.repository.BatchBindings.appendRow;
+import static com.evaluation.project.repository.BatchBindings.bindNullable;
+import static com.evaluation.project.repository.BatchBindings.parameters;
+import static com.evaluation.project.repository.BatchBindings.putNullable;
+
+@RequiredArgsConstructor
+public class PhoneBatchRepositoryImpl implements PhoneBatchRepository {
+
+    private static final String INSERT_PREFIX =
+            "INSERT INTO PHONES (UUID, NUMBER, CITY_CODE, COUNTRY_CODE) VALUES ";
+    private static final String[] PARAMETERS = {"uuid", "number", "cityCode", "countryCode"};
+
+    private static final String BULK_INSERT =
+            "INSERT INTO PHONES (UUID, NUMBER, CITY_CODE, COUNTRY_CODE) VALUES ($1, $2, $3, $4)";
+
+    private final DatabaseClient databaseClient;
+
+    @Override
+    public Mono<Void> insertAll(List<PhoneEntity> phoneEntities) {
+        if (phoneEntities.isEmpty()) {
+            return Mono.empty();
+        }
+        var sql = new StringBuilder(INSERT_PREFIX);
+        for (int row = 0; row < phoneEntities.size(); row++) {
+            appendRow(sql, row, PARAMETERS);
+        }
+        var parameters = parameters(phoneEntities.size(), PARAMETERS.length);
+        for (int row = 0; row < phoneEntities.size(); row++) {
+            var phone = phoneEntities.get(row);
+            parameters.put("uuid" + row, phone.getUuid());
+            putNullable(parameters, "number" + row, phone.getNumber(), String.class);
+            putNullable(parameters, "cityCode" + row, phone.getCityCode(), String.class);
+            putNullable(parameters, "countryCode" + row, phone.getCountryCode(), String.class);
+        }
+        return databaseClient.sql(sql.toString()).bindValues(parameters).then();
+    }
+
+    @Override
+    public Mono<Void> bulkInsert(List<PhoneEntity> phoneEntities) {
+        if (phoneEntities.isEmpty()) {
+            return Mono.empty();
+        }
+        return databaseClient.inConnectionMany(connection -> {
+            var statement = connection.createStatement(BULK_INSERT);
+            for (int row = 0; row < phoneEntities.size(); row++) {
+                if (row > 0) {
+                    statement.add();
+                }
+                var phone = phoneEntities.get(row);
+                statement.bind(0, phone.getUuid());
+                bindNullable(statement, 1, phone.getNumber(), String.class);
+                bindNullable(statement, 2, phone.getCityCode(), String.class);
+                bindNullable(statement, 3, phone.getCountryCode(), String.class);
+            }
+            return Flux.from(statement.execute()).flatMap(Result::getRowsUpdated);
+        }).then();
+    }
+}
@@ -1,14 +1,25 @@
 package com.evaluation.project.repository;
 
 import com.evaluation.project.model.entity.PhoneEntity;
+import org.springframework.data.r2dbc.repository.Modifying;
+import org.springframework.data.r2dbc.repository.Query;
 import org.springframework.data.r2dbc.repository.R2dbcRepository;
 import org.springframework.stereotype.Repository;
 import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
 import java.util.UUID;
 
 @Repository
-public interface PhoneRepository extends R2dbcRepository<PhoneEntity, Integer> {
+public interface PhoneRepository extends R2dbcRepository<PhoneEntity, Integer>, PhoneBatchRepository {
   
   Flux<PhoneEntity> findByUuid(UUID uuid);
+  
+  @Query("SELECT * FROM PHONES ORDER BY UUID, PHONE_ID")
+  Flux<PhoneEntity> findAllOrderByUuid();
+  
+  // one statement rather than deleteAll(); not TRUNCATE, which in H2 commits the transaction it runs in
+  @Modifying
+  @Query("DELETE FROM PHONES")
+  Mono<Void> deleteAllRows();
 }
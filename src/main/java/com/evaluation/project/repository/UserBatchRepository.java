@@ -0,0 +1,17 @@
+package com.evaluation.project.repository;
+
+import com.evaluation.project.model.entity.UserEntity;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+public interface UserBatchRepository {
+
+    Mono<Void> insertAll(List<UserEntity> userEntities);
+
+    /**
+     * Inserts {@code userEntities} with one prepared statement and a parameter set per row ({@code Statement.add}), for
+     * imports of thousands of rows where expanding the named parameters of a multi-row insert costs more than the insert.
+     */
+    Mono<Void> bulkInsert(List<UserEntity> userEntities);
+}
@@ -0,0 +1,82 @@
+package com.evaluation.project.repository;
+
+import com.evaluation.project.model.entity.UserEntity;
+import io.r2dbc.spi.Result;
+import lombok.RequiredArgsConstructor;
+import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static com.evaluation.project.repository.BatchBindings.appendRow;
+import static com.evaluation.project.repository.BatchBindings.bindNullable;
+import static com.evaluation.project.repository.BatchBindings.parameters;
+import static com.evaluation.project.repository.BatchBindings.putNullable;
+
+@RequiredArgsConstructor
+public class UserBatchRepositoryImpl implements UserBatchRepository {
+
+    private static final String INSERT_PREFIX =
+            "INSERT INTO USERS (UUID, NAME, EMAIL, PASSWORD, CREATED_AT, MODIFIED_AT, LAST_LOGIN, IS_ACTIVE, VERSION) VALUES ";
+    private static final String[] PARAMETERS =
+            {"uuid", "name", "email", "password", "createdAt", "modifiedAt", "lastLogin", "isActive", "version"};
+
+    private static final String BULK_INSERT =
+            "INSERT INTO USERS (UUID, NAME, EMAIL, PASSWORD, CREATED_AT, MODIFIED_AT, LAST_LOGIN, IS_ACTIVE, VERSION) "
+                    + "VALUES ($1, $2, $3, $4, $5, $6, $7, $8, $9)";
+
+    private final DatabaseClient databaseClient;
+
+    @Override
+    public Mono<Void> insertAll(List<UserEntity> userEntities) {
+        if (userEntities.isEmpty()) {
+            return Mono.empty();
+        }
+        var sql = new StringBuilder(INSERT_PREFIX);
+        for (int row = 0; row < userEntities.size(); row++) {
+            appendRow(sql, row, PARAMETERS);
+        }
+        var parameters = parameters(userEntities.size(), PARAMETERS.length);
+        for (int row = 0; row < userEntities.size(); row++) {
+            var user = userEntities.get(row);
+            parameters.put("uuid" + row, user.getUuid());
+            parameters.put("name" + row, user.getName());
+            parameters.put("email" + row, user.getEmail());
+            parameters.put("password" + row, user.getPassword());
+            parameters.put("isActive" + row, user.isActive());
+            parameters.put("version" + row, user.getVersion());
+            putNullable(parameters, "createdAt" + row, user.getCreatedAt(), LocalDateTime.class);
+            putNullable(parameters, "modifiedAt" + row, user.getModifiedAt(), LocalDateTime.class);
+            putNullable(parameters, "lastLogin" + row, user.getLastLogin(), LocalDateTime.class);
+        }
+        return databaseClient.sql(sql.toString()).bindValues(parameters).then();
+    }
+
+    @Override
+    public Mono<Void> bulkInsert(List<UserEntity> userEntities) {
+        if (userEntities.isEmpty()) {
+            return Mono.empty();
+        }
+        return databaseClient.inConnectionMany(connection -> {
+            var statement = connection.createStatement(BULK_INSERT);
+            for (int row = 0; row < userEntities.size(); row++) {
+                if (row > 0) {
+                    statement.add();
+                }
+                var user = userEntities.get(row);
+                statement.bind(0, user.getUuid());
+                statement.bind(1, user.getName());
+                statement.bind(2, user.getEmail());
+                statement.bind(3, user.getPassword());
+                bindNullable(statement, 4, user.getCreatedAt(), LocalDateTime.class);
+                bindNullable(statement, 5, user.getModifiedAt(), LocalDateTime.class);
+                bindNullable(statement, 6, user.getLastLogin(), LocalDateTime.class);
+                statement.bind(7, user.isActive());
+                statement.bind(8, user.getVersion());
+            }
+            return Flux.from(statement.execute()).flatMap(Result::getRowsUpdated);
+        }).then();
+    }
+}
@@ -0,0 +1,31 @@
+package com.evaluation.project.repository;
+
+import com.evaluation.project.model.dto.UserField;
+import com.evaluation.project.model.dto.UserResponse;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Collection;
+import java.util.Set;
+import java.util.UUID;
+
+public interface UserReadRepository {
+
+    Mono<UserResponse> findUserWithPhones(UUID uuid);
+
+    Flux<UserResponse> findPageWithPhones(UUID after, int limit);
+
+    /** Reads only the columns of {@code fields}; PHONES is not joined unless {@code phones} is selected. */
+    Mono<UserResponse> findUser(UUID uuid, Set<UserField> fields);
+
+    Flux<UserResponse> findPage(UUID after, int limit, Set<UserField> fields);
+
+    /** The users of {@code uuids} that exist, ordered by UUID, read with one query. */
+    Flux<UserResponse> findUsers(Collection<UUID> uuids, Set<UserField> fields);
+
+    /**
+     * Every user in storage order, read with one sequential scan for bulk loads. PHONES is never joined, even if
+     * selected: a join costs a random index lookup per user; scan it with {@link PhoneRepository#findAll()} instead.
+     */
+    Flux<UserResponse> scanUsers(Set<UserField> fields);
+}
@@ -0,0 +1,101 @@
+package com.evaluation.project.repository;
+
+import com.evaluation.project.model.dto.UserField;
+import com.evaluation.project.model.dto.UserResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.r2dbc.core.DatabaseClient.GenericExecuteSpec;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+@RequiredArgsConstructor
+public class UserReadRepositoryImpl implements UserReadRepository {
+
+    // The password hash is never read back.
+    private record Queries(String byId, String byIds, String firstPage, String pageAfter) {
+
+        static Queries of(Set<UserField> fields) {
+            var columns = UserRowFolder.columns(fields);
+            if (!fields.contains(UserField.PHONES)) {
+                return new Queries(
+                        "SELECT " + columns + " FROM USERS U WHERE U.UUID = :uuid",
+                        "SELECT " + columns + " FROM USERS U WHERE U.UUID IN (:uuids) ORDER BY U.UUID",
+                        "SELECT " + columns + " FROM USERS U ORDER BY U.UUID LIMIT :limit",
+                        "SELECT " + columns + " FROM USERS U WHERE U.UUID > :after ORDER BY U.UUID LIMIT :limit");
+            }
+            return new Queries(
+                    "SELECT " + columns + " FROM USERS U LEFT JOIN PHONES P ON P.UUID = U.UUID "
+                    + "WHERE U.UUID = :uuid ORDER BY P.PHONE_ID",
+                    "SELECT " + columns + " FROM USERS U LEFT JOIN PHONES P ON P.UUID = U.UUID "
+                    + "WHERE U.UUID IN (:uuids) ORDER BY U.UUID, P.PHONE_ID",
+                    "SELECT " + columns + " FROM (SELECT * FROM USERS ORDER BY UUID LIMIT :limit) U "
+                    + "LEFT JOIN PHONES P ON P.UUID = U.UUID ORDER BY U.UUID, P.PHONE_ID",
+                    "SELECT " + columns + " FROM (SELECT * FROM USERS WHERE UUID > :after ORDER BY UUID LIMIT :limit) U "
+                    + "LEFT JOIN PHONES P ON P.UUID = U.UUID ORDER BY U.UUID, P.PHONE_ID");
+        }
+    }
+
+    private static final Queries ALL_FIELDS = Queries.of(UserField.ALL);
+
+    // at most 2^9 selections (uuid is always read), built once each
+    private final Map<Set<UserField>, Queries> projections = new ConcurrentHashMap<>();
+    private final DatabaseClient databaseClient;
+
+    @Override
+    public Mono<UserResponse> findUserWithPhones(UUID uuid) {
+        return findUser(uuid, UserField.ALL);
+    }
+
+    @Override
+    public Flux<UserResponse> findPageWithPhones(UUID after, int limit) {
+        return findPage(after, limit, UserField.ALL);
+    }
+
+    @Override
+    public Mono<UserResponse> findUser(UUID uuid, Set<UserField> fields) {
+        return fold(databaseClient.sql(queries(fields).byId()).bind("uuid", uuid), fields).next();
+    }
+
+    @Override
+    public Flux<UserResponse> findPage(UUID after, int limit, Set<UserField> fields) {
+        var queries = queries(fields);
+        var spec = after == null
+                ? databaseClient.sql(queries.firstPage())
+                : databaseClient.sql(queries.pageAfter()).bind("after", after);
+        return fold(spec.bind("limit", limit), fields);
+    }
+
+    @Override
+    public Flux<UserResponse> findUsers(Collection<UUID> uuids, Set<UserField> fields) {
+        return fold(databaseClient.sql(queries(fields).byIds()).bind("uuids", uuids), fields);
+    }
+
+    @Override
+    public Flux<UserResponse> scanUsers(Set<UserField> fields) {
+        var columns = EnumSet.noneOf(UserField.class);
+        columns.addAll(fields);
+        columns.remove(UserField.PHONES);
+        return fold(databaseClient.sql("SELECT " + UserRowFolder.columns(columns) + " FROM USERS U"), columns);
+    }
+
+    private Queries queries(Set<UserField> fields) {
+        return fields.equals(UserField.ALL) ? ALL_FIELDS : projections.computeIfAbsent(fields, Queries::of);
+    }
+
+    private static Flux<UserResponse> fold(GenericExecuteSpec spec, Set<UserField> fields) {
+        return Flux.defer(() -> {
+            var folder = new UserRowFolder(fields);
+            return spec.map(folder::accept)
+                    .all()
+                    .filter(UserRowFolder::isCompleted)
+                    .concatWith(Mono.fromSupplier(folder::finish));
+        });
+    }
+}
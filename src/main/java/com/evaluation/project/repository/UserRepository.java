@@ -1,14 +1,37 @@
 package com.evaluation.project.repository;
 
 import com.evaluation.project.model.entity.UserEntity;
+import org.springframework.data.r2dbc.repository.Modifying;
+import org.springframework.data.r2dbc.repository.Query;
 import org.springframework.data.r2dbc.repository.R2dbcRepository;
 import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.util.Collection;
 import java.util.UUID;
 
 @Repository
-public interface UserRepository extends R2dbcRepository<UserEntity, UUID> {
+public interface UserRepository extends R2dbcRepository<UserEntity, UUID>, UserBatchRepository, UserReadRepository, UserUpdateRepository {
 
     Mono<UserEntity> findByEmail(String email);
-}
\ No newline at end of file
+
+    @Query("SELECT EMAIL FROM USERS")
+    Flux<String> findAllEmails();
+
+    @Query("SELECT EMAIL FROM USERS WHERE EMAIL IN (:emails)")
+    Flux<String> findExistingEmails(Collection<String> emails);
+
+    @Query("SELECT UUID FROM USERS ORDER BY LAST_LOGIN DESC LIMIT :limit")
+    Flux<UUID> findRecentlyActive(int limit);
+
+    @Query("SELECT * FROM USERS ORDER BY UUID")
+    Flux<UserEntity> findAllOrderByUuid();
+
+    @Query("SELECT PASSWORD FROM USERS WHERE UUID = :uuid")
+    Mono<String> findPasswordByUuid(UUID uuid);
+
+    @Modifying
+    @Query("DELETE FROM USERS")
+    Mono<Void> deleteAllRows();
+}
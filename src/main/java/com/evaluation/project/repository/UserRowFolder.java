@@ -0,0 +1,116 @@
+package com.evaluation.project.repository;
+
+import com.evaluation.project.model.dto.Phone;
+import com.evaluation.project.model.dto.UserField;
+import com.evaluation.project.model.dto.UserRequest;
+import com.evaluation.project.model.dto.UserResponse;
+import io.r2dbc.spi.Readable;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Folds the rows of a USERS LEFT JOIN PHONES query, ordered by user, into one {@link UserResponse} per user. Each
+ * row yields the user completed by that row (when the user changes) or {@link #PENDING}; {@link #finish()} returns
+ * the last user. Only the selected fields are read and set, in the column order of {@link #columns(Set)}. Not
+ * thread-safe: one instance per query execution.
+ */
+final class UserRowFolder {
+
+    private static final UserResponse PENDING = UserResponse.builder().build();
+
+    private final int[] indexes = new int[UserField.values().length];
+    private final boolean userInformation;
+    private UserResponse current;
+    private UUID currentUuid;
+    private List<Phone> phones;
+
+    UserRowFolder(Set<UserField> fields) {
+        // user columns in enum order, then the three phone columns
+        int index = 0;
+        for (UserField field : UserField.values()) {
+            boolean selected = field == UserField.UUID || field != UserField.PHONES && fields.contains(field);
+            indexes[field.ordinal()] = selected ? index++ : -1;
+        }
+        indexes[UserField.PHONES.ordinal()] = fields.contains(UserField.PHONES) ? index : -1;
+        this.userInformation = fields.stream().anyMatch(UserField::isUserInformation);
+    }
+
+    /** The SELECT list for {@code fields}, user columns first and the phone columns last. */
+    static String columns(Set<UserField> fields) {
+        var columns = new StringBuilder("U.UUID");
+        for (UserField field : UserField.values()) {
+            var column = !fields.contains(field) ? null : switch (field) {
+                case UUID, PHONES -> null;
+                case NAME -> "U.NAME";
+                case EMAIL -> "U.EMAIL";
+                case CREATED -> "U.CREATED_AT";
+                case MODIFIED -> "U.MODIFIED_AT";
+                case LAST_LOGIN -> "U.LAST_LOGIN";
+                case IS_ACTIVE -> "U.IS_ACTIVE";
+                case VERSION -> "U.VERSION";
+            };
+            if (column != null) {
+                columns.append(", ").append(column);
+            }
+        }
+        if (fields.contains(UserField.PHONES)) {
+            columns.append(", P.NUMBER, P.CITY_CODE, P.COUNTRY_CODE");
+        }
+        return columns.toString();
+    }
+
+    UserResponse accept(Readable row) {
+        var uuid = row.get(0, UUID.class);
+        var completed = PENDING;
+        if (!uuid.equals(currentUuid)) {
+            if (current != null) {
+                completed = current;
+            }
+            start(uuid, row);
+        }
+        int phoneIndex = indexes[UserField.PHONES.ordinal()];
+        if (phoneIndex >= 0) {
+            var number = row.get(phoneIndex, String.class);
+            if (number != null) {
+                phones.add(new Phone(number, row.get(phoneIndex + 1, String.class), row.get(phoneIndex + 2, String.class)));
+            }
+        }
+        return completed;
+    }
+
+    UserResponse finish() {
+        var last = current;
+        current = null;
+        return last;
+    }
+
+    static boolean isCompleted(UserResponse userResponse) {
+        return userResponse != PENDING;
+    }
+
+    private void start(UUID uuid, Readable row) {
+        currentUuid = uuid;
+        phones = indexes[UserField.PHONES.ordinal()] >= 0 ? new ArrayList<>(2) : null;
+        var userInformation = this.userInformation
+                ? new UserRequest(get(row, UserField.NAME, String.class), get(row, UserField.EMAIL, String.class), null, phones)
+                : null;
+        current = new UserResponse(
+                uuid.toString(),
+                userInformation,
+                get(row, UserField.CREATED, LocalDateTime.class),
+                get(row, UserField.MODIFIED, LocalDateTime.class),
+                get(row, UserField.LAST_LOGIN, LocalDateTime.class),
+                null,
+                get(row, UserField.IS_ACTIVE, Boolean.class),
+                get(row, UserField.VERSION, Long.class));
+    }
+
+    private <T> T get(Readable row, UserField field, Class<T> type) {
+        int index = indexes[field.ordinal()];
+        return index < 0 ? null : row.get(index, type);
+    }
+}
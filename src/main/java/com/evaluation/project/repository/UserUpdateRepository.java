@@ -0,0 +1,20 @@
+package com.evaluation.project.repository;
+
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.UUID;
+
+public interface UserUpdateRepository {
+
+    /**
+     * Sets the non-null columns plus MODIFIED_AT and increments VERSION, only while VERSION is still {@code version}.
+     * Completes with the number of rows updated: 0 when the user is missing or was changed concurrently.
+     */
+    Mono<Long> updateUser(
+            UUID uuid, long version, LocalDateTime modifiedAt, String name, String email, String password, Boolean isActive);
+
+    /** Moves LAST_LOGIN forward for each user in one statement; unknown users and older logins are ignored. */
+    Mono<Void> updateLastLogins(Map<UUID, LocalDateTime> lastLogins);
+}
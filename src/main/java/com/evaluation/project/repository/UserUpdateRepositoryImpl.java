@@ -0,0 +1,64 @@
+package com.evaluation.project.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.UUID;
+
+import static com.evaluation.project.repository.BatchBindings.appendRow;
+import static com.evaluation.project.repository.BatchBindings.parameters;
+
+@RequiredArgsConstructor
+public class UserUpdateRepositoryImpl implements UserUpdateRepository {
+
+    private static final String MERGE_LAST_LOGINS_PREFIX = "MERGE INTO USERS U USING (VALUES ";
+    private static final String MERGE_LAST_LOGINS_SUFFIX = ") AS T (UUID, LAST_LOGIN) ON U.UUID = T.UUID "
+            + "WHEN MATCHED AND (U.LAST_LOGIN IS NULL OR U.LAST_LOGIN < T.LAST_LOGIN) THEN UPDATE SET LAST_LOGIN = T.LAST_LOGIN";
+    private static final String[] LAST_LOGIN_PARAMETERS = {"uuid", "lastLogin"};
+
+    private final DatabaseClient databaseClient;
+
+    @Override
+    public Mono<Long> updateUser(
+            UUID uuid, long version, LocalDateTime modifiedAt, String name, String email, String password, Boolean isActive) {
+        var sql = new StringBuilder("UPDATE USERS SET MODIFIED_AT = :modifiedAt, VERSION = VERSION + 1");
+        var parameters = parameters(1, 7);
+        parameters.put("uuid", uuid);
+        parameters.put("version", version);
+        parameters.put("modifiedAt", modifiedAt);
+        set(sql, parameters, "NAME", "name", name);
+        set(sql, parameters, "EMAIL", "email", email);
+        set(sql, parameters, "PASSWORD", "password", password);
+        set(sql, parameters, "IS_ACTIVE", "isActive", isActive);
+        sql.append(" WHERE UUID = :uuid AND VERSION = :version");
+        return databaseClient.sql(sql.toString()).bindValues(parameters).fetch().rowsUpdated();
+    }
+
+    @Override
+    public Mono<Void> updateLastLogins(Map<UUID, LocalDateTime> lastLogins) {
+        if (lastLogins.isEmpty()) {
+            return Mono.empty();
+        }
+        var sql = new StringBuilder(MERGE_LAST_LOGINS_PREFIX);
+        var parameters = parameters(lastLogins.size(), LAST_LOGIN_PARAMETERS.length);
+        int row = 0;
+        for (var lastLogin : lastLogins.entrySet()) {
+            appendRow(sql, row, LAST_LOGIN_PARAMETERS);
+            parameters.put("uuid" + row, lastLogin.getKey());
+            parameters.put("lastLogin" + row, lastLogin.getValue());
+            row++;
+        }
+        sql.append(MERGE_LAST_LOGINS_SUFFIX);
+        return databaseClient.sql(sql.toString()).bindValues(parameters).then();
+    }
+
+    private static void set(StringBuilder sql, Map<String, Object> parameters, String column, String parameter, Object value) {
+        if (value != null) {
+            sql.append(", ").append(column).append(" = :").append(parameter);
+            parameters.put(parameter, value);
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package com.evaluation.project.service.impl;
+
+import com.evaluation.project.util.ApiException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * AIMD concurrency limit for the database part of {@code createUser} and {@code updateUser}. Operations over the limit
+ * fail at once with 503 instead of queueing for a pooled connection. Each completed operation adjusts the limit: it
+ * shrinks by {@code backoff-ratio} when the operation took longer than {@code latency-threshold} or failed for a reason
+ * other than a constraint violation, and grows by one when it succeeded in time while at least half the limit was in
+ * use.
+ */
+@Component
+public class AdaptiveConcurrencyLimiter {
+
+    static final String DATABASE_BUSY = "Too many concurrent database writes, retry later";
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final long latencyThresholdNanos;
+    private final double backoffRatio;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final Counter rejections;
+    private volatile double limit;
+
+    public AdaptiveConcurrencyLimiter(
+            @Value("${app.admission.concurrency.initial-limit:16}") int initialLimit,
+            @Value("${app.admission.concurrency.min-limit:1}") int minLimit,
+            @Value("${app.admission.concurrency.max-limit:64}") int maxLimit,
+            @Value("${app.admission.concurrency.latency-threshold:100ms}") Duration latencyThreshold,
+            @Value("${app.admission.concurrency.backoff-ratio:0.9}") double backoffRatio,
+            MeterRegistry meterRegistry) {
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.latencyThresholdNanos = latencyThreshold.toNanos();
+        this.backoffRatio = backoffRatio;
+        this.limit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+        this.rejections = RateLimiter.rejections(meterRegistry, "concurrency");
+        Gauge.builder("users.admission.concurrency.limit", this, AdaptiveConcurrencyLimiter::getLimit)
+                .description("Current limit of concurrent user inserts")
+                .register(meterRegistry);
+        Gauge.builder("users.admission.concurrency.in_flight", inFlight, AtomicInteger::get)
+                .description("User inserts in progress")
+                .register(meterRegistry);
+    }
+
+    public <T> Mono<T> limit(Mono<T> operation) {
+        return Mono.defer(() -> {
+            int inFlightAtStart = tryAcquire();
+            if (inFlightAtStart == 0) {
+                rejections.increment();
+                return Mono.error(new ApiException(DATABASE_BUSY, HttpStatus.SERVICE_UNAVAILABLE));
+            }
+            long start = System.nanoTime();
+            return operation
+                    .doOnSuccess(unused -> release(inFlightAtStart, System.nanoTime() - start, false))
+                    .doOnError(throwable -> release(inFlightAtStart, System.nanoTime() - start,
+                            !(throwable instanceof DataIntegrityViolationException)))
+                    .doOnCancel(inFlight::decrementAndGet);
+        });
+    }
+
+    public int getLimit() {
+        return (int) limit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    // the number of operations in flight including this one, or 0 when the limit is reached
+    private int tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= (int) limit) {
+                return 0;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return current + 1;
+            }
+        }
+    }
+
+    private void release(int inFlightAtStart, long latencyNanos, boolean failed) {
+        inFlight.decrementAndGet();
+        synchronized (this) {
+            if (failed || latencyNanos > latencyThresholdNanos) {
+                limit = Math.max(minLimit, limit * backoffRatio);
+            } else if (inFlightAtStart * 2 >= limit) {
+                limit = Math.min(maxLimit, limit + 1);
+            }
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package com.evaluation.project.service.impl;
+
+import com.evaluation.project.repository.UserRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bloom filter over the normalized emails stored in USERS. A negative answer means the email is
+ * certainly new; a positive one still has to be confirmed against the database.
+ */
+@Component
+@Slf4j
+public class EmailIndex {
+
+    private final UserRepository userRepository;
+    private final AtomicLongArray words;
+    private final long bitCount;
+    private final int hashFunctions;
+    private volatile boolean ready;
+
+    public EmailIndex(
+            UserRepository userRepository,
+            @Value("${app.email-index.expected-insertions:1000000}") long expectedInsertions,
+            @Value("${app.email-index.false-positive-rate:0.01}") double falsePositiveRate) {
+        this.userRepository = userRepository;
+        long bits = (long) Math.ceil(-expectedInsertions * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        int wordCount = (int) Math.max(1, (bits + 63) / 64);
+        this.words = new AtomicLongArray(wordCount);
+        this.bitCount = wordCount * 64L;
+        this.hashFunctions = (int) Math.max(1, Math.round((double) bitCount / expectedInsertions * Math.log(2)));
+    }
+
+    /**
+     * Adds every stored email, at startup and again after a snapshot import. Until it completes every email is
+     * checked against the database; bits of emails no longer stored stay set and only cost that check.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        ready = false;
+        long start = System.nanoTime();
+        userRepository.findAllEmails()
+                .doOnNext(this::put)
+                .count()
+                .subscribe(
+                        count -> {
+                            ready = true;
+                            log.info("Email index loaded with {} emails in {} ms", count, (System.nanoTime() - start) / 1_000_000);
+                        },
+                        throwable -> log.error("Error loading email index, falling back to database lookups: {}", throwable.getMessage()));
+    }
+
+    /** Checks every email against the database until the next {@link #load()}. */
+    void invalidate() {
+        ready = false;
+    }
+
+    public boolean mightContain(String email) {
+        if (!ready) {
+            return true;
+        }
+        long hash = hash(email);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 1; i <= hashFunctions; i++) {
+            long bit = index(h1 + i * h2);
+            if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public void put(String email) {
+        long hash = hash(email);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 1; i <= hashFunctions; i++) {
+            long bit = index(h1 + i * h2);
+            int word = (int) (bit >>> 6);
+            long mask = 1L << bit;
+            long current;
+            while (((current = words.get(word)) & mask) == 0 && !words.compareAndSet(word, current, current | mask)) {
+                Thread.onSpinWait();
+            }
+        }
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    private long index(int combinedHash) {
+        return (combinedHash & 0x7fffffffL) % bitCount;
+    }
+
+    static String normalize(String email) {
+        return email.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static long hash(String email) {
+        String normalized = normalize(email);
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < normalized.length(); i++) {
+            hash ^= normalized.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
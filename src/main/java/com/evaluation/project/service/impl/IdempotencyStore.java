@@ -0,0 +1,125 @@
+package com.evaluation.project.service.impl;
+
+import com.evaluation.project.model.dto.Phone;
+import com.evaluation.project.model.dto.UserRequest;
+import com.evaluation.project.model.dto.UserResponse;
+import com.evaluation.project.util.ApiException;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+/**
+ * Bounded, TTL-evicting store of {@code POST /users} results keyed by the client's {@code Idempotency-Key}. The first
+ * request with a key runs the creation; concurrent and later requests with the same key and body share its result.
+ * Failures are not kept, so a retry after an error runs again. Bodies are compared by a SHA-256 digest, so the
+ * password of a request is not kept for the lifetime of its key.
+ */
+@Component
+public class IdempotencyStore {
+
+    static final int MAX_KEY_LENGTH = 255;
+
+    private record Entry(byte[] requestDigest, CompletableFuture<UserResponse> result) {
+    }
+
+    private final Cache<String, Entry> entries;
+
+    public IdempotencyStore(
+            @Value("${app.idempotency.maximum-size:10000}") long maximumSize,
+            @Value("${app.idempotency.ttl:1h}") Duration ttl,
+            MeterRegistry meterRegistry) {
+        this.entries = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, entries, "idempotency");
+    }
+
+    /**
+     * Runs {@code create} once per key. The creation is not cancelled when the caller that started it goes away, so a
+     * client that timed out can pick up the result with its retry.
+     */
+    public Mono<UserResponse> execute(String key, UserRequest request, Supplier<Mono<UserResponse>> create) {
+        return Mono.defer(() -> {
+            if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+                return Mono.error(new ApiException("Idempotency-Key must have between 1 and " + MAX_KEY_LENGTH + " characters"));
+            }
+            var candidate = new Entry(digest(request), new CompletableFuture<>());
+            var entry = entries.get(key, unused -> candidate);
+            if (!MessageDigest.isEqual(entry.requestDigest(), candidate.requestDigest())) {
+                return Mono.error(new ApiException(
+                        "Idempotency-Key was already used with a different request", HttpStatus.UNPROCESSABLE_ENTITY));
+            }
+            if (entry == candidate) {
+                create.get().subscribe(
+                        userResponse -> candidate.result().complete(userResponse),
+                        throwable -> {
+                            entries.asMap().remove(key, candidate);
+                            candidate.result().completeExceptionally(throwable);
+                        },
+                        () -> candidate.result().complete(null));
+            }
+            return Mono.fromFuture(entry.result(), true);
+        });
+    }
+
+    public long estimatedSize() {
+        return entries.estimatedSize();
+    }
+
+    // every field is written with a presence byte and its length, so no two different requests share an encoding
+    static byte[] digest(UserRequest request) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        update(digest, request.getName());
+        update(digest, request.getEmail());
+        update(digest, request.getPassword());
+        var phones = request.getPhones();
+        digest.update((byte) (phones == null ? 0 : 1));
+        if (phones != null) {
+            updateLength(digest, phones.size());
+            for (Phone phone : phones) {
+                digest.update((byte) (phone == null ? 0 : 1));
+                if (phone != null) {
+                    update(digest, phone.getNumber());
+                    update(digest, phone.getCityCode());
+                    update(digest, phone.getCountryCode());
+                }
+            }
+        }
+        return digest.digest();
+    }
+
+    private static void update(MessageDigest digest, String value) {
+        digest.update((byte) (value == null ? 0 : 1));
+        if (value != null) {
+            var bytes = value.getBytes(StandardCharsets.UTF_8);
+            updateLength(digest, bytes.length);
+            digest.update(bytes);
+        }
+    }
+
+    private static void updateLength(MessageDigest digest, int length) {
+        digest.update((byte) (length >>> 24));
+        digest.update((byte) (length >>> 16));
+        digest.update((byte) (length >>> 8));
+        digest.update((byte) length);
+    }
+}
@@ -1,32 +1,163 @@
 package com.evaluation.project.service.impl;
 
-import com.auth0.jwt.JWT;
-import com.auth0.jwt.algorithms.Algorithm;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonToken;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
-import java.time.Instant;
-import java.util.Date;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.util.Base64;
 import java.util.UUID;
 
+/**
+ * Issues and verifies HS256 tokens whose subject is the user's UUID. Signing and verification reuse one {@link Mac}
+ * per thread instead of building a signer per call, and tokens that already passed verification are kept until they
+ * expire, so repeated requests with the same token skip the HMAC altogether.
+ */
 @Component
 public class JwtService {
 
-    private final Algorithm alg;
-    private final long ttlMinutes;
+    private static final String ALGORITHM = "HmacSHA256";
+    // {"alg":"HS256","typ":"JWT"}, the header every issued token carries; any other header is rejected
+    private static final String HEADER = "eyJhbGciOiJIUzI1NiIsInR5cCI6IkpXVCJ9";
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+    private static final JsonFactory JSON = new JsonFactory();
+
+    /** Verified token contents. */
+    public record Claims(UUID subject, long issuedAtSeconds, long expiresAtSeconds) {
+    }
+
+    private final ThreadLocal<Mac> macs;
+    private final long ttlSeconds;
+    private final Cache<String, Claims> verified;
+    // per user, the second before which its tokens are no longer accepted; kept for one token lifetime
+    private final Cache<UUID, Long> revocations;
 
     public JwtService(
             @Value("${app.jwt.secret}") String secretPlain, // puede ser texto plano
-            @Value("${app.jwt.ttlMinutes:60}") long ttlMinutes) {
-        this.alg = Algorithm.HMAC256(secretPlain);
-        this.ttlMinutes = ttlMinutes;
+            @Value("${app.jwt.expiration:60}") long ttlMinutes,
+            @Value("${app.jwt.verified-cache.maximum-size:100000}") long verifiedCacheSize,
+            MeterRegistry meterRegistry) {
+        var key = new SecretKeySpec(secretPlain.getBytes(StandardCharsets.UTF_8), ALGORITHM);
+        this.macs = ThreadLocal.withInitial(() -> newMac(key));
+        this.ttlSeconds = ttlMinutes * 60;
+        this.verified = Caffeine.newBuilder()
+                .maximumSize(verifiedCacheSize)
+                .expireAfter(Expiry.<String, Claims>creating((token, claims) ->
+                        Duration.ofSeconds(Math.max(0, claims.expiresAtSeconds() - epochSeconds()))))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, verified, "jwt");
+        this.revocations = Caffeine.newBuilder().expireAfterWrite(Duration.ofSeconds(ttlSeconds)).build();
     }
 
     public String generate(UUID userId) {
-        Instant now = Instant.now();
-        return JWT.create()
-                .withSubject(userId.toString())
-                .withIssuedAt(Date.from(now))
-                .withExpiresAt(Date.from(now.plusSeconds(ttlMinutes * 60)))
-                .sign(alg);
-    }
-}
\ No newline at end of file
+        long now = epochSeconds();
+        var payload = new StringBuilder(80)
+                .append("{\"sub\":\"").append(userId)
+                .append("\",\"iat\":").append(now)
+                .append(",\"exp\":").append(now + ttlSeconds)
+                .append('}');
+        var token = new StringBuilder(192)
+                .append(HEADER)
+                .append('.')
+                .append(ENCODER.encodeToString(payload.toString().getBytes(StandardCharsets.US_ASCII)));
+        var signature = sign(token);
+        return token.append('.').append(ENCODER.encodeToString(signature)).toString();
+    }
+
+    /** Rejects the tokens already issued to {@code userId}, e.g. once its password changes. */
+    public void revoke(UUID userId) {
+        revocations.put(userId, epochSeconds());
+    }
+
+    /** The claims of a well-formed, correctly signed, unexpired and unrevoked token, or {@code null}. */
+    public Claims verify(String token) {
+        var claims = verified.getIfPresent(token);
+        if (claims == null) {
+            claims = parse(token);
+            if (claims == null) {
+                return null;
+            }
+            verified.put(token, claims);
+        }
+        if (claims.expiresAtSeconds() <= epochSeconds()) {
+            return null;
+        }
+        var revokedAt = revocations.getIfPresent(claims.subject());
+        return revokedAt == null || claims.issuedAtSeconds() >= revokedAt ? claims : null;
+    }
+
+    private Claims parse(String token) {
+        int signatureStart = token.lastIndexOf('.') + 1;
+        if (!token.startsWith(HEADER) || token.length() <= HEADER.length() || token.charAt(HEADER.length()) != '.'
+                || signatureStart <= HEADER.length() + 1) {
+            return null;
+        }
+        try {
+            var expected = sign(token.subSequence(0, signatureStart - 1));
+            if (!MessageDigest.isEqual(expected, DECODER.decode(token.substring(signatureStart)))) {
+                return null;
+            }
+            return readClaims(DECODER.decode(token.substring(HEADER.length() + 1, signatureStart - 1)));
+        } catch (IllegalArgumentException | IOException e) {
+            return null;
+        }
+    }
+
+    private byte[] sign(CharSequence headerAndPayload) {
+        var bytes = new byte[headerAndPayload.length()];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = (byte) headerAndPayload.charAt(i);
+        }
+        return macs.get().doFinal(bytes);
+    }
+
+    private static Claims readClaims(byte[] payload) throws IOException {
+        UUID subject = null;
+        long issuedAt = 0;
+        long expiresAt = 0;
+        try (var parser = JSON.createParser(payload)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return null;
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                var field = parser.currentName();
+                parser.nextToken();
+                switch (field) {
+                    case "sub" -> subject = UUID.fromString(parser.getValueAsString(""));
+                    case "iat" -> issuedAt = parser.getValueAsLong();
+                    case "exp" -> expiresAt = parser.getValueAsLong();
+                    default -> parser.skipChildren();
+                }
+            }
+        }
+        return subject == null || expiresAt == 0 ? null : new Claims(subject, issuedAt, expiresAt);
+    }
+
+    private static Mac newMac(SecretKeySpec key) {
+        try {
+            var mac = Mac.getInstance(ALGORITHM);
+            mac.init(key);
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HmacSHA256 is not available", e);
+        }
+    }
+
+    private static long epochSeconds() {
+        return System.currentTimeMillis() / 1000;
+    }
+}
@@ -0,0 +1,107 @@
+package com.evaluation.project.service.impl;
+
+import com.evaluation.project.repository.UserRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Coalesces {@code lastLogin} updates in memory: a login only records its time, keeping the latest per user, and
+ * every {@code flush-interval} the pending times are written with one statement per {@code batch-size} users. Repeated
+ * logins of a user between flushes cost a single row update. A failed flush keeps its logins for the next one, and
+ * the remaining ones are written on shutdown.
+ */
+@Component
+@Slf4j
+public class LastLoginRecorder {
+
+    private final UserRepository userRepository;
+    private final Duration flushInterval;
+    private final int batchSize;
+    private final Map<UUID, LocalDateTime> pending = new ConcurrentHashMap<>();
+    private final Counter logins;
+    private final Counter written;
+    private Disposable flusher;
+
+    public LastLoginRecorder(
+            UserRepository userRepository,
+            @Value("${app.login.flush-interval:1s}") Duration flushInterval,
+            @Value("${app.login.batch-size:500}") int batchSize,
+            MeterRegistry meterRegistry) {
+        this.userRepository = userRepository;
+        this.flushInterval = flushInterval;
+        this.batchSize = batchSize;
+        this.logins = Counter.builder("users.login.touches")
+                .description("Logins recorded")
+                .register(meterRegistry);
+        this.written = Counter.builder("users.login.flushed")
+                .description("LAST_LOGIN values written to the database")
+                .register(meterRegistry);
+        Gauge.builder("users.login.pending", pending, Map::size)
+                .description("Users whose last login is not written yet")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        flusher = Flux.interval(flushInterval)
+                .onBackpressureDrop()
+                .concatMap(tick -> flush(), 1)
+                .subscribe();
+    }
+
+    public void touch(UUID uuid, LocalDateTime loginAt) {
+        logins.increment();
+        pending.merge(uuid, loginAt, (current, candidate) -> candidate.isAfter(current) ? candidate : current);
+    }
+
+    /** The login of {@code uuid} not written yet, or null. */
+    public LocalDateTime pending(UUID uuid) {
+        return pending.get(uuid);
+    }
+
+    /** Writes the pending logins; a user that logs in again meanwhile stays pending with the newer time. */
+    public Mono<Void> flush() {
+        return Flux.defer(() -> Flux.fromIterable(List.copyOf(pending.entrySet())))
+                .buffer(batchSize)
+                .concatMap(batch -> {
+                    var lastLogins = new LinkedHashMap<UUID, LocalDateTime>(batch.size() * 2);
+                    batch.forEach(entry -> lastLogins.put(entry.getKey(), entry.getValue()));
+                    return userRepository.updateLastLogins(lastLogins)
+                            .doOnSuccess(unused -> {
+                                lastLogins.forEach(pending::remove);
+                                written.increment(lastLogins.size());
+                            });
+                })
+                .then()
+                .onErrorResume(throwable -> {
+                    log.error("Error writing last logins, retrying on the next flush: {}", throwable.getMessage());
+                    return Mono.empty();
+                });
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (flusher != null) {
+            flusher.dispose();
+        }
+        flush().block(Duration.ofSeconds(10));
+    }
+}
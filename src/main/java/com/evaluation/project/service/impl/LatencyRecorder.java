@@ -0,0 +1,94 @@
+package com.evaluation.project.service.impl;
+
+import com.evaluation.project.model.dto.LatencySnapshot;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+@Component
+public class LatencyRecorder {
+
+    private static final int SIGNIFICANT_DIGITS = 3;
+    private static final double NANOS_PER_MILLI = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final Map<String, EndpointLatency> endpoints = new ConcurrentHashMap<>();
+
+    /**
+     * Records the time from subscription to termination of {@code publisher} under {@code endpoint}.
+     * Cancellations (client went away) are not recorded.
+     */
+    public <T> Mono<T> record(String endpoint, Mono<T> publisher) {
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            return publisher.doFinally(signal -> record(endpoint, signal, start));
+        });
+    }
+
+    public <T> Flux<T> record(String endpoint, Flux<T> publisher) {
+        return Flux.defer(() -> {
+            long start = System.nanoTime();
+            return publisher.doFinally(signal -> record(endpoint, signal, start));
+        });
+    }
+
+    public void record(String endpoint, long latencyNanos, boolean error) {
+        endpoints.computeIfAbsent(endpoint, key -> new EndpointLatency()).record(latencyNanos, error);
+    }
+
+    public List<LatencySnapshot> snapshot() {
+        return endpoints.entrySet().stream()
+                .sorted(Map.Entry.comparingByKey())
+                .map(entry -> snapshot(entry.getKey(), entry.getValue().histogram.copy(), entry.getValue().errors.sum()))
+                .toList();
+    }
+
+    public void reset() {
+        endpoints.clear();
+    }
+
+    public static Histogram newHistogram() {
+        return new ConcurrentHistogram(SIGNIFICANT_DIGITS);
+    }
+
+    public static LatencySnapshot snapshot(String endpoint, Histogram histogram, long errors) {
+        return LatencySnapshot.builder()
+                .endpoint(endpoint)
+                .count(histogram.getTotalCount())
+                .errors(errors)
+                .meanMs(histogram.getMean() / NANOS_PER_MILLI)
+                .p50Ms(histogram.getValueAtPercentile(50) / NANOS_PER_MILLI)
+                .p90Ms(histogram.getValueAtPercentile(90) / NANOS_PER_MILLI)
+                .p99Ms(histogram.getValueAtPercentile(99) / NANOS_PER_MILLI)
+                .p999Ms(histogram.getValueAtPercentile(99.9) / NANOS_PER_MILLI)
+                .maxMs(histogram.getMaxValue() / NANOS_PER_MILLI)
+                .build();
+    }
+
+    private void record(String endpoint, SignalType signal, long start) {
+        if (signal != SignalType.CANCEL) {
+            record(endpoint, System.nanoTime() - start, signal == SignalType.ON_ERROR);
+        }
+    }
+
+    private static final class EndpointLatency {
+
+        private final Histogram histogram = newHistogram();
+        private final LongAdder errors = new LongAdder();
+
+        private void record(long latencyNanos, boolean error) {
+            histogram.recordValue(latencyNanos);
+            if (error) {
+                errors.increment();
+            }
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.evaluation.project.service.impl;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.PBEKeySpec;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Base64;
+
+/**
+ * Salted PBKDF2-HMAC-SHA512 password hashes, encoded as {@code pbkdf2-sha512$<iterations>$<salt>$<hash>} so the work
+ * factor can be raised without invalidating stored hashes. Hashing is deliberately CPU-bound; callers run it on the
+ * bounded {@code passwordScheduler}.
+ */
+@Component
+public class PasswordHasher {
+
+    static final String PREFIX = "pbkdf2-sha512";
+
+    private static final String ALGORITHM = "PBKDF2WithHmacSHA512";
+    private static final int SALT_BYTES = 16;
+    private static final int HASH_BITS = 256;
+    private static final Base64.Encoder ENCODER = Base64.getEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getDecoder();
+
+    private final SecureRandom random = new SecureRandom();
+    private final int iterations;
+
+    public PasswordHasher(@Value("${app.password.iterations:210000}") int iterations) {
+        this.iterations = iterations;
+    }
+
+    public String hash(String password) {
+        var salt = new byte[SALT_BYTES];
+        random.nextBytes(salt);
+        return PREFIX + '$' + iterations + '$' + ENCODER.encodeToString(salt) + '$'
+                + ENCODER.encodeToString(derive(password, salt, iterations));
+    }
+
+    /** Whether {@code password} produces {@code encoded}, which must be a hash from {@link #hash(String)}. */
+    public boolean matches(String password, String encoded) {
+        var parts = encoded == null ? new String[0] : encoded.split("\\$");
+        if (parts.length != 4 || !PREFIX.equals(parts[0])) {
+            return false;
+        }
+        try {
+            var expected = DECODER.decode(parts[3]);
+            return MessageDigest.isEqual(expected, derive(password, DECODER.decode(parts[2]), Integer.parseInt(parts[1])));
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    private static byte[] derive(String password, byte[] salt, int iterations) {
+        var spec = new PBEKeySpec(password.toCharArray(), salt, iterations, HASH_BITS);
+        try {
+            return SecretKeyFactory.getInstance(ALGORITHM).generateSecret(spec).getEncoded();
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(ALGORITHM + " is not available", e);
+        } finally {
+            spec.clearPassword();
+        }
+    }
+}
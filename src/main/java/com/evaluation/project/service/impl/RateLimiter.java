@@ -0,0 +1,115 @@
+package com.evaluation.project.service.impl;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Admission control for user creation and login: a {@link TokenBucket} per client (API key or remote address) plus
+ * one global bucket, with separate buckets for each {@link Scope} so that a login surge does not turn registrations
+ * away, nor the reverse. A request must get a token from its client's bucket and then from the global one, so a
+ * single client cannot exhaust the global budget beyond its own rate; when the global bucket is empty the client's
+ * token is given back, so a global shortage does not also count against the client's own rate. Client buckets live
+ * in a bounded Caffeine map, whose concurrent hash table spreads them over independent bins; an idle bucket is
+ * dropped once it would have refilled, which loses nothing.
+ */
+@Component
+public class RateLimiter {
+
+    /** Which buckets a request draws from. */
+    public enum Scope {
+        CREATE, LOGIN
+    }
+
+    private final boolean enabled;
+    private final Buckets create;
+    private final Buckets login;
+
+    public RateLimiter(
+            @Value("${app.admission.rate-limit.enabled:true}") boolean enabled,
+            @Value("${app.admission.rate-limit.client.rate:50}") double clientRate,
+            @Value("${app.admission.rate-limit.client.burst:100}") int clientBurst,
+            @Value("${app.admission.rate-limit.global.rate:500}") double globalRate,
+            @Value("${app.admission.rate-limit.global.burst:1000}") int globalBurst,
+            @Value("${app.admission.rate-limit.login.client.rate:10}") double loginClientRate,
+            @Value("${app.admission.rate-limit.login.client.burst:20}") int loginClientBurst,
+            @Value("${app.admission.rate-limit.login.global.rate:200}") double loginGlobalRate,
+            @Value("${app.admission.rate-limit.login.global.burst:400}") int loginGlobalBurst,
+            @Value("${app.admission.rate-limit.max-clients:100000}") long maxClients,
+            MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.create = new Buckets(clientRate, clientBurst, globalRate, globalBurst, maxClients, meterRegistry, "");
+        this.login = new Buckets(
+                loginClientRate, loginClientBurst, loginGlobalRate, loginGlobalBurst, maxClients, meterRegistry, "login");
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /** Takes a token for {@code client} and returns 0, or returns the nanoseconds the client should wait. */
+    public long tryAcquire(Scope scope, String client) {
+        return (scope == Scope.LOGIN ? login : create).tryAcquire(client);
+    }
+
+    static Counter rejections(MeterRegistry meterRegistry, String limiter) {
+        return Counter.builder("users.admission.rejected")
+                .description("Requests rejected by admission control")
+                .tag("limiter", limiter)
+                .register(meterRegistry);
+    }
+
+    // the creation buckets keep their original meter names; the login ones are prefixed with "login"
+    private static final class Buckets {
+
+        private final double clientRate;
+        private final int clientBurst;
+        private final TokenBucket global;
+        private final Cache<String, TokenBucket> clients;
+        private final Counter clientRejections;
+        private final Counter globalRejections;
+
+        Buckets(double clientRate, int clientBurst, double globalRate, int globalBurst, long maxClients,
+                MeterRegistry meterRegistry, String prefix) {
+            this.clientRate = clientRate;
+            this.clientBurst = clientBurst;
+            this.global = new TokenBucket(globalRate, globalBurst, System.nanoTime());
+            this.clients = Caffeine.newBuilder()
+                    .maximumSize(maxClients)
+                    .expireAfterAccess(Duration.ofNanos(new TokenBucket(clientRate, clientBurst, 0).refillNanos()))
+                    .recordStats()
+                    .build();
+            var name = prefix.isEmpty() ? "" : prefix + '_';
+            CaffeineCacheMetrics.monitor(meterRegistry, clients, "rate_limit_" + name + "clients");
+            this.clientRejections = rejections(meterRegistry, name + "client");
+            this.globalRejections = rejections(meterRegistry, name + "global");
+            Gauge.builder("users.admission." + (prefix.isEmpty() ? "" : prefix + '.') + "global.tokens",
+                            global, bucket -> bucket.availableTokens(System.nanoTime()))
+                    .description("Tokens left in the global bucket")
+                    .register(meterRegistry);
+        }
+
+        long tryAcquire(String client) {
+            long now = System.nanoTime();
+            var bucket = clients.get(client, unused -> new TokenBucket(clientRate, clientBurst, now));
+            long wait = bucket.tryAcquire(now);
+            if (wait > 0) {
+                clientRejections.increment();
+                return wait;
+            }
+            wait = global.tryAcquire(now);
+            if (wait > 0) {
+                bucket.release();
+                globalRejections.increment();
+            }
+            return wait;
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.evaluation.project.service.impl;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free token bucket in its GCRA form: instead of a token count and a refill timestamp, the whole state is the
+ * theoretical arrival time of the next request in one {@link AtomicLong}. Taking a token is a compare-and-set, with no
+ * refill task and no lock; the bucket holds up to {@code burst} tokens and gains {@code ratePerSecond} per second.
+ */
+final class TokenBucket {
+
+    private final long emissionIntervalNanos;
+    private final long capacityNanos;
+    private final AtomicLong theoreticalArrival;
+
+    TokenBucket(double ratePerSecond, int burst, long nowNanos) {
+        this.emissionIntervalNanos = Math.max(1, Math.round(1_000_000_000d / ratePerSecond));
+        this.capacityNanos = emissionIntervalNanos * Math.max(1, burst);
+        this.theoreticalArrival = new AtomicLong(nowNanos);
+    }
+
+    /** Takes a token and returns 0, or returns the nanoseconds until one is available without taking anything. */
+    long tryAcquire(long nowNanos) {
+        while (true) {
+            long arrival = theoreticalArrival.get();
+            long next = Math.max(arrival, nowNanos) + emissionIntervalNanos;
+            long wait = next - capacityNanos - nowNanos;
+            if (wait > 0) {
+                return wait;
+            }
+            if (theoreticalArrival.compareAndSet(arrival, next)) {
+                return 0;
+            }
+        }
+    }
+
+    /** Gives back a token taken by {@link #tryAcquire(long)} for a request that was rejected afterwards. */
+    void release() {
+        theoreticalArrival.addAndGet(-emissionIntervalNanos);
+    }
+
+    double availableTokens(long nowNanos) {
+        long backlog = Math.max(theoreticalArrival.get(), nowNanos) - nowNanos;
+        return (double) (capacityNanos - backlog) / emissionIntervalNanos;
+    }
+
+    /** Time an untouched bucket takes to refill completely; after that it is indistinguishable from a new one. */
+    long refillNanos() {
+        return capacityNanos;
+    }
+}
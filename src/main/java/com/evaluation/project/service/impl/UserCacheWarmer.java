@@ -0,0 +1,59 @@
+package com.evaluation.project.service.impl;
+
+import com.evaluation.project.model.dto.UserField;
+import com.evaluation.project.repository.UserRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Fills {@link UserResponseCache} on startup with the {@code warm-up-size} most recently active users, read in
+ * chunks of {@code warm-up-chunk-size} with one query each, so the first reads after a restart of a file-backed
+ * database hit the cache instead of the disk. Disabled with {@code app.cache.users.warm-up-size=0}.
+ */
+@Component
+@Slf4j
+public class UserCacheWarmer {
+
+    private final UserRepository userRepository;
+    private final UserResponseCache userResponseCache;
+    private final int warmUpSize;
+    private final int chunkSize;
+    private volatile boolean done;
+
+    public UserCacheWarmer(
+            UserRepository userRepository,
+            UserResponseCache userResponseCache,
+            @Value("${app.cache.users.warm-up-size:0}") int warmUpSize,
+            @Value("${app.cache.users.warm-up-chunk-size:500}") int chunkSize) {
+        this.userRepository = userRepository;
+        this.userResponseCache = userResponseCache;
+        this.warmUpSize = warmUpSize;
+        this.chunkSize = chunkSize;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        if (warmUpSize <= 0) {
+            done = true;
+            return;
+        }
+        long start = System.nanoTime();
+        userRepository.findRecentlyActive(warmUpSize)
+                .buffer(chunkSize)
+                .concatMap(uuids -> userRepository.findUsers(uuids, UserField.ALL))
+                // a user cached meanwhile by a request is at least as recent as the one read here
+                .doOnNext(userResponseCache::putIfAbsent)
+                .count()
+                .doFinally(signal -> done = true)
+                .subscribe(
+                        count -> log.info("User cache warmed up with {} users in {} ms", count, (System.nanoTime() - start) / 1_000_000),
+                        throwable -> log.error("Error warming up the user cache: {}", throwable.getMessage()));
+    }
+
+    public boolean isDone() {
+        return done;
+    }
+}
@@ -0,0 +1,181 @@
+package com.evaluation.project.service.impl;
+
+import com.evaluation.project.util.ApiException;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.r2dbc.spi.R2dbcException;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Timers for each stage of the user pipelines, tagged by operation, stage and outcome. A timer is registered the first
+ * time its stage ends with that outcome and kept in an array, so recording is an array lookup plus the timer update,
+ * with no tag or meter lookups per request. Only the {@code total} stages publish a percentile histogram; the others
+ * get a few fixed buckets, since Prometheus needs every series of {@code users.stage} to be a histogram.
+ */
+@Component
+public class UserMetrics {
+
+    public enum Stage {
+        CREATE("create", "total"),
+        CREATE_VALIDATE_EMAIL("create", "validate_email"),
+        CREATE_HASH_PASSWORD("create", "hash_password"),
+        CREATE_JWT("create", "jwt"),
+        CREATE_SAVE_USER("create", "save_user"),
+        CREATE_SAVE_PHONES("create", "save_phones"),
+        CREATE_JOURNAL("create", "journal"),
+        UPDATE("update", "total"),
+        UPDATE_SAVE_USER("update", "save_user"),
+        LOGIN("login", "total"),
+        LOGIN_VERIFY_PASSWORD("login", "verify_password"),
+        GET("get", "total"),
+        GET_LOAD_USER("get", "load_user"),
+        LIST("list", "total"),
+        LIST_LOAD_PAGE("list", "load_page"),
+        SEARCH("search", "total"),
+        SEARCH_LOAD_USERS("search", "load_users");
+
+        private final String operation;
+        private final String stage;
+
+        Stage(String operation, String stage) {
+            this.operation = operation;
+            this.stage = stage;
+        }
+    }
+
+    public enum Outcome {
+        SUCCESS("success"),
+        VALIDATION_REJECTED("validation_rejected"),
+        CONFLICT("conflict"),
+        OVERLOADED("overloaded"),
+        DB_ERROR("db_error"),
+        ERROR("error");
+
+        private final String tag;
+
+        Outcome(String tag) {
+            this.tag = tag;
+        }
+    }
+
+    private static final int OUTCOMES = Outcome.values().length;
+    private static final Duration[] STAGE_BUCKETS = {
+            Duration.ofMillis(1), Duration.ofMillis(5), Duration.ofMillis(25), Duration.ofMillis(100),
+            Duration.ofMillis(500), Duration.ofMillis(2500)};
+
+    private final MeterRegistry meterRegistry;
+    private final AtomicReferenceArray<Timer> timers = new AtomicReferenceArray<>(Stage.values().length * OUTCOMES);
+    private final DistributionSummary phonesPerUser;
+    private final DistributionSummary rowsListed;
+    private final DistributionSummary rowsStreamed;
+
+    public UserMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        this.phonesPerUser = DistributionSummary.builder("users.phones")
+                .description("Phones submitted per created user")
+                .register(meterRegistry);
+        this.rowsListed = rows(meterRegistry, "list");
+        this.rowsStreamed = rows(meterRegistry, "stream");
+    }
+
+    public <T> Mono<T> time(Stage stage, Mono<T> publisher) {
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            return publisher.doOnEach(signal -> {
+                if (signal.isOnComplete() || signal.isOnError()) {
+                    record(stage, outcome(signal.getThrowable()), System.nanoTime() - start);
+                }
+            });
+        });
+    }
+
+    public <T> Flux<T> time(Stage stage, Flux<T> publisher) {
+        return Flux.defer(() -> {
+            long start = System.nanoTime();
+            return publisher.doOnEach(signal -> {
+                if (signal.isOnComplete() || signal.isOnError()) {
+                    record(stage, outcome(signal.getThrowable()), System.nanoTime() - start);
+                }
+            });
+        });
+    }
+
+    public void record(Stage stage, Outcome outcome, long latencyNanos) {
+        int index = stage.ordinal() * OUTCOMES + outcome.ordinal();
+        var timer = timers.get(index);
+        if (timer == null) {
+            // registering twice returns the same meter, so a race here only repeats the lookup
+            timer = register(stage, outcome);
+            timers.set(index, timer);
+        }
+        timer.record(latencyNanos, TimeUnit.NANOSECONDS);
+    }
+
+    private Timer register(Stage stage, Outcome outcome) {
+        var builder = Timer.builder("users.stage")
+                .tag("operation", stage.operation)
+                .tag("stage", stage.stage)
+                .tag("outcome", outcome.tag);
+        if (stage.stage.equals("total")) {
+            builder.publishPercentileHistogram()
+                    .minimumExpectedValue(Duration.ofMillis(1))
+                    .maximumExpectedValue(Duration.ofSeconds(10));
+        } else {
+            builder.serviceLevelObjectives(STAGE_BUCKETS);
+        }
+        return builder.register(meterRegistry);
+    }
+
+    public void recordPhones(int phones) {
+        phonesPerUser.record(phones);
+    }
+
+    public void recordRowsListed(int rows) {
+        rowsListed.record(rows);
+    }
+
+    public void recordRowsStreamed(int rows) {
+        rowsStreamed.record(rows);
+    }
+
+    static Outcome outcome(Throwable throwable) {
+        if (throwable == null) {
+            return Outcome.SUCCESS;
+        }
+        if (throwable instanceof DuplicateKeyException) {
+            return Outcome.CONFLICT;
+        }
+        if (throwable instanceof ApiException apiException) {
+            if (apiException.getStatus() == HttpStatus.SERVICE_UNAVAILABLE) {
+                return Outcome.OVERLOADED;
+            }
+            if (apiException.getStatus() == HttpStatus.CONFLICT) {
+                return Outcome.CONFLICT;
+            }
+            return UserServiceImpl.EMAIL_IN_USE.equals(throwable.getMessage())
+                    ? Outcome.CONFLICT
+                    : Outcome.VALIDATION_REJECTED;
+        }
+        if (throwable instanceof DataAccessException || throwable instanceof R2dbcException) {
+            return Outcome.DB_ERROR;
+        }
+        return Outcome.ERROR;
+    }
+
+    private static DistributionSummary rows(MeterRegistry meterRegistry, String operation) {
+        return DistributionSummary.builder("users.rows")
+                .description("Users returned per page")
+                .tag("operation", operation)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,73 @@
+package com.evaluation.project.service.impl;
+
+import com.evaluation.project.model.dto.UserResponse;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+@Component
+public class UserResponseCache {
+
+    private final AsyncCache<UUID, UserResponse> cache;
+
+    public UserResponseCache(
+            @Value("${app.cache.users.maximum-size:10000}") long maximumSize,
+            @Value("${app.cache.users.ttl:5m}") Duration ttl,
+            MeterRegistry meterRegistry) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .buildAsync();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "users");
+    }
+
+    /**
+     * Returns the cached user or runs {@code loader} once per key, sharing the in-flight load with
+     * concurrent callers. An empty load is not cached.
+     */
+    public Mono<UserResponse> get(UUID uuid, Function<UUID, Mono<UserResponse>> loader) {
+        return Mono.fromFuture(() -> cache.get(uuid, (key, executor) -> loader.apply(key).toFuture()), true);
+    }
+
+    /** The cached user if it is already loaded, without triggering or waiting for a load. */
+    public UserResponse peek(UUID uuid) {
+        var future = cache.getIfPresent(uuid);
+        return future != null && future.isDone() && !future.isCompletedExceptionally() ? future.join() : null;
+    }
+
+    public void put(UserResponse userResponse) {
+        cache.put(UUID.fromString(userResponse.getUuid()), CompletableFuture.completedFuture(userResponse));
+    }
+
+    /** Caches {@code userResponse} unless the user was cached meanwhile, which is at least as recent. */
+    public void putIfAbsent(UserResponse userResponse) {
+        cache.asMap().putIfAbsent(UUID.fromString(userResponse.getUuid()), CompletableFuture.completedFuture(userResponse));
+    }
+
+    public void invalidate(UUID uuid) {
+        cache.synchronous().invalidate(uuid);
+    }
+
+    public void invalidateAll() {
+        cache.synchronous().invalidateAll();
+    }
+
+    public CacheStats stats() {
+        return cache.synchronous().stats();
+    }
+
+    public long estimatedSize() {
+        return cache.synchronous().estimatedSize();
+    }
+}
@@ -0,0 +1,425 @@
+package com.evaluation.project.service.impl;
+
+import com.evaluation.project.model.dto.Phone;
+import com.evaluation.project.model.dto.UserField;
+import com.evaluation.project.model.dto.UserResponse;
+import com.evaluation.project.model.entity.PhoneEntity;
+import com.evaluation.project.repository.PhoneRepository;
+import com.evaluation.project.repository.UserRepository;
+import com.evaluation.project.util.ApiException;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+/**
+ * In-memory inverted index over the searchable user properties: every prefix of each name token (case and accents
+ * folded), the email domain and the phone country and city codes. Each user gets a dense document number, stored
+ * with its UUID in two {@code long} arrays, and each key maps to an ascending {@code int} array of documents, so a
+ * query intersects a few sorted arrays without touching the database. The index is loaded at startup with one
+ * sequential scan of USERS and one of PHONES, both in storage order, and then kept current by the service on every
+ * create and update.
+ */
+@Component
+@Slf4j
+public class UserSearchIndex {
+
+    static final String CRITERION_REQUIRED = "At least one of name, emailDomain, countryCode or cityCode is required";
+    static final String UNKNOWN_CURSOR = "Unknown cursor";
+    static final String LOADING = "Search index is loading, retry later";
+
+    /** Criteria combined with AND; null ones are ignored. Every word of {@code name} is matched as a prefix. */
+    public record Query(String name, String emailDomain, String countryCode, String cityCode) {
+    }
+
+    // ascending document numbers; documents are numbered in indexing order, so a new user only appends
+    private static final class Postings {
+
+        private int[] documents = new int[2];
+        private int size;
+
+        void insert(int document) {
+            int index = size == 0 || documents[size - 1] < document ? size : Arrays.binarySearch(documents, 0, size, document);
+            if (index >= 0 && index < size) {
+                return;
+            }
+            int position = index >= 0 ? index : -index - 1;
+            if (size == documents.length) {
+                documents = Arrays.copyOf(documents, size * 2);
+            }
+            System.arraycopy(documents, position, documents, position + 1, size - position);
+            documents[position] = document;
+            size++;
+        }
+
+        void remove(int document) {
+            int index = Arrays.binarySearch(documents, 0, size, document);
+            if (index >= 0) {
+                System.arraycopy(documents, index + 1, documents, index, size - index - 1);
+                size--;
+            }
+        }
+
+        // first position at or after from whose document is >= target, galloping before the binary search
+        int advance(int from, int target) {
+            if (from >= size || documents[from] >= target) {
+                return from;
+            }
+            int low = from;
+            int step = 1;
+            while (low + step < size && documents[low + step] < target) {
+                low += step;
+                step <<= 1;
+            }
+            int index = Arrays.binarySearch(documents, low + 1, Math.min(low + step + 1, size), target);
+            return index >= 0 ? index : -index - 1;
+        }
+    }
+
+    private record Keys(Set<String> namePrefixes, String emailDomain, Set<String> countryCodes, Set<String> cityCodes) {
+    }
+
+    private static final Set<UserField> INDEXED_FIELDS =
+            Collections.unmodifiableSet(EnumSet.of(UserField.UUID, UserField.NAME, UserField.EMAIL));
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    private final UserRepository userRepository;
+    private final PhoneRepository phoneRepository;
+    private final int loadBatchSize;
+    private final int maxPrefixLength;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, Postings> namePrefixes = new HashMap<>();
+    private final Map<String, Postings> emailDomains = new HashMap<>();
+    private final Map<String, Postings> countryCodes = new HashMap<>();
+    private final Map<String, Postings> cityCodes = new HashMap<>();
+    private final Map<UUID, Integer> documents = new HashMap<>();
+    private long[] mostSignificantBits = new long[1024];
+    private long[] leastSignificantBits = new long[1024];
+    private int documentCount;
+    private volatile boolean ready;
+
+    public UserSearchIndex(
+            UserRepository userRepository,
+            PhoneRepository phoneRepository,
+            @Value("${app.search.load-batch-size:1000}") int loadBatchSize,
+            @Value("${app.search.max-prefix-length:20}") int maxPrefixLength,
+            MeterRegistry meterRegistry) {
+        this.userRepository = userRepository;
+        this.phoneRepository = phoneRepository;
+        this.loadBatchSize = loadBatchSize;
+        this.maxPrefixLength = maxPrefixLength;
+        Gauge.builder("users.search.documents", this, UserSearchIndex::size)
+                .description("Users in the search index")
+                .register(meterRegistry);
+    }
+
+    /** Builds the index from the database, at startup and again after a snapshot import; searches get 503 meanwhile. */
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        clear();
+        long start = System.nanoTime();
+        // paging USERS by UUID with PHONES joined reads the phones with one random index lookup per user, which
+        // dominates once the tables no longer fit in memory; two scans in storage order read each page once
+        userRepository.scanUsers(INDEXED_FIELDS)
+                .buffer(loadBatchSize)
+                .doOnNext(this::addAll)
+                .reduce(0L, (count, users) -> count + users.size())
+                .flatMap(count -> phoneRepository.findAll()
+                        .buffer(loadBatchSize)
+                        .doOnNext(this::addPhones)
+                        .then(Mono.just(count)))
+                .subscribe(
+                        count -> {
+                            ready = true;
+                            log.info("Search index loaded with {} users in {} ms", count, (System.nanoTime() - start) / 1_000_000);
+                        },
+                        throwable -> log.error("Error loading search index, search stays unavailable: {}", throwable.getMessage()));
+    }
+
+    /** Indexes a user not indexed yet; a user already indexed keeps its current entry. */
+    public void add(UserResponse user) {
+        var uuid = UUID.fromString(user.getUuid());
+        var keys = keys(user);
+        lock.writeLock().lock();
+        try {
+            if (documents.containsKey(uuid)) {
+                return;
+            }
+            int document = newDocument(uuid);
+            insert(namePrefixes, keys.namePrefixes(), document);
+            insert(emailDomains, keys.emailDomain(), document);
+            insert(countryCodes, keys.countryCodes(), document);
+            insert(cityCodes, keys.cityCodes(), document);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /** Moves an indexed user from the keys of {@code previous} to those of {@code current}, keeping its position. */
+    public void update(UserResponse previous, UserResponse current) {
+        var uuid = UUID.fromString(current.getUuid());
+        var oldKeys = keys(previous);
+        var newKeys = keys(current);
+        lock.writeLock().lock();
+        try {
+            var document = documents.get(uuid);
+            if (document == null) {
+                add(current);
+                return;
+            }
+            replace(namePrefixes, oldKeys.namePrefixes(), newKeys.namePrefixes(), document);
+            replace(emailDomains, setOf(oldKeys.emailDomain()), setOf(newKeys.emailDomain()), document);
+            replace(countryCodes, oldKeys.countryCodes(), newKeys.countryCodes(), document);
+            replace(cityCodes, oldKeys.cityCodes(), newKeys.cityCodes(), document);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Up to {@code limit} users matching every criterion, in index order, starting after the user {@code after}. Each
+     * criterion is a sorted array; the shortest one drives the scan and the others are advanced with galloping search.
+     */
+    public List<UUID> search(Query query, UUID after, int limit) {
+        var criteria = criteria(query);
+        if (!ready) {
+            throw new ApiException(LOADING, HttpStatus.SERVICE_UNAVAILABLE);
+        }
+        lock.readLock().lock();
+        try {
+            int start = 0;
+            if (after != null) {
+                var document = documents.get(after);
+                if (document == null) {
+                    throw new ApiException(UNKNOWN_CURSOR);
+                }
+                start = document + 1;
+            }
+            var lists = new ArrayList<Postings>(criteria.size());
+            for (var criterion : criteria) {
+                var postings = criterion.getKey().get(criterion.getValue());
+                if (postings == null) {
+                    return List.of();
+                }
+                lists.add(postings);
+            }
+            lists.sort(Comparator.comparingInt(postings -> postings.size));
+            var lead = lists.get(0);
+            var positions = new int[lists.size()];
+            var result = new ArrayList<UUID>(Math.min(limit, lead.size));
+            for (int i = lead.advance(0, start); i < lead.size && result.size() < limit; i++) {
+                int document = lead.documents[i];
+                if (containsAll(lists, positions, document)) {
+                    result.add(new UUID(mostSignificantBits[document], leastSignificantBits[document]));
+                }
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return documentCount;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** Empties the index; searches get 503 until the next {@link #load()}. */
+    void clear() {
+        lock.writeLock().lock();
+        try {
+            ready = false;
+            namePrefixes.clear();
+            emailDomains.clear();
+            countryCodes.clear();
+            cityCodes.clear();
+            documents.clear();
+            documentCount = 0;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void addAll(List<UserResponse> users) {
+        lock.writeLock().lock();
+        try {
+            users.forEach(this::add);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // a user created during the load was already indexed with its phones by add; its rows here only repeat keys
+    private void addPhones(List<PhoneEntity> phones) {
+        lock.writeLock().lock();
+        try {
+            for (PhoneEntity phone : phones) {
+                var document = documents.get(phone.getUuid());
+                if (document != null) {
+                    insert(countryCodes, strip(phone.getCountryCode()), document);
+                    insert(cityCodes, strip(phone.getCityCode()), document);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private int newDocument(UUID uuid) {
+        if (documentCount == mostSignificantBits.length) {
+            mostSignificantBits = Arrays.copyOf(mostSignificantBits, documentCount * 2);
+            leastSignificantBits = Arrays.copyOf(leastSignificantBits, documentCount * 2);
+        }
+        int document = documentCount++;
+        mostSignificantBits[document] = uuid.getMostSignificantBits();
+        leastSignificantBits[document] = uuid.getLeastSignificantBits();
+        documents.put(uuid, document);
+        return document;
+    }
+
+    private List<Map.Entry<Map<String, Postings>, String>> criteria(Query query) {
+        var criteria = new ArrayList<Map.Entry<Map<String, Postings>, String>>();
+        if (query.name() != null) {
+            for (String token : tokens(query.name())) {
+                criteria.add(Map.entry(namePrefixes, prefix(token)));
+            }
+        }
+        if (query.emailDomain() != null && !query.emailDomain().isBlank()) {
+            criteria.add(Map.entry(emailDomains, domain(query.emailDomain())));
+        }
+        if (query.countryCode() != null && !query.countryCode().isBlank()) {
+            criteria.add(Map.entry(countryCodes, query.countryCode().strip()));
+        }
+        if (query.cityCode() != null && !query.cityCode().isBlank()) {
+            criteria.add(Map.entry(cityCodes, query.cityCode().strip()));
+        }
+        if (criteria.isEmpty()) {
+            throw new ApiException(CRITERION_REQUIRED);
+        }
+        return criteria;
+    }
+
+    private Keys keys(UserResponse user) {
+        var information = user.getUserInformation();
+        var prefixes = new HashSet<String>();
+        if (information.getName() != null) {
+            for (String token : tokens(information.getName())) {
+                for (int length = 1; length <= Math.min(token.length(), maxPrefixLength); length++) {
+                    prefixes.add(token.substring(0, length));
+                }
+            }
+        }
+        var countries = new HashSet<String>();
+        var cities = new HashSet<String>();
+        if (information.getPhones() != null) {
+            for (Phone phone : information.getPhones()) {
+                if (phone.getCountryCode() != null) {
+                    countries.add(phone.getCountryCode().strip());
+                }
+                if (phone.getCityCode() != null) {
+                    cities.add(phone.getCityCode().strip());
+                }
+            }
+        }
+        var email = information.getEmail();
+        return new Keys(prefixes, email == null ? null : domain(email), countries, cities);
+    }
+
+    private String prefix(String token) {
+        return token.length() > maxPrefixLength ? token.substring(0, maxPrefixLength) : token;
+    }
+
+    private static List<String> tokens(String text) {
+        var folded = MARKS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("").toLowerCase(Locale.ROOT);
+        var tokens = new ArrayList<String>();
+        for (String token : SEPARATORS.split(folded)) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+
+    private static String domain(String email) {
+        return email.substring(email.lastIndexOf('@') + 1).strip().toLowerCase(Locale.ROOT);
+    }
+
+    private static String strip(String code) {
+        return code == null ? null : code.strip();
+    }
+
+    private static Set<String> setOf(String key) {
+        return key == null ? Set.of() : Set.of(key);
+    }
+
+    private static void insert(Map<String, Postings> index, String key, int document) {
+        if (key != null) {
+            index.computeIfAbsent(key, unused -> new Postings()).insert(document);
+        }
+    }
+
+    private static void insert(Map<String, Postings> index, Set<String> keys, int document) {
+        for (String key : keys) {
+            insert(index, key, document);
+        }
+    }
+
+    private static void replace(Map<String, Postings> index, Set<String> oldKeys, Set<String> newKeys, int document) {
+        for (String key : oldKeys) {
+            var postings = index.get(key);
+            if (postings != null && !newKeys.contains(key)) {
+                postings.remove(document);
+                if (postings.size == 0) {
+                    index.remove(key);
+                }
+            }
+        }
+        for (String key : newKeys) {
+            if (!oldKeys.contains(key)) {
+                insert(index, key, document);
+            }
+        }
+    }
+
+    private static boolean containsAll(List<Postings> lists, int[] positions, int document) {
+        for (int i = 1; i < lists.size(); i++) {
+            var postings = lists.get(i);
+            positions[i] = postings.advance(positions[i], document);
+            if (positions[i] == postings.size || postings.documents[positions[i]] != document) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -1,157 +1,616 @@
 package com.evaluation.project.service.impl;
 
 import com.evaluation.project.config.ApplicationProperties;
+import com.evaluation.project.model.dto.BatchUserResult;
 import com.evaluation.project.model.dto.Phone;
+import com.evaluation.project.model.dto.UserField;
+import com.evaluation.project.model.dto.UserPatchRequest;
 import com.evaluation.project.model.dto.UserRequest;
 import com.evaluation.project.model.dto.UserResponse;
 import com.evaluation.project.model.entity.PhoneEntity;
 import com.evaluation.project.model.entity.UserEntity;
 import com.evaluation.project.repository.PhoneRepository;
 import com.evaluation.project.repository.UserRepository;
+import com.evaluation.project.service.impl.UserMetrics.Stage;
 import com.evaluation.project.util.ApiException;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.reactive.TransactionalOperator;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
-import reactor.core.scheduler.Schedulers;
+import reactor.core.scheduler.Scheduler;
+import reactor.util.function.Tuple2;
+import reactor.util.function.Tuples;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static com.evaluation.project.util.UserMapper.mapToPhone;
+import static com.evaluation.project.util.UserMapper.mapToPhoneEntities;
+import static com.evaluation.project.util.UserMapper.mapToUserResponse;
+import static com.evaluation.project.util.UserMapper.withoutToken;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class UserServiceImpl {
   
+  static final String EMAIL_IN_USE = "Email already in use";
+  static final String PASSWORD_HASHING_BUSY = "Too many concurrent registrations, retry later";
+  static final String USER_NOT_FOUND = "User not found";
+  static final String VERSION_CONFLICT = "User was modified by another request, read it again and retry";
+  static final String INVALID_CREDENTIALS = "Invalid credentials";
+  static final String USER_INACTIVE = "User is inactive";
+  static final String INVALID_NAME = "Name is required and must be at most 255 characters";
+  static final String INVALID_PHONES = "Each phone needs a number of up to 20 characters and city and country codes of up to 10";
+
   private final UserRepository userRepository;
   private final PhoneRepository phoneRepository;
   private final JwtService jwtService;
+  private final EmailIndex emailIndex;
+  private final UserValidator userValidator;
+  private final UserResponseCache userResponseCache;
   private final ApplicationProperties applicationProperties;
+  private final TransactionalOperator transactionalOperator;
+  private final Scheduler cryptoScheduler;
+  private final Scheduler passwordScheduler;
+  private final PasswordHasher passwordHasher;
+  private final UserMetrics userMetrics;
+  private final UserWriteBehind userWriteBehind;
+  private final AdaptiveConcurrencyLimiter concurrencyLimiter;
+  private final LastLoginRecorder lastLoginRecorder;
+  private final UserSearchIndex userSearchIndex;
+
+  // phones compared as a multiset: existing rows matching a requested phone stay, the others are deleted and the
+  // requested phones left over are inserted; phones is the resulting list, or null when phones were not patched
+  private record PhoneChanges(List<Integer> removed, List<PhoneEntity> added, List<Phone> phones) {
+
+    static final PhoneChanges NONE = new PhoneChanges(List.of(), List.of(), null);
+
+    static PhoneChanges diff(List<PhoneEntity> existing, List<Phone> requested, UUID uuid) {
+      var remaining = new ArrayList<>(requested);
+      var removed = new ArrayList<Integer>();
+      var phones = new ArrayList<Phone>(requested.size());
+      for (PhoneEntity phoneEntity : existing) {
+        var phone = mapToPhone(phoneEntity);
+        if (remaining.remove(phone)) {
+          phones.add(phone);
+        } else {
+          removed.add(phoneEntity.getPhoneId());
+        }
+      }
+      phones.addAll(remaining);
+      return new PhoneChanges(removed, mapToPhoneEntities(remaining, uuid), phones);
+    }
+
+    boolean isEmpty() {
+      return removed.isEmpty() && added.isEmpty();
+    }
+  }
+
+  public Flux<UserResponse> getUsers(UUID after, Integer limit) {
+    return getUsers(after, limit, UserField.ALL);
+  }
+
+  /** A page holding only {@code fields}; unselected properties are null and PHONES is read only when requested. */
+  public Flux<UserResponse> getUsers(UUID after, Integer limit, Set<UserField> fields) {
+    return
+    userMetrics.time(Stage.LIST,
+        resolvePageSize(limit)
+        .flatMap(pageSize -> loadUserPage(after, pageSize, fields))
+        .doOnNext(page -> userMetrics.recordRowsListed(page.size())))
+        .flatMapIterable(Function.identity())
+        .doOnError(throwable -> log.error("Error fetching users after {}: {}", after, throwable.getMessage()));
+  }
+
+  public Flux<UserResponse> streamUsers() {
+    int chunkSize = applicationProperties.getStreamChunkSize();
+    return
+    loadUserPage(null, chunkSize, UserField.ALL)
+        .expand(page -> page.size() < chunkSize
+                ? Mono.empty()
+                : loadUserPage(UUID.fromString(page.get(page.size() - 1).getUuid()), chunkSize, UserField.ALL))
+        .doOnNext(page -> userMetrics.recordRowsStreamed(page.size()))
+        .concatMapIterable(Function.identity())
+        .doOnError(throwable -> log.error("Error streaming users: {}", throwable.getMessage()));
+  }
+
+  /** A page of the users matching every criterion of {@code query}, in index order; {@code after} is the last one received. */
+  public Flux<UserResponse> searchUsers(UserSearchIndex.Query query, UUID after, Integer limit) {
+    return
+    userMetrics.time(Stage.SEARCH,
+        resolvePageSize(limit)
+        .map(pageSize -> userSearchIndex.search(query, after, pageSize))
+        .flatMap(this::loadUsers))
+        .flatMapIterable(Function.identity())
+        .doOnError(throwable -> log.error("Error searching users {}: {}", query, throwable.getMessage()));
+  }
 
-  @Transactional(readOnly = true)
-  public Flux<UserResponse> getUsers() {
+  public Flux<UserResponse> streamSearchUsers(UserSearchIndex.Query query) {
+    int chunkSize = applicationProperties.getStreamChunkSize();
     return
-    Mono.zip(
-            userRepository.findAll().collectList(),
-            phoneRepository.findAll().collectList(),
-            (userEntities, phoneEntities) ->
-              userEntities.stream()
-              .map(userEntity -> mapToUserResponse(userEntity, phoneEntities))
-              .toList())
-        .flatMapMany(Flux::fromIterable)
-        .doOnError(throwable -> log.error("Error fetching users: {}", throwable.getMessage()))
-        .subscribeOn(Schedulers.boundedElastic());
+    Mono.fromSupplier(() -> userSearchIndex.search(query, null, chunkSize))
+        .expand(uuids -> uuids.size() < chunkSize
+                ? Mono.empty()
+                : Mono.fromSupplier(() -> userSearchIndex.search(query, uuids.get(uuids.size() - 1), chunkSize)))
+        .concatMap(this::loadUsers)
+        .concatMapIterable(Function.identity())
+        .doOnError(throwable -> log.error("Error streaming search {}: {}", query, throwable.getMessage()));
+  }
+
+  // users pending in the write-behind journal or cached are not read again; the rest come with one query
+  private Mono<List<UserResponse>> loadUsers(List<UUID> uuids) {
+    var known = new HashMap<UUID, UserResponse>();
+    var missing = new ArrayList<UUID>();
+    for (UUID uuid : uuids) {
+      var user = userWriteBehind.find(uuid);
+      if (user == null) {
+        user = userResponseCache.peek(uuid);
+      }
+      if (user != null) {
+        known.put(uuid, user);
+      } else {
+        missing.add(uuid);
+      }
+    }
+    var loaded = missing.isEmpty()
+        ? Mono.just(Map.<UUID, UserResponse>of())
+        : userMetrics.time(Stage.SEARCH_LOAD_USERS, userRepository.findUsers(missing, UserField.ALL)
+            .collectMap(user -> UUID.fromString(user.getUuid())));
+    return loaded.map(users -> {
+      var page = new ArrayList<UserResponse>(uuids.size());
+      for (UUID uuid : uuids) {
+        var user = known.get(uuid);
+        if (user == null && (user = users.get(uuid)) != null) {
+          user = withPendingLogin(uuid, user);
+        }
+        if (user != null) {
+          page.add(user);
+        }
+      }
+      return page;
+    });
   }
 
-  @Transactional(readOnly = true)
   public Mono<UserResponse> getUser(UUID uuid) {
-    return Mono.zip(
-            userRepository.findById(uuid),
-            phoneRepository.findByUuid(uuid).collectList(),
-            this::mapToUserResponse)
-          .doOnError(throwable -> log.error("Error fetching user with UUID {}: {}", uuid, throwable.getMessage()))
-          .subscribeOn(Schedulers.boundedElastic());
+    return userMetrics.time(Stage.GET, userResponseCache.get(uuid, this::loadUser))
+          .doOnError(throwable -> log.error("Error fetching user with UUID {}: {}", uuid, throwable.getMessage()));
+  }
+
+  // projections are not cached, but a user already cached or pending in full is projected rather than read again
+  public Mono<UserResponse> getUser(UUID uuid, Set<UserField> fields) {
+    if (fields.equals(UserField.ALL)) {
+      return getUser(uuid);
+    }
+    return
+    userMetrics.time(Stage.GET, Mono.defer(() -> {
+          var known = userWriteBehind.find(uuid);
+          if (known == null) {
+            known = userResponseCache.peek(uuid);
+          }
+          return known != null
+              ? Mono.just(known)
+              : userMetrics.time(Stage.GET_LOAD_USER, userRepository.findUser(uuid, fields))
+                  .map(user -> withPendingLogin(uuid, user));
+        }))
+        .doOnError(throwable -> log.error("Error fetching user with UUID {}: {}", uuid, throwable.getMessage()));
+  }
+
+  private Mono<UserResponse> loadUser(UUID uuid) {
+    var pending = userWriteBehind.find(uuid);
+    if (pending != null) {
+      return Mono.just(pending);
+    }
+    return userMetrics.time(Stage.GET_LOAD_USER, userRepository.findUser(uuid, UserField.ALL))
+        .map(user -> withPendingLogin(uuid, user));
+  }
+
+  // a login is written to LAST_LOGIN on the next flush; until then single-user reads take it from the recorder
+  private UserResponse withPendingLogin(UUID uuid, UserResponse user) {
+    var lastLogin = lastLoginRecorder.pending(uuid);
+    if (lastLogin != null) {
+      user.setLastLogin(lastLogin);
+    }
+    return user;
   }
 
-  @Transactional
   public Mono<UserResponse> createUser(UserRequest userRequest) {
          return
-            validateEmailUniqueness(userRequest.getEmail())
+            userMetrics.time(Stage.CREATE,
+            userMetrics.time(Stage.CREATE_VALIDATE_EMAIL, validateEmailUniqueness(userRequest.getEmail()))
             .then(validatePasswordFormat(userRequest.getPassword()))
-            .then(buildUserEntity(userRequest)
-                  .flatMap(userRepository::save)
-                  .doOnError(throwable -> log.error("Error saving user: {}", throwable.getMessage()))
-                  .flatMap(userEntity ->
-                        buildPhoneEntity(userRequest.getPhones(), userEntity.getUuid())
-                        .flatMapMany(phoneRepository::saveAll)
-                        .doOnError(throwable -> log.error("Error saving phones: {}", throwable.getMessage()))
-                        .collectList()
-                        .map(phoneEntities -> mapToUserResponse(userEntity, phoneEntities))))
-            .subscribeOn(Schedulers.boundedElastic())
+            .then(validateNameAndPhones(userRequest.getName(), userRequest.getPhones()))
+            .then(Mono.defer(() -> userWriteBehind.isEnabled() ? enqueueUser(userRequest) : saveUser(userRequest)))
+            .onErrorMap(DuplicateKeyException.class, throwable -> new ApiException(EMAIL_IN_USE)))
+            .doOnSuccess(userResponse -> {
+              emailIndex.put(userRequest.getEmail());
+              var readable = withoutToken(userResponse);
+              userResponseCache.put(readable);
+              userSearchIndex.add(readable);
+              userMetrics.recordPhones(userRequest.getPhones() == null ? 0 : userRequest.getPhones().size());
+            })
             .doOnSuccess(userResponse -> log.info("User created successfully: {}", userResponse.getUuid()))
             .doOnTerminate(() -> log.debug("createUser process finished"));
   }
 
+  // the entity (password hash and token) is built before the transaction so no connection is held while hashing;
+  // the transaction itself runs under the adaptive concurrency limit
+  private Mono<UserResponse> saveUser(UserRequest userRequest) {
+    return
+    buildUserEntity(userRequest)
+        .flatMap(userEntity -> concurrencyLimiter.limit(transactionalOperator.transactional(
+            userMetrics.time(Stage.CREATE_SAVE_USER, userRepository.insertAll(List.of(userEntity)))
+            .doOnError(throwable -> log.error("Error saving user: {}", throwable.getMessage()))
+            .then(userMetrics.time(Stage.CREATE_SAVE_PHONES,
+                buildPhoneEntity(userRequest.getPhones(), userEntity.getUuid())
+                .flatMapMany(phoneRepository::saveAll)
+                .doOnError(throwable -> log.error("Error saving phones: {}", throwable.getMessage()))
+                .collectList()))
+            .map(phoneEntities -> mapToUserResponse(userEntity, phoneEntities)))));
+  }
+
+  // write-behind: the user is acknowledged once journaled; with the queue full it is inserted synchronously instead
+  private Mono<UserResponse> enqueueUser(UserRequest userRequest) {
+    return
+    buildUserEntity(userRequest)
+        .flatMap(userEntity -> {
+          var phoneEntities = mapToPhoneEntities(userRequest.getPhones(), userEntity.getUuid());
+          return
+          userMetrics.time(Stage.CREATE_JOURNAL, userWriteBehind.submit(userEntity, phoneEntities))
+              .switchIfEmpty(Mono.defer(() -> userMetrics.time(Stage.CREATE_SAVE_USER,
+                  concurrencyLimiter.limit(insertUsers(List.of(userEntity), Map.of(userEntity.getUuid(), phoneEntities)))
+                  .thenReturn(mapToUserResponse(userEntity, phoneEntities)))));
+        });
+  }
+
+  /**
+   * Applies the non-null properties of {@code patch} if the user is still at {@code patch.version}: one UPDATE with
+   * only the changed columns, and phone rows deleted or inserted only where they differ. A patch that changes
+   * nothing writes nothing. A user still pending in the write-behind queue is inserted first.
+   */
+  public Mono<UserResponse> updateUser(UUID uuid, UserPatchRequest patch) {
+    return
+    userMetrics.time(Stage.UPDATE,
+        userWriteBehind.persistNow(uuid)
+        .then(userRepository.findUser(uuid, UserField.ALL))
+        .switchIfEmpty(Mono.error(() -> new ApiException(USER_NOT_FOUND, HttpStatus.NOT_FOUND)))
+        .flatMap(current -> current.getVersion().equals(patch.getVersion())
+            ? applyPatch(uuid, withPendingLogin(uuid, current), patch)
+                .doOnSuccess(updated -> userSearchIndex.update(current, updated))
+            : Mono.error(new ApiException(VERSION_CONFLICT, HttpStatus.CONFLICT)))
+        .onErrorMap(DuplicateKeyException.class, throwable -> new ApiException(EMAIL_IN_USE)))
+        .doOnSuccess(userResponseCache::put)
+        .doOnError(throwable -> log.error("Error updating user {}: {}", uuid, throwable.getMessage()));
+  }
+
+  /**
+   * Checks the password on the password pool and records the login for {@link LastLoginRecorder}, which writes
+   * LAST_LOGIN in batches. Returns the user with its new {@code lastLogin} and a fresh token. A user still pending in
+   * the write-behind queue is inserted first, so that there is a row for LAST_LOGIN.
+   */
+  public Mono<UserResponse> login(UUID uuid, String password) {
+    return
+    userMetrics.time(Stage.LOGIN,
+        userWriteBehind.persistNow(uuid)
+        .then(userRepository.findPasswordByUuid(uuid))
+        .flatMap(passwordHash -> verifyPassword(password, passwordHash))
+        .filter(Boolean::booleanValue)
+        .switchIfEmpty(Mono.error(() -> new ApiException(INVALID_CREDENTIALS, HttpStatus.UNAUTHORIZED)))
+        .then(getUser(uuid))
+        .flatMap(user -> {
+          if (!Boolean.TRUE.equals(user.getIsActive())) {
+            return Mono.error(new ApiException(USER_INACTIVE, HttpStatus.FORBIDDEN));
+          }
+          var loginAt = LocalDateTime.now();
+          lastLoginRecorder.touch(uuid, loginAt);
+          var loggedIn = user.toBuilder().lastLogin(loginAt).build();
+          userResponseCache.put(loggedIn);
+          return
+          Mono.fromCallable(() -> loggedIn.toBuilder().token(jwtService.generate(uuid)).build())
+              .subscribeOn(cryptoScheduler);
+        }));
+  }
+
+  // cheap checks first, the password is hashed only for a patch that will be written
+  private Mono<UserResponse> applyPatch(UUID uuid, UserResponse current, UserPatchRequest patch) {
+    var information = current.getUserInformation();
+    var name = changed(patch.getName(), information.getName());
+    var email = changed(patch.getEmail(), information.getEmail());
+    var isActive = changed(patch.getIsActive(), current.getIsActive());
+    var password = patch.getPassword();
+    return
+    validateNameAndPhones(name != null ? name : information.getName(), patch.getPhones())
+        .then(email == null ? Mono.<Void>empty() : validateEmailUniqueness(email))
+        .then(password == null ? Mono.<Void>empty() : validatePasswordFormat(password))
+        .then(patch.getPhones() == null
+            ? Mono.just(PhoneChanges.NONE)
+            : phoneRepository.findByUuid(uuid).collectList()
+                .map(existing -> PhoneChanges.diff(existing, patch.getPhones(), uuid)))
+        .flatMap(phoneChanges -> {
+          if (name == null && email == null && isActive == null && password == null && phoneChanges.isEmpty()) {
+            return Mono.just(current);
+          }
+          return
+          (password == null ? Mono.just(Optional.<String>empty()) : hashPassword(password).map(Optional::of))
+              .flatMap(passwordHash -> saveChanges(uuid, current, name, email, passwordHash.orElse(null), isActive, phoneChanges));
+        });
+  }
+
+  private Mono<UserResponse> saveChanges(
+          UUID uuid, UserResponse current, String name, String email, String passwordHash, Boolean isActive,
+          PhoneChanges phoneChanges) {
+    var modifiedAt = LocalDateTime.now();
+    return
+    userMetrics.time(Stage.UPDATE_SAVE_USER, concurrencyLimiter.limit(transactionalOperator.transactional(
+        userRepository.updateUser(uuid, current.getVersion(), modifiedAt, name, email, passwordHash, isActive)
+        .flatMap(updated -> updated == 0
+            ? Mono.error(new ApiException(VERSION_CONFLICT, HttpStatus.CONFLICT))
+            : (phoneChanges.removed().isEmpty() ? Mono.<Void>empty() : phoneRepository.deleteAllById(phoneChanges.removed()))
+                .then(phoneRepository.insertAll(phoneChanges.added())))
+        .then(Mono.fromSupplier(() -> {
+          var information = current.getUserInformation();
+          return current.toBuilder()
+              .userInformation(UserRequest.builder()
+                  .name(name != null ? name : information.getName())
+                  .email(email != null ? email : information.getEmail())
+                  .phones(phoneChanges.phones() != null ? phoneChanges.phones() : information.getPhones())
+                  .build())
+              .modified(modifiedAt)
+              .isActive(isActive != null ? isActive : current.getIsActive())
+              .version(current.getVersion() + 1)
+              .build();
+        })))))
+        .doOnSuccess(unused -> {
+          if (email != null) {
+            emailIndex.put(email);
+          }
+          // a new password ends the sessions opened with the old one
+          if (passwordHash != null) {
+            jwtService.revoke(uuid);
+          }
+        });
+  }
+
+  private static <T> T changed(T requested, T current) {
+    return requested == null || requested.equals(current) ? null : requested;
+  }
+
+  // a full password pool sheds the login like a registration
+  private Mono<Boolean> verifyPassword(String password, String passwordHash) {
+    return
+      userMetrics.time(Stage.LOGIN_VERIFY_PASSWORD,
+          Mono.fromCallable(() -> passwordHasher.matches(password, passwordHash))
+          .subscribeOn(passwordScheduler)
+          .onErrorMap(RejectedExecutionException.class,
+              throwable -> new ApiException(PASSWORD_HASHING_BUSY, HttpStatus.SERVICE_UNAVAILABLE)));
+  }
+
+  public Flux<BatchUserResult> createUsers(Flux<UserRequest> userRequests) {
+    return
+    userRequests
+        .index()
+        .buffer(applicationProperties.getBatchSize())
+        .concatMap(this::createUserChunk)
+        .doOnError(throwable -> log.error("Error creating users in batch: {}", throwable.getMessage()));
+  }
+
+  private Flux<BatchUserResult> createUserChunk(List<Tuple2<Long, UserRequest>> chunk) {
+    var rejections = new ConcurrentHashMap<Long, String>();
+    var batchEmails = new HashSet<String>();
+    for (var item : chunk) {
+      var reason = validateBatchItem(item.getT2());
+      if (reason == null && !batchEmails.add(item.getT2().getEmail())) {
+        reason = "Duplicate email in batch";
+      }
+      if (reason != null) {
+        rejections.put(item.getT1(), reason);
+      }
+    }
+    var candidates = chunk.stream()
+            .filter(item -> !rejections.containsKey(item.getT1()))
+            .toList();
+    var possiblyTaken = candidates.stream()
+            .map(item -> item.getT2().getEmail())
+            .filter(emailIndex::mightContain)
+            .toList();
+    var existingEmails = possiblyTaken.isEmpty()
+            ? Mono.just(Set.<String>of())
+            : userRepository.findExistingEmails(possiblyTaken).collect(Collectors.toSet());
+    return
+            existingEmails
+            .flatMapMany(emailsInUse -> Flux.fromIterable(candidates)
+                    .filter(item -> {
+                      var email = item.getT2().getEmail();
+                      if (emailsInUse.contains(email) || userWriteBehind.isReserved(email)) {
+                        rejections.put(item.getT1(), EMAIL_IN_USE);
+                        return false;
+                      }
+                      return true;
+                    })
+                    .flatMapSequential(item -> hashPassword(item.getT2().getPassword())
+                            .map(passwordHash -> Tuples.of(item, passwordHash))
+                            .onErrorResume(ApiException.class, throwable -> {
+                              rejections.put(item.getT1(), throwable.getMessage());
+                              return Mono.empty();
+                            }), applicationProperties.getPasswordThreads()))
+            .collectList()
+            .publishOn(cryptoScheduler)
+            .flatMapMany(hashed -> {
+              var created = new HashMap<Long, UserResponse>();
+              var userEntities = new LinkedHashMap<Long, UserEntity>();
+              var phoneEntities = new HashMap<UUID, List<PhoneEntity>>();
+              for (var hashedItem : hashed) {
+                var item = hashedItem.getT1();
+                var userEntity = newUserEntity(item.getT2(), UUID.randomUUID(), hashedItem.getT2());
+                var userPhones = mapToPhoneEntities(item.getT2().getPhones(), userEntity.getUuid());
+                userEntities.put(item.getT1(), userEntity);
+                phoneEntities.put(userEntity.getUuid(), userPhones);
+                created.put(item.getT1(), mapToUserResponse(userEntity, userPhones));
+              }
+              return
+                      insertUsers(List.copyOf(userEntities.values()), phoneEntities)
+                      .onErrorResume(DuplicateKeyException.class, throwable ->
+                              insertUsersOneByOne(userEntities, phoneEntities, created, rejections))
+                      .doOnError(throwable -> log.error("Error saving user batch: {}", throwable.getMessage()))
+                      .doOnSuccess(unused -> created.values().forEach(user -> {
+                        var readable = withoutToken(user);
+                        userResponseCache.put(readable);
+                        userSearchIndex.add(readable);
+                      }))
+                      .thenMany(Flux.fromIterable(chunk))
+                      .map(item -> toBatchUserResult(item, created.get(item.getT1()), rejections.get(item.getT1())));
+            });
+  }
+
+  private Mono<Void> insertUsers(List<UserEntity> userEntities, Map<UUID, List<PhoneEntity>> phoneEntities) {
+    return
+            transactionalOperator.transactional(
+                    userRepository.insertAll(userEntities)
+                    .then(phoneRepository.insertAll(userEntities.stream()
+                            .flatMap(userEntity -> phoneEntities.get(userEntity.getUuid()).stream())
+                            .toList())))
+            .doOnSuccess(unused -> userEntities.forEach(userEntity -> emailIndex.put(userEntity.getEmail())));
+  }
+
+  private Mono<Void> insertUsersOneByOne(
+          Map<Long, UserEntity> userEntities,
+          Map<UUID, List<PhoneEntity>> phoneEntities,
+          Map<Long, UserResponse> created,
+          Map<Long, String> rejections) {
+    return
+            Flux.fromIterable(userEntities.entrySet())
+            .concatMap(entry ->
+                    insertUsers(List.of(entry.getValue()), phoneEntities)
+                    .onErrorResume(DuplicateKeyException.class, throwable -> {
+                      created.remove(entry.getKey());
+                      rejections.put(entry.getKey(), EMAIL_IN_USE);
+                      return Mono.empty();
+                    }))
+            .then();
+  }
+
+  private String validateBatchItem(UserRequest userRequest) {
+    if (!userValidator.isValidName(userRequest.getName())) {
+      return INVALID_NAME;
+    }
+    if (!userValidator.isValidPhones(userRequest.getPhones())) {
+      return INVALID_PHONES;
+    }
+    if (!userValidator.isValidEmail(userRequest.getEmail())) {
+      return "Invalid email format";
+    }
+    if (!userValidator.isValidPassword(userRequest.getPassword())) {
+      return "Password does not meet complexity requirements";
+    }
+    return null;
+  }
+
+  private BatchUserResult toBatchUserResult(Tuple2<Long, UserRequest> item, UserResponse created, String reason) {
+    return BatchUserResult.builder()
+            .index(item.getT1())
+            .email(item.getT2().getEmail())
+            .status(created != null ? BatchUserResult.Status.CREATED : BatchUserResult.Status.REJECTED)
+            .reason(reason)
+            .user(created)
+            .build();
+  }
+
+  private Mono<Integer> resolvePageSize(Integer limit) {
+    if (limit == null) {
+      return Mono.just(applicationProperties.getDefaultPageSize());
+    }
+    if (limit < 1) {
+      return Mono.error(new ApiException("Limit must be greater than zero"));
+    }
+    return Mono.just(Math.min(limit, applicationProperties.getMaxPageSize()));
+  }
+
+  private Mono<List<UserResponse>> loadUserPage(UUID after, int pageSize, Set<UserField> fields) {
+    return userMetrics.time(Stage.LIST_LOAD_PAGE, userRepository.findPage(after, pageSize, fields).collectList());
+  }
+
   private Mono<Void> validateEmailUniqueness(String email) {
-    if(email.matches(applicationProperties.getEmailRegex())){
+    if(userValidator.isValidEmail(email)){
+      if (userWriteBehind.isReserved(email)) {
+        return Mono.error(new ApiException(EMAIL_IN_USE));
+      }
+      if (!emailIndex.mightContain(email)) {
+        return Mono.empty();
+      }
       return
               userRepository.findByEmail(email)
-              .flatMap(existingUser -> Mono.error(new ApiException("Email already in use")))
+              .flatMap(existingUser -> Mono.error(new ApiException(EMAIL_IN_USE)))
               .then();
     }
     return Mono.error(new ApiException("Invalid email format"));
   }
   
   private Mono<Void> validatePasswordFormat(String password) {
-    if(password.matches(applicationProperties.getPasswordRegex())){
+    if(userValidator.isValidPassword(password)){
       return Mono.empty();
     }
     return Mono.error(new ApiException("Password does not meet complexity requirements"));
   }
 
+  private Mono<Void> validateNameAndPhones(String name, List<Phone> phones) {
+    if (!userValidator.isValidName(name)) {
+      return Mono.error(new ApiException(INVALID_NAME));
+    }
+    if (!userValidator.isValidPhones(phones)) {
+      return Mono.error(new ApiException(INVALID_PHONES));
+    }
+    return Mono.empty();
+  }
+
+  // the UUID is assigned here rather than by the database so the token can carry it as its subject
   private Mono<UserEntity> buildUserEntity(UserRequest userRequest) {
-    return Mono.just(
-      UserEntity.builder()
+    return
+      hashPassword(userRequest.getPassword())
+      .flatMap(passwordHash -> userMetrics.time(Stage.CREATE_JWT,
+          Mono.fromCallable(() -> newUserEntity(userRequest, UUID.randomUUID(), passwordHash))
+          .subscribeOn(cryptoScheduler)));
+  }
+
+  // a full password pool sheds the request rather than queueing it behind seconds of hashing
+  private Mono<String> hashPassword(String password) {
+    return
+      userMetrics.time(Stage.CREATE_HASH_PASSWORD,
+          Mono.fromCallable(() -> passwordHasher.hash(password))
+          .subscribeOn(passwordScheduler)
+          .onErrorMap(RejectedExecutionException.class,
+              throwable -> new ApiException(PASSWORD_HASHING_BUSY, HttpStatus.SERVICE_UNAVAILABLE)));
+  }
+
+  private UserEntity newUserEntity(UserRequest userRequest, UUID uuid, String passwordHash) {
+    return UserEntity.builder()
+      .uuid(uuid)
       .name(userRequest.getName())
       .email(userRequest.getEmail())
-      .password(userRequest.getPassword())
+      .password(passwordHash)
       .createdAt(LocalDateTime.now())
       .modifiedAt(null)
       .lastLogin(LocalDateTime.now())
-      .token(jwtService.generate(UUID.randomUUID()))
+      .token(jwtService.generate(uuid))
       .isActive(Boolean.TRUE)
-      .build());
-  }
-
-  private Mono<List<PhoneEntity>> buildPhoneEntity(List<Phone> phones, UUID uuid) {
-    return Mono.just(
-            phones.stream()
-            .map(phone ->
-                    PhoneEntity.builder()
-                            .uuid(uuid)
-                            .number(phone.getNumber())
-                            .cityCode(phone.getCityCode())
-                            .countryCode(phone.getCountryCode())
-                            .build())
-            .toList());
-  }
-
-  private UserResponse mapToUserResponse(
-          UserEntity userEntity,
-          List<PhoneEntity> phoneEntities) {
-    return UserResponse.builder()
-            .uuid(userEntity.getUuid().toString())
-            .userInformation(mapToUserRequest(userEntity, phoneEntities))
-            .created(userEntity.getCreatedAt())
-            .modified(userEntity.getModifiedAt())
-            .lastLogin(userEntity.getLastLogin())
-            .token(userEntity.getToken())
-            .isActive(userEntity.isActive())
-            .build();
-  }
-
-  private UserRequest mapToUserRequest(
-          UserEntity userEntity,
-          List<PhoneEntity> phoneEntities){
-    return UserRequest.builder()
-      .name(userEntity.getName())
-      .email(userEntity.getEmail())
-      .password(userEntity.getPassword())
-      .phones(phoneEntities.stream()
-              .filter(phoneEntity -> phoneEntity.getUuid().equals(userEntity.getUuid()))
-              .map(this::mapToPhone)
-              .toList())
       .build();
   }
 
-  private Phone mapToPhone(PhoneEntity phoneEntity) {
-    return Phone.builder()
-      .number(phoneEntity.getNumber())
-      .cityCode(phoneEntity.getCityCode())
-      .countryCode(phoneEntity.getCountryCode())
-      .build();
+  private Mono<List<PhoneEntity>> buildPhoneEntity(List<Phone> phones, UUID uuid) {
+    return Mono.just(mapToPhoneEntities(phones, uuid));
   }
 }
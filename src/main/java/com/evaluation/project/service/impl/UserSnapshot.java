@@ -0,0 +1,396 @@
+package com.evaluation.project.service.impl;
+
+import com.evaluation.project.model.entity.PhoneEntity;
+import com.evaluation.project.model.entity.UserEntity;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.zip.CRC32C;
+
+/**
+ * Columnar snapshot file of USERS and PHONES. After a {@code [magic][version]} header the file is a sequence of blocks
+ * framed like the write-behind journal, {@code [length][crc32c][payload]}: USERS blocks, then PHONES blocks, then an
+ * END block with the totals, so a truncated file is detected. Inside a block each column is stored contiguously:
+ * UUIDs as two {@code long} columns, timestamps as epoch microseconds (the precision of the TIMESTAMP columns),
+ * strings as a length column followed by their UTF-8 bytes, the active flags as a bit set, and the phone city and
+ * country codes as a per-block dictionary plus a 1, 2 or 4 byte code per phone.
+ */
+final class UserSnapshot {
+
+    static final int MAGIC = 0x55534E50; // "USNP"
+    static final short VERSION = 1;
+
+    private static final byte USERS = 1;
+    private static final byte PHONES = 2;
+    private static final byte END = 3;
+    private static final int HEADER_BYTES = Integer.BYTES + Short.BYTES;
+    private static final int FRAME_BYTES = Integer.BYTES * 2;
+    private static final int MAX_BLOCK_BYTES = 256 * 1024 * 1024;
+    private static final long NULL_TIME = Long.MIN_VALUE;
+    private static final int NULL_LENGTH = -1;
+
+    sealed interface Block permits Users, Phones, End {
+    }
+
+    record Users(List<UserEntity> users) implements Block {
+    }
+
+    record Phones(List<PhoneEntity> phones) implements Block {
+    }
+
+    record End(long users, long phones) implements Block {
+    }
+
+    static final class InvalidSnapshotException extends RuntimeException {
+
+        InvalidSnapshotException(String message) {
+            super(message);
+        }
+    }
+
+    private UserSnapshot() {
+    }
+
+    static ByteBuffer header() {
+        return ByteBuffer.allocate(HEADER_BYTES).putInt(MAGIC).putShort(VERSION).flip();
+    }
+
+    static ByteBuffer users(List<UserEntity> users) {
+        return frame(output -> {
+            output.writeByte(USERS);
+            output.writeInt(users.size());
+            writeUuids(output, users, UserEntity::getUuid);
+            writeStrings(output, users, UserEntity::getName);
+            writeStrings(output, users, UserEntity::getEmail);
+            writeStrings(output, users, UserEntity::getPassword);
+            writeTimes(output, users, UserEntity::getCreatedAt);
+            writeTimes(output, users, UserEntity::getModifiedAt);
+            writeTimes(output, users, UserEntity::getLastLogin);
+            writeStrings(output, users, UserEntity::getToken);
+            var active = new BitSet(users.size());
+            for (int i = 0; i < users.size(); i++) {
+                active.set(i, users.get(i).isActive());
+            }
+            var bits = active.toByteArray();
+            output.writeInt(bits.length);
+            output.write(bits);
+            for (var user : users) {
+                output.writeLong(user.getVersion());
+            }
+        });
+    }
+
+    static ByteBuffer phones(List<PhoneEntity> phones) {
+        return frame(output -> {
+            output.writeByte(PHONES);
+            output.writeInt(phones.size());
+            writeUuids(output, phones, PhoneEntity::getUuid);
+            writeStrings(output, phones, PhoneEntity::getNumber);
+            writeCodes(output, phones, PhoneEntity::getCityCode);
+            writeCodes(output, phones, PhoneEntity::getCountryCode);
+        });
+    }
+
+    static ByteBuffer end(long users, long phones) {
+        return frame(output -> {
+            output.writeByte(END);
+            output.writeLong(users);
+            output.writeLong(phones);
+        });
+    }
+
+    /**
+     * Decodes a snapshot arriving in chunks of any size (an HTTP body, file reads). Fails with
+     * {@link InvalidSnapshotException} on a wrong header, a corrupt block or a file without its END block.
+     */
+    static Flux<Block> read(Flux<ByteBuffer> chunks) {
+        return Flux.defer(() -> {
+            var decoder = new Decoder();
+            return chunks.concatMapIterable(decoder::feed)
+                    .concatWith(Mono.fromRunnable(decoder::finish));
+        });
+    }
+
+    private static final class Decoder {
+
+        private ByteBuffer pending = ByteBuffer.allocate(64 * 1024);
+        private boolean headerRead;
+        private boolean ended;
+        private final CRC32C crc = new CRC32C();
+
+        List<Block> feed(ByteBuffer chunk) {
+            if (pending.remaining() < chunk.remaining()) {
+                var grown = ByteBuffer.allocate(Math.max(pending.capacity() * 2, pending.position() + chunk.remaining()));
+                pending = grown.put(pending.flip());
+            }
+            pending.put(chunk);
+            pending.flip();
+            var blocks = new ArrayList<Block>();
+            try {
+                while (decodeNext(blocks)) {
+                    // keep decoding until the buffered bytes end mid-block
+                }
+            } finally {
+                pending.compact();
+            }
+            return blocks;
+        }
+
+        void finish() {
+            if (!ended) {
+                throw new InvalidSnapshotException("Snapshot is truncated: no END block");
+            }
+        }
+
+        private boolean decodeNext(List<Block> blocks) {
+            if (!headerRead) {
+                if (pending.remaining() < HEADER_BYTES) {
+                    return false;
+                }
+                if (pending.getInt() != MAGIC) {
+                    throw new InvalidSnapshotException("Not a user snapshot");
+                }
+                short version = pending.getShort();
+                if (version != VERSION) {
+                    throw new InvalidSnapshotException("Unsupported snapshot version " + version);
+                }
+                headerRead = true;
+            }
+            if (!pending.hasRemaining()) {
+                return false;
+            }
+            if (ended) {
+                throw new InvalidSnapshotException("Unexpected data after the END block");
+            }
+            if (pending.remaining() < FRAME_BYTES) {
+                return false;
+            }
+            int start = pending.position();
+            int length = pending.getInt(start);
+            int checksum = pending.getInt(start + Integer.BYTES);
+            if (length <= 0 || length > MAX_BLOCK_BYTES) {
+                throw new InvalidSnapshotException("Corrupt block header at byte " + start);
+            }
+            if (pending.remaining() < FRAME_BYTES + length) {
+                return false;
+            }
+            crc.reset();
+            crc.update(pending.array(), pending.arrayOffset() + start + FRAME_BYTES, length);
+            if ((int) crc.getValue() != checksum) {
+                throw new InvalidSnapshotException("Corrupt block at byte " + start);
+            }
+            var payload = pending.slice(start + FRAME_BYTES, length);
+            pending.position(start + FRAME_BYTES + length);
+            try {
+                var block = decode(payload);
+                ended = block instanceof End;
+                blocks.add(block);
+            } catch (RuntimeException e) {
+                throw new InvalidSnapshotException("Corrupt block at byte " + start);
+            }
+            return true;
+        }
+    }
+
+    private static Block decode(ByteBuffer payload) {
+        byte type = payload.get();
+        if (type == END) {
+            return new End(payload.getLong(), payload.getLong());
+        }
+        int rows = payload.getInt();
+        var uuids = readUuids(payload, rows);
+        if (type == PHONES) {
+            var numbers = readStrings(payload, rows);
+            var cityCodes = readCodes(payload, rows);
+            var countryCodes = readCodes(payload, rows);
+            var phones = new ArrayList<PhoneEntity>(rows);
+            for (int i = 0; i < rows; i++) {
+                phones.add(PhoneEntity.builder()
+                        .uuid(uuids[i])
+                        .number(numbers[i])
+                        .cityCode(cityCodes[i])
+                        .countryCode(countryCodes[i])
+                        .build());
+            }
+            return new Phones(phones);
+        }
+        if (type != USERS) {
+            throw new IllegalStateException("Unknown block type " + type);
+        }
+        var names = readStrings(payload, rows);
+        var emails = readStrings(payload, rows);
+        var passwords = readStrings(payload, rows);
+        var createdAt = readTimes(payload, rows);
+        var modifiedAt = readTimes(payload, rows);
+        var lastLogin = readTimes(payload, rows);
+        var tokens = readStrings(payload, rows);
+        var bits = new byte[payload.getInt()];
+        payload.get(bits);
+        var active = BitSet.valueOf(bits);
+        var users = new ArrayList<UserEntity>(rows);
+        for (int i = 0; i < rows; i++) {
+            users.add(UserEntity.builder()
+                    .uuid(uuids[i])
+                    .name(names[i])
+                    .email(emails[i])
+                    .password(passwords[i])
+                    .createdAt(createdAt[i])
+                    .modifiedAt(modifiedAt[i])
+                    .lastLogin(lastLogin[i])
+                    .token(tokens[i])
+                    .isActive(active.get(i))
+                    .version(payload.getLong())
+                    .build());
+        }
+        return new Users(users);
+    }
+
+    private interface BlockWriter {
+        void write(DataOutputStream output) throws IOException;
+    }
+
+    private static ByteBuffer frame(BlockWriter writer) {
+        var bytes = new ByteArrayOutputStream(64 * 1024);
+        try (var output = new DataOutputStream(bytes)) {
+            output.writeInt(0);
+            output.writeInt(0);
+            writer.write(output);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        var buffer = ByteBuffer.wrap(bytes.toByteArray());
+        var crc = new CRC32C();
+        crc.update(buffer.array(), FRAME_BYTES, buffer.limit() - FRAME_BYTES);
+        buffer.putInt(0, buffer.limit() - FRAME_BYTES);
+        buffer.putInt(Integer.BYTES, (int) crc.getValue());
+        return buffer;
+    }
+
+    private static <T> void writeUuids(DataOutputStream output, List<T> rows, Function<T, UUID> column) throws IOException {
+        for (var row : rows) {
+            output.writeLong(column.apply(row).getMostSignificantBits());
+        }
+        for (var row : rows) {
+            output.writeLong(column.apply(row).getLeastSignificantBits());
+        }
+    }
+
+    private static UUID[] readUuids(ByteBuffer input, int rows) {
+        var mostSignificantBits = new long[rows];
+        for (int i = 0; i < rows; i++) {
+            mostSignificantBits[i] = input.getLong();
+        }
+        var uuids = new UUID[rows];
+        for (int i = 0; i < rows; i++) {
+            uuids[i] = new UUID(mostSignificantBits[i], input.getLong());
+        }
+        return uuids;
+    }
+
+    private static <T> void writeStrings(DataOutputStream output, List<T> rows, Function<T, String> column) throws IOException {
+        var values = new byte[rows.size()][];
+        for (int i = 0; i < values.length; i++) {
+            var value = column.apply(rows.get(i));
+            values[i] = value == null ? null : value.getBytes(StandardCharsets.UTF_8);
+        }
+        for (var value : values) {
+            output.writeInt(value == null ? NULL_LENGTH : value.length);
+        }
+        for (var value : values) {
+            if (value != null) {
+                output.write(value);
+            }
+        }
+    }
+
+    private static String[] readStrings(ByteBuffer input, int rows) {
+        var lengths = new int[rows];
+        for (int i = 0; i < rows; i++) {
+            lengths[i] = input.getInt();
+        }
+        var values = new String[rows];
+        for (int i = 0; i < rows; i++) {
+            if (lengths[i] != NULL_LENGTH) {
+                values[i] = new String(input.array(), input.arrayOffset() + input.position(), lengths[i], StandardCharsets.UTF_8);
+                input.position(input.position() + lengths[i]);
+            }
+        }
+        return values;
+    }
+
+    private static <T> void writeTimes(DataOutputStream output, List<T> rows, Function<T, LocalDateTime> column) throws IOException {
+        for (var row : rows) {
+            var value = column.apply(row);
+            output.writeLong(value == null
+                    ? NULL_TIME
+                    : value.toEpochSecond(ZoneOffset.UTC) * 1_000_000 + value.getNano() / 1_000);
+        }
+    }
+
+    private static LocalDateTime[] readTimes(ByteBuffer input, int rows) {
+        var values = new LocalDateTime[rows];
+        for (int i = 0; i < rows; i++) {
+            long micros = input.getLong();
+            if (micros != NULL_TIME) {
+                values[i] = LocalDateTime.ofEpochSecond(
+                        Math.floorDiv(micros, 1_000_000), (int) Math.floorMod(micros, 1_000_000) * 1_000, ZoneOffset.UTC);
+            }
+        }
+        return values;
+    }
+
+    // code 0 is null, code n is the n-th dictionary entry
+    private static <T> void writeCodes(DataOutputStream output, List<T> rows, Function<T, String> column) throws IOException {
+        var dictionary = new LinkedHashMap<String, Integer>();
+        var codes = new int[rows.size()];
+        for (int i = 0; i < codes.length; i++) {
+            var value = column.apply(rows.get(i));
+            codes[i] = value == null ? 0 : dictionary.computeIfAbsent(value, unused -> dictionary.size() + 1);
+        }
+        var entries = new ArrayList<>(dictionary.keySet());
+        output.writeInt(entries.size());
+        writeStrings(output, entries, Function.identity());
+        int width = codeWidth(entries.size());
+        for (int code : codes) {
+            switch (width) {
+                case Byte.BYTES -> output.writeByte(code);
+                case Short.BYTES -> output.writeShort(code);
+                default -> output.writeInt(code);
+            }
+        }
+    }
+
+    private static String[] readCodes(ByteBuffer input, int rows) {
+        int size = input.getInt();
+        var dictionary = readStrings(input, size);
+        int width = codeWidth(size);
+        var values = new String[rows];
+        for (int i = 0; i < rows; i++) {
+            int code = switch (width) {
+                case Byte.BYTES -> Byte.toUnsignedInt(input.get());
+                case Short.BYTES -> Short.toUnsignedInt(input.getShort());
+                default -> input.getInt();
+            };
+            values[i] = code == 0 ? null : dictionary[code - 1];
+        }
+        return values;
+    }
+
+    private static int codeWidth(int dictionarySize) {
+        return dictionarySize < 0xFF ? Byte.BYTES : dictionarySize < 0xFFFF ? Short.BYTES : Integer.BYTES;
+    }
+}
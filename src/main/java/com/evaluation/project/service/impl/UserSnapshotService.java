@@ -0,0 +1,244 @@
+package com.evaluation.project.service.impl;
+
+import com.evaluation.project.config.ApplicationProperties;
+import com.evaluation.project.model.dto.SnapshotSummary;
+import com.evaluation.project.repository.PhoneRepository;
+import com.evaluation.project.repository.UserRepository;
+import com.evaluation.project.service.impl.UserSnapshot.Block;
+import com.evaluation.project.service.impl.UserSnapshot.End;
+import com.evaluation.project.service.impl.UserSnapshot.InvalidSnapshotException;
+import com.evaluation.project.service.impl.UserSnapshot.Phones;
+import com.evaluation.project.service.impl.UserSnapshot.Users;
+import com.evaluation.project.util.ApiException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.ReactiveTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import org.springframework.transaction.support.DefaultTransactionDefinition;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Export and import of the whole user store as a {@link UserSnapshot} file, to bootstrap a node or a test environment
+ * without replaying {@code POST /users}. The import writes the rows as they are, with multi-row inserts of
+ * {@code app.batch.size} rows: no validation, no password hashing, no tokens, and in a single transaction. An upload
+ * is written to a temporary file and verified before that transaction starts, so the transaction never waits on the
+ * network.
+ */
+@Service
+@Slf4j
+public class UserSnapshotService {
+
+  static final String WRITE_BEHIND_ENABLED = "Snapshot import is not available while write-behind is enabled";
+  static final String COUNT_MISMATCH = "Snapshot END block does not match the rows read";
+  private static final int READ_CHUNK = 1024 * 1024;
+
+  private final UserRepository userRepository;
+  private final PhoneRepository phoneRepository;
+  private final UserResponseCache userResponseCache;
+  private final EmailIndex emailIndex;
+  private final UserSearchIndex userSearchIndex;
+  private final ApplicationProperties applicationProperties;
+  private final TransactionalOperator snapshotReads;
+  private final TransactionalOperator snapshotWrites;
+
+  public UserSnapshotService(
+      UserRepository userRepository,
+      PhoneRepository phoneRepository,
+      UserResponseCache userResponseCache,
+      EmailIndex emailIndex,
+      UserSearchIndex userSearchIndex,
+      ApplicationProperties applicationProperties,
+      ReactiveTransactionManager transactionManager) {
+    this.userRepository = userRepository;
+    this.phoneRepository = phoneRepository;
+    this.userResponseCache = userResponseCache;
+    this.emailIndex = emailIndex;
+    this.userSearchIndex = userSearchIndex;
+    this.applicationProperties = applicationProperties;
+    // both scans read the same snapshot, so no exported phone belongs to a user created after the USERS scan
+    var definition = new DefaultTransactionDefinition();
+    definition.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+    this.snapshotReads = TransactionalOperator.create(transactionManager, definition);
+    this.snapshotWrites = TransactionalOperator.create(transactionManager);
+  }
+
+  /**
+   * The snapshot as a stream of buffers: USERS and then PHONES, both in UUID order, so that the import inserts into the
+   * primary key and the PHONES.UUID index in key order and checks the foreign key against neighbouring users.
+   */
+  public Flux<ByteBuffer> export() {
+    return Flux.defer(() -> {
+      var users = new AtomicLong();
+      var phones = new AtomicLong();
+      int blockSize = applicationProperties.getSnapshotBlockSize();
+      return Flux.concat(
+              Mono.fromSupplier(UserSnapshot::header),
+              userRepository.findAllOrderByUuid()
+                  .buffer(blockSize)
+                  .doOnNext(block -> users.addAndGet(block.size()))
+                  .map(UserSnapshot::users),
+              phoneRepository.findAllOrderByUuid()
+                  .buffer(blockSize)
+                  .doOnNext(block -> phones.addAndGet(block.size()))
+                  .map(UserSnapshot::phones),
+              Mono.fromSupplier(() -> UserSnapshot.end(users.get(), phones.get())))
+          .as(snapshotReads::transactional);
+    });
+  }
+
+  /**
+   * Replaces USERS and PHONES with the snapshot read from {@code chunks}, in one transaction: nothing is deleted
+   * until the header and the first block have been read and verified, and a corrupt block further on fails the
+   * import (400) and rolls back to the previous store. Afterwards the user cache is emptied and the email and search
+   * indexes are rebuilt from the database in the background. Refused (409) whenever write-behind is configured, also
+   * before it has started, as when run from {@code SnapshotCommand}.
+   */
+  /**
+   * {@link #importSnapshot(Path)} of an uploaded snapshot. The body is first written to a temporary file and read
+   * through once, so a slow client holds no connection or lock, and a corrupt or truncated upload is refused (400)
+   * before anything is deleted. The file is removed afterwards, whatever the outcome.
+   */
+  public Mono<SnapshotSummary> importUpload(Flux<DataBuffer> upload) {
+    if (applicationProperties.isWriteBehindEnabled()) {
+      return Mono.error(new ApiException(WRITE_BEHIND_ENABLED, HttpStatus.CONFLICT));
+    }
+    return Mono.usingWhen(
+        Mono.fromCallable(() -> Files.createTempFile("users-", ".snapshot")).subscribeOn(Schedulers.boundedElastic()),
+        file -> DataBufferUtils.write(upload, file)
+            .then(verify(file))
+            .onErrorMap(InvalidSnapshotException.class, e -> new ApiException(e.getMessage()))
+            .then(importSnapshot(file)),
+        file -> Mono.fromRunnable(() -> delete(file)).subscribeOn(Schedulers.boundedElastic()));
+  }
+
+  /** {@link #importSnapshot(Flux)} of a snapshot file, read in 1 MB chunks. */
+  public Mono<SnapshotSummary> importSnapshot(Path file) {
+    return importSnapshot(read(file));
+  }
+
+  public Mono<SnapshotSummary> importSnapshot(Flux<ByteBuffer> chunks) {
+    if (applicationProperties.isWriteBehindEnabled()) {
+      return Mono.error(new ApiException(WRITE_BEHIND_ENABLED, HttpStatus.CONFLICT));
+    }
+    return Mono.defer(() -> {
+      long start = System.nanoTime();
+      var users = new AtomicLong();
+      var phones = new AtomicLong();
+      var replaced = new AtomicBoolean();
+      return UserSnapshot.read(chunks)
+          .switchOnFirst((first, blocks) -> first.hasValue()
+              ? phoneRepository.deleteAllRows()
+                  .then(userRepository.deleteAllRows())
+                  .doOnSuccess(unused -> replaced.set(true))
+                  .thenMany(blocks)
+              : blocks)
+          .concatMap(block -> insert(block, users, phones))
+          .then()
+          .as(snapshotWrites::transactional)
+          .then(Mono.fromSupplier(() -> SnapshotSummary.builder()
+              .users(users.get())
+              .phones(phones.get())
+              .elapsedMs((System.nanoTime() - start) / 1_000_000)
+              .build()))
+          .doOnNext(summary -> log.info("Snapshot imported: {} users and {} phones in {} ms",
+              summary.getUsers(), summary.getPhones(), summary.getElapsedMs()))
+          .onErrorMap(InvalidSnapshotException.class, e -> new ApiException(e.getMessage()))
+          // before the response is written, so a client that sees the summary no longer sees the old indexes
+          .doOnTerminate(() -> reload(replaced))
+          .doOnCancel(() -> reload(replaced));
+    });
+  }
+
+  // the same checks as the import, without the inserts
+  private static Mono<Void> verify(Path file) {
+    var users = new AtomicLong();
+    var phones = new AtomicLong();
+    return UserSnapshot.read(read(file))
+        .doOnNext(block -> {
+          switch (block) {
+            case Users(var entities) -> users.addAndGet(entities.size());
+            case Phones(var entities) -> phones.addAndGet(entities.size());
+            case End end -> {
+              if (end.users() != users.get() || end.phones() != phones.get()) {
+                throw new InvalidSnapshotException(COUNT_MISMATCH);
+              }
+            }
+          }
+        })
+        .then();
+  }
+
+  private static Flux<ByteBuffer> read(Path file) {
+    return Flux.using(
+        () -> FileChannel.open(file, StandardOpenOption.READ),
+        channel -> Flux.<ByteBuffer>generate(sink -> {
+          try {
+            var buffer = ByteBuffer.allocate(READ_CHUNK);
+            if (channel.read(buffer) < 0) {
+              sink.complete();
+            } else {
+              sink.next(buffer.flip());
+            }
+          } catch (IOException e) {
+            sink.error(e);
+          }
+        }),
+        channel -> {
+          try {
+            channel.close();
+          } catch (IOException e) {
+            log.warn("Error closing snapshot {}: {}", file, e.getMessage());
+          }
+        })
+        .subscribeOn(Schedulers.boundedElastic());
+  }
+
+  private static void delete(Path file) {
+    try {
+      Files.deleteIfExists(file);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  private void reload(AtomicBoolean replaced) {
+    if (replaced.getAndSet(false)) {
+      userResponseCache.invalidateAll();
+      emailIndex.invalidate();
+      userSearchIndex.clear();
+      // with H2 the scans run on the subscribing thread, which would hold the response until both indexes are rebuilt
+      Schedulers.boundedElastic().schedule(() -> {
+        emailIndex.load();
+        userSearchIndex.load();
+      });
+    }
+  }
+
+  private Mono<Void> insert(Block block, AtomicLong users, AtomicLong phones) {
+    return switch (block) {
+      case Users(var entities) -> userRepository.bulkInsert(entities)
+          .then(Mono.fromRunnable(() -> users.addAndGet(entities.size())));
+      case Phones(var entities) -> phoneRepository.bulkInsert(entities)
+          .then(Mono.fromRunnable(() -> phones.addAndGet(entities.size())));
+      case End end -> end.users() == users.get() && end.phones() == phones.get()
+          ? Mono.empty()
+          : Mono.error(new InvalidSnapshotException(COUNT_MISMATCH));
+    };
+  }
+}
@@ -0,0 +1,145 @@
+package com.evaluation.project.service.impl;
+
+import com.evaluation.project.config.ApplicationProperties;
+import com.evaluation.project.model.dto.Phone;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+@Component
+@Slf4j
+public class UserValidator {
+
+  // column sizes of USERS.NAME, PHONES.NUMBER and PHONES.CITY_CODE / COUNTRY_CODE: a write-behind user is
+  // acknowledged before it is inserted, so anything the table would reject has to be rejected here
+  static final int MAX_NAME_LENGTH = 255;
+  static final int MAX_PHONE_NUMBER_LENGTH = 20;
+  static final int MAX_PHONE_CODE_LENGTH = 10;
+
+  private final Pattern emailPattern;
+  private final Pattern passwordPattern;
+  private final ThreadLocal<Matcher> emailMatcher;
+  private final ThreadLocal<Matcher> passwordMatcher;
+  private final int maxEmailLength;
+  private final int maxPasswordLength;
+  private final long regexTimeoutNanos;
+
+  public UserValidator(ApplicationProperties applicationProperties) {
+    this.emailPattern = Pattern.compile(applicationProperties.getEmailRegex());
+    this.passwordPattern = Pattern.compile(applicationProperties.getPasswordRegex());
+    this.emailMatcher = ThreadLocal.withInitial(() -> emailPattern.matcher(""));
+    this.passwordMatcher = ThreadLocal.withInitial(() -> passwordPattern.matcher(""));
+    this.maxEmailLength = applicationProperties.getMaxEmailLength();
+    this.maxPasswordLength = applicationProperties.getMaxPasswordLength();
+    this.regexTimeoutNanos = applicationProperties.getRegexTimeout().toNanos();
+  }
+
+  public boolean isValidEmail(String email) {
+    if (email == null || email.length() < 3 || email.length() > maxEmailLength) {
+      return false;
+    }
+    int at = email.indexOf('@');
+    if (at <= 0 || at == email.length() - 1 || email.indexOf('@', at + 1) >= 0) {
+      return false;
+    }
+    for (int i = 0; i < email.length(); i++) {
+      char c = email.charAt(i);
+      if (c <= ' ' || c == 0x7f) {
+        return false;
+      }
+    }
+    return matches(emailMatcher.get(), email);
+  }
+
+  public boolean isValidPassword(String password) {
+    if (password == null || password.length() > maxPasswordLength) {
+      return false;
+    }
+    return matches(passwordMatcher.get(), password);
+  }
+
+  public boolean isValidName(String name) {
+    return name != null && name.length() <= MAX_NAME_LENGTH;
+  }
+
+  /** No phones is valid; every phone needs a number and both codes, within their column sizes. */
+  public boolean isValidPhones(List<Phone> phones) {
+    if (phones == null) {
+      return true;
+    }
+    for (Phone phone : phones) {
+      if (phone == null
+          || !fits(phone.getNumber(), MAX_PHONE_NUMBER_LENGTH)
+          || !fits(phone.getCityCode(), MAX_PHONE_CODE_LENGTH)
+          || !fits(phone.getCountryCode(), MAX_PHONE_CODE_LENGTH)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static boolean fits(String value, int maxLength) {
+    return value != null && value.length() <= maxLength;
+  }
+
+  private boolean matches(Matcher matcher, String input) {
+    try {
+      return matcher.reset(new DeadlineCharSequence(input, System.nanoTime() + regexTimeoutNanos)).matches();
+    } catch (RegexTimeoutException e) {
+      log.warn("Regex {} exceeded its time limit on input of length {}", matcher.pattern(), input.length());
+      return false;
+    } finally {
+      matcher.reset("");
+    }
+  }
+
+  private static final class RegexTimeoutException extends RuntimeException {
+    private RegexTimeoutException() {
+      super(null, null, false, false);
+    }
+  }
+
+  /**
+   * Lets a running match notice its deadline: the regex engine reads every character through
+   * {@link #charAt}, so the clock is checked every few hundred reads.
+   */
+  private static final class DeadlineCharSequence implements CharSequence {
+
+    private static final int CHECK_INTERVAL = 256;
+
+    private final String value;
+    private final long deadline;
+    private int reads;
+
+    private DeadlineCharSequence(String value, long deadline) {
+      this.value = value;
+      this.deadline = deadline;
+    }
+
+    @Override
+    public char charAt(int index) {
+      if (++reads % CHECK_INTERVAL == 0 && System.nanoTime() - deadline > 0) {
+        throw new RegexTimeoutException();
+      }
+      return value.charAt(index);
+    }
+
+    @Override
+    public int length() {
+      return value.length();
+    }
+
+    @Override
+    public CharSequence subSequence(int start, int end) {
+      return value.subSequence(start, end);
+    }
+
+    @Override
+    public String toString() {
+      return value;
+    }
+  }
+}
@@ -0,0 +1,329 @@
+package com.evaluation.project.service.impl;
+
+import com.evaluation.project.config.ApplicationProperties;
+import com.evaluation.project.model.dto.UserResponse;
+import com.evaluation.project.model.entity.PhoneEntity;
+import com.evaluation.project.model.entity.UserEntity;
+import com.evaluation.project.repository.PhoneRepository;
+import com.evaluation.project.repository.UserRepository;
+import com.evaluation.project.service.impl.WriteBehindJournal.UserRecord;
+import com.evaluation.project.util.ApiException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.Disposable;
+import reactor.core.Exceptions;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.FluxSink;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.evaluation.project.util.UserMapper.mapToUserResponse;
+import static com.evaluation.project.util.UserMapper.withoutToken;
+
+/**
+ * Opt-in write-behind persistence for {@code createUser} ({@code app.write-behind.enabled}). A new user is appended
+ * to a local {@link WriteBehindJournal} and acknowledged; a single writer drains the queue into USERS/PHONES in
+ * batches. Until its batch commits, a user is served from memory by {@link #find(UUID)} and its email stays reserved;
+ * an update or a login inserts it ahead of its batch with {@link #persistNow(UUID)}.
+ * Users left in the journal by a crash are replayed on startup. A user the database rejects is moved to a dead-letter
+ * journal rather than dropped; the users of a batch still failing after {@code app.write-behind.max-retries} are set
+ * aside, without counting against the capacity, and queued again every
+ * {@code app.write-behind.stranded-retry-interval}. Until they reach the database they stay in the journal and
+ * {@link WriteBehindHealthIndicator} is DOWN.
+ */
+@Component
+@Slf4j
+public class UserWriteBehind {
+
+    private final UserRepository userRepository;
+    private final PhoneRepository phoneRepository;
+    private final TransactionalOperator transactionalOperator;
+    private final EmailIndex emailIndex;
+    private final ApplicationProperties applicationProperties;
+    private final Map<UUID, Pending> pendingUsers = new ConcurrentHashMap<>();
+    private final Map<String, UUID> reservedEmails = new ConcurrentHashMap<>();
+    private final AtomicInteger queued = new AtomicInteger();
+    private final AtomicInteger stranded = new AtomicInteger();
+    private final Queue<UserRecord> strandedUsers = new ConcurrentLinkedQueue<>();
+    private final CountDownLatch drained = new CountDownLatch(1);
+    private final Counter deadLetters;
+    private WriteBehindJournal journal;
+    private WriteBehindJournal deadLetterJournal;
+    private volatile FluxSink<UserRecord> queue;
+    private volatile boolean accepting;
+    private Disposable writer;
+    private Disposable strandedRetries;
+
+    private record Pending(UserRecord userRecord, UserResponse userResponse) {
+    }
+
+    public UserWriteBehind(
+            UserRepository userRepository,
+            PhoneRepository phoneRepository,
+            TransactionalOperator transactionalOperator,
+            EmailIndex emailIndex,
+            ApplicationProperties applicationProperties,
+            MeterRegistry meterRegistry) {
+        this.userRepository = userRepository;
+        this.phoneRepository = phoneRepository;
+        this.transactionalOperator = transactionalOperator;
+        this.emailIndex = emailIndex;
+        this.applicationProperties = applicationProperties;
+        Gauge.builder("users.write_behind.pending", this, UserWriteBehind::pending)
+                .description("Users acknowledged but not yet persisted")
+                .register(meterRegistry);
+        Gauge.builder("users.write_behind.stranded", stranded, AtomicInteger::get)
+                .description("Users whose batch failed every retry, waiting to be queued again")
+                .register(meterRegistry);
+        this.deadLetters = Counter.builder("users.write_behind.dead_letters")
+                .description("Acknowledged users the database rejected, moved to the dead-letter journal")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() throws IOException {
+        if (!applicationProperties.isWriteBehindEnabled()) {
+            return;
+        }
+        var path = Path.of(applicationProperties.getWriteBehindJournal());
+        journal = new WriteBehindJournal(path, applicationProperties.isWriteBehindFsync());
+        var replayed = journal.open();
+        var deadLetterPath = Path.of(applicationProperties.getWriteBehindDeadLetterJournal());
+        deadLetterJournal = new WriteBehindJournal(deadLetterPath, true);
+        var deadLettered = deadLetterJournal.open();
+        if (!deadLettered.isEmpty()) {
+            log.warn("{} write-behind users rejected by the database are waiting in {}",
+                    deadLettered.size(), deadLetterPath.toAbsolutePath());
+        }
+        writer = Flux.<UserRecord>create(sink -> queue = sink)
+                .bufferTimeout(
+                        applicationProperties.getWriteBehindBatchSize(),
+                        applicationProperties.getWriteBehindFlushInterval(),
+                        true)
+                .concatMap(this::persist)
+                .doFinally(signal -> drained.countDown())
+                .subscribe();
+        var retryInterval = applicationProperties.getWriteBehindStrandedRetryInterval();
+        strandedRetries = Flux.interval(retryInterval, retryInterval).subscribe(tick -> requeueStranded());
+        replayed.forEach(userRecord -> {
+            track(userRecord);
+            queue.next(userRecord);
+        });
+        accepting = true;
+        log.info("Write-behind enabled with journal {}, {} users replayed", path.toAbsolutePath(), replayed.size());
+    }
+
+    public boolean isEnabled() {
+        return accepting;
+    }
+
+    /** The user if it was acknowledged but has not reached the database yet. */
+    public UserResponse find(UUID uuid) {
+        var pending = pendingUsers.get(uuid);
+        return pending == null ? null : pending.userResponse();
+    }
+
+    /**
+     * Inserts a pending user ahead of its batch, so that it can be updated in the database, and stops serving it
+     * from memory. Completes at once for a user that is not pending. When its batch comes, the row is already there
+     * and the batch skips it as it does after a crash.
+     */
+    public Mono<Void> persistNow(UUID uuid) {
+        return Mono.defer(() -> {
+            var pending = pendingUsers.get(uuid);
+            if (pending == null) {
+                return Mono.empty();
+            }
+            return insert(List.of(pending.userRecord()))
+                    .thenReturn(true)
+                    // the writer inserted it first, or the database rejects it and the batch will dead-letter it
+                    .onErrorResume(DataIntegrityViolationException.class, violation -> userRepository.existsById(uuid))
+                    .doOnNext(persisted -> {
+                        if (persisted) {
+                            pendingUsers.remove(uuid, pending);
+                        }
+                    })
+                    .then();
+        });
+    }
+
+    public boolean isReserved(String email) {
+        return reservedEmails.containsKey(email);
+    }
+
+    int pending() {
+        return queued.get() + stranded.get();
+    }
+
+    int stranded() {
+        return stranded.get();
+    }
+
+    /**
+     * Reserves the email, journals the user and queues it for the writer. Completes empty, without side effects,
+     * when the queue is at capacity so the caller can fall back to a synchronous insert.
+     */
+    public Mono<UserResponse> submit(UserEntity userEntity, List<PhoneEntity> phoneEntities) {
+        return Mono.defer(() -> {
+            if (queued.incrementAndGet() > applicationProperties.getWriteBehindCapacity()) {
+                queued.decrementAndGet();
+                return Mono.empty();
+            }
+            var userRecord = new UserRecord(userEntity, phoneEntities);
+            if (reservedEmails.putIfAbsent(userEntity.getEmail(), userEntity.getUuid()) != null) {
+                queued.decrementAndGet();
+                return Mono.error(new ApiException(UserServiceImpl.EMAIL_IN_USE));
+            }
+            var userResponse = mapToUserResponse(userEntity, phoneEntities);
+            pendingUsers.put(userEntity.getUuid(), new Pending(userRecord, withoutToken(userResponse)));
+            return journal.append(userRecord)
+                    .doOnSuccess(unused -> {
+                        emailIndex.put(userEntity.getEmail());
+                        queue.next(userRecord);
+                    })
+                    .doOnError(throwable -> {
+                        log.error("Error journaling user {}: {}", userEntity.getUuid(), throwable.getMessage());
+                        release(userRecord);
+                    })
+                    .thenReturn(userResponse);
+        });
+    }
+
+    /** Stops accepting users and waits up to the shutdown timeout for the queue to reach the database. */
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        if (!accepting) {
+            return;
+        }
+        accepting = false;
+        strandedRetries.dispose();
+        queue.complete();
+        if (!drained.await(applicationProperties.getWriteBehindShutdownTimeout().toMillis(), TimeUnit.MILLISECONDS)) {
+            log.warn("{} write-behind users not persisted before shutdown, they will be replayed on restart", queued.get());
+            writer.dispose();
+        }
+        journal.close();
+        deadLetterJournal.close();
+    }
+
+    private void track(UserRecord userRecord) {
+        var user = userRecord.user();
+        queued.incrementAndGet();
+        reservedEmails.put(user.getEmail(), user.getUuid());
+        pendingUsers.put(user.getUuid(), new Pending(userRecord, withoutToken(mapToUserResponse(user, userRecord.phones()))));
+        emailIndex.put(user.getEmail());
+    }
+
+    private void release(UserRecord userRecord) {
+        var user = userRecord.user();
+        pendingUsers.remove(user.getUuid());
+        reservedEmails.remove(user.getEmail(), user.getUuid());
+        queued.decrementAndGet();
+    }
+
+    private Mono<Void> persist(List<UserRecord> batch) {
+        return Mono.defer(() -> {
+            var rejected = new LinkedHashMap<UUID, UserRecord>();
+            return
+                    insert(batch)
+                    .onErrorResume(DataIntegrityViolationException.class, throwable -> Flux.fromIterable(batch)
+                            .concatMap(userRecord -> insert(List.of(userRecord))
+                                    .onErrorResume(DataIntegrityViolationException.class, violation ->
+                                            reject(userRecord, violation, rejected)))
+                            .then())
+                    .retryWhen(Retry.backoff(applicationProperties.getWriteBehindMaxRetries(), Duration.ofMillis(100))
+                            .maxBackoff(Duration.ofSeconds(5))
+                            .doBeforeRetry(signal -> log.warn("Retrying write-behind batch of {} users: {}",
+                                    batch.size(), signal.failure().getMessage())))
+                    .then(Mono.defer(() -> deadLetter(rejected.values())))
+                    .then(Mono.defer(() -> journalCommit(batch)))
+                    .doOnSuccess(unused -> batch.forEach(this::release))
+                    .onErrorResume(throwable -> {
+                        strand(batch, Exceptions.isRetryExhausted(throwable) ? throwable.getCause() : throwable);
+                        return Mono.empty();
+                    })
+                    .then(Mono.defer(() -> journal.truncateIf(pendingUsers::isEmpty)))
+                    .onErrorResume(throwable -> {
+                        log.error("Error updating write-behind journal: {}", throwable.getMessage());
+                        return Mono.empty();
+                    });
+        });
+    }
+
+    // a user already in USERS was inserted before a crash and is done; any other violation (an email taken by a
+    // batch insert meanwhile) would fail on every retry, so the user goes to the dead-letter journal
+    private Mono<Void> reject(UserRecord userRecord, DataIntegrityViolationException violation, Map<UUID, UserRecord> rejected) {
+        var uuid = userRecord.user().getUuid();
+        return userRepository.existsById(uuid)
+                .doOnNext(exists -> {
+                    if (!exists) {
+                        log.error("Write-behind user {} rejected by the database: {}", uuid, violation.getMessage());
+                        rejected.put(uuid, userRecord);
+                    }
+                })
+                .then();
+    }
+
+    private Mono<Void> deadLetter(Collection<UserRecord> rejected) {
+        return Flux.fromIterable(rejected)
+                .concatMap(deadLetterJournal::append)
+                .then(Mono.fromRunnable(() -> deadLetters.increment(rejected.size())));
+    }
+
+    // the users stay pending and in the journal, so they are still served, queued again by requeueStranded and
+    // replayed on the next startup if the database is still failing then; they no longer take queue capacity
+    private void strand(List<UserRecord> batch, Throwable cause) {
+        stranded.addAndGet(batch.size());
+        queued.addAndGet(-batch.size());
+        strandedUsers.addAll(batch);
+        log.error("Giving up on write-behind batch of {} users, queued again in {}: {}",
+                batch.size(), applicationProperties.getWriteBehindStrandedRetryInterval(), cause.getMessage());
+    }
+
+    private void requeueStranded() {
+        UserRecord userRecord;
+        while (accepting && (userRecord = strandedUsers.poll()) != null) {
+            stranded.decrementAndGet();
+            queued.incrementAndGet();
+            queue.next(userRecord);
+        }
+    }
+
+    private Mono<Void> journalCommit(List<UserRecord> batch) {
+        return journal.commit(batch.stream().map(userRecord -> userRecord.user().getUuid()).toList())
+                .onErrorResume(throwable -> {
+                    // the rows are in the database; a replay would only hit duplicate keys and skip them
+                    log.error("Error recording write-behind commit: {}", throwable.getMessage());
+                    return Mono.empty();
+                });
+    }
+
+    private Mono<Void> insert(List<UserRecord> batch) {
+        return transactionalOperator.transactional(Mono.defer(() ->
+                userRepository.insertAll(batch.stream().map(UserRecord::user).toList())
+                .then(phoneRepository.insertAll(batch.stream().flatMap(userRecord -> userRecord.phones().stream()).toList()))));
+    }
+}
@@ -0,0 +1,23 @@
+package com.evaluation.project.service.impl;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.stereotype.Component;
+
+/** DOWN while users of a write-behind batch that gave up on the database wait to be queued again. */
+@Component("writeBehind")
+@RequiredArgsConstructor
+public class WriteBehindHealthIndicator implements HealthIndicator {
+
+  private final UserWriteBehind userWriteBehind;
+
+  @Override
+  public Health health() {
+    var health = userWriteBehind.stranded() > 0 ? Health.down() : Health.up();
+    return health
+        .withDetail("pending", userWriteBehind.pending())
+        .withDetail("stranded", userWriteBehind.stranded())
+        .build();
+  }
+}
@@ -0,0 +1,349 @@
+package com.evaluation.project.service.impl;
+
+import com.evaluation.project.model.entity.PhoneEntity;
+import com.evaluation.project.model.entity.UserEntity;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+import java.util.zip.CRC32C;
+
+/**
+ * Append-only file journal behind {@link UserWriteBehind}. Every record is framed as
+ * {@code [length][crc32c][type][payload]}; a {@code USER} record holds a user and its phones, a {@code COMMIT} record
+ * the UUIDs that reached the database. Appends are group-committed: whatever is queued when the single journal
+ * thread wakes up is written with one gathering write and one {@code force}, so concurrent requests share the fsync.
+ * The returned monos complete on the parallel scheduler, so that thread only does file I/O.
+ */
+@Slf4j
+final class WriteBehindJournal implements AutoCloseable {
+
+    private static final byte USER = 1;
+    private static final byte COMMIT = 2;
+    private static final int HEADER_BYTES = Integer.BYTES * 2;
+
+    record UserRecord(UserEntity user, List<PhoneEntity> phones) {
+    }
+
+    private record Task(ByteBuffer record, BooleanSupplier truncateIf, MonoSink<Void> sink) {
+    }
+
+    private final Path path;
+    private final boolean fsync;
+    private final Scheduler worker;
+    private final Queue<Task> tasks = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger wip = new AtomicInteger();
+    private FileChannel channel;
+
+    WriteBehindJournal(Path path, boolean fsync) {
+        this.path = path;
+        this.fsync = fsync;
+        // file I/O blocks, so the journal gets its own single blocking-capable thread
+        this.worker = Schedulers.newBoundedElastic(1, Integer.MAX_VALUE, "write-behind-journal");
+    }
+
+    /**
+     * Reads the journal, returns the users without a commit record in append order and rewrites the file so it only
+     * holds those users. A torn or corrupt tail (crash mid-write) ends the replay. Must run before any append.
+     */
+    List<UserRecord> open() throws IOException {
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        var pending = new LinkedHashMap<UUID, UserRecord>();
+        if (Files.exists(path)) {
+            try (var input = new DataInputStream(Files.newInputStream(path))) {
+                readRecords(input, pending);
+            }
+        }
+        var compacted = path.resolveSibling(path.getFileName() + ".tmp");
+        try (var output = FileChannel.open(compacted,
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            for (var userRecord : pending.values()) {
+                writeFully(output, new ByteBuffer[]{user(userRecord)});
+            }
+            output.force(true);
+        }
+        Files.move(compacted, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        channel = FileChannel.open(path, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        return List.copyOf(pending.values());
+    }
+
+    /** Completes once the user is on disk (forced to the device when fsync is enabled). */
+    Mono<Void> append(UserRecord userRecord) {
+        return Mono.defer(() -> submit(user(userRecord), null));
+    }
+
+    Mono<Void> commit(List<UUID> uuids) {
+        return Mono.defer(() -> submit(commitRecord(uuids), null));
+    }
+
+    /**
+     * Empties the file if {@code condition} still holds once every earlier append has been written. Called with "no
+     * pending users", it keeps the journal from growing while the writer keeps up.
+     */
+    Mono<Void> truncateIf(BooleanSupplier condition) {
+        return submit(null, condition);
+    }
+
+    @Override
+    public void close() {
+        worker.dispose();
+        if (channel != null) {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                log.warn("Error closing write-behind journal {}: {}", path, e.getMessage());
+            }
+        }
+    }
+
+    // completed inline, every caller's continuation would run on the journal thread, one after another, and hold
+    // back the next group commit
+    private Mono<Void> submit(ByteBuffer record, BooleanSupplier truncateIf) {
+        return Mono.<Void>create(sink -> {
+            tasks.offer(new Task(record, truncateIf, sink));
+            if (wip.getAndIncrement() == 0) {
+                worker.schedule(this::drain);
+            }
+        }).publishOn(Schedulers.parallel());
+    }
+
+    private void drain() {
+        int missed = 1;
+        var batch = new ArrayList<Task>();
+        do {
+            Task task;
+            while ((task = tasks.poll()) != null) {
+                if (task.record() != null) {
+                    batch.add(task);
+                    continue;
+                }
+                flush(batch);
+                truncate(task);
+            }
+            flush(batch);
+            missed = wip.addAndGet(-missed);
+        } while (missed != 0);
+    }
+
+    private void flush(List<Task> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        try {
+            writeFully(channel, batch.stream().map(Task::record).toArray(ByteBuffer[]::new));
+            if (fsync) {
+                channel.force(false);
+            }
+            batch.forEach(task -> task.sink().success());
+        } catch (IOException | RuntimeException e) {
+            batch.forEach(task -> task.sink().error(e));
+        }
+        batch.clear();
+    }
+
+    private void truncate(Task task) {
+        try {
+            if (task.truncateIf().getAsBoolean()) {
+                channel.truncate(0);
+            }
+            task.sink().success();
+        } catch (IOException | RuntimeException e) {
+            task.sink().error(e);
+        }
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer[] buffers) throws IOException {
+        long remaining = 0;
+        for (var buffer : buffers) {
+            remaining += buffer.remaining();
+        }
+        while (remaining > 0) {
+            remaining -= channel.write(buffers);
+        }
+    }
+
+    private void readRecords(DataInputStream input, LinkedHashMap<UUID, UserRecord> pending) throws IOException {
+        var committed = new HashSet<UUID>();
+        var crc = new CRC32C();
+        while (true) {
+            int length;
+            int checksum;
+            byte[] payload;
+            try {
+                length = input.readInt();
+                checksum = input.readInt();
+                if (length <= 0 || length > 16 * 1024 * 1024) {
+                    log.warn("Write-behind journal {} has a corrupt record header, ignoring the rest", path);
+                    break;
+                }
+                payload = input.readNBytes(length);
+            } catch (EOFException e) {
+                break;
+            }
+            crc.reset();
+            crc.update(payload);
+            if (payload.length < length || (int) crc.getValue() != checksum) {
+                log.warn("Write-behind journal {} ends with a torn record, ignoring it", path);
+                break;
+            }
+            var record = new DataInputStream(new ByteArrayInputStream(payload));
+            switch (record.readByte()) {
+                case USER -> {
+                    var userRecord = readUser(record);
+                    pending.put(userRecord.user().getUuid(), userRecord);
+                }
+                case COMMIT -> readUuids(record, committed);
+                default -> throw new IOException("Unknown record type in write-behind journal " + path);
+            }
+        }
+        pending.keySet().removeAll(committed);
+    }
+
+    static ByteBuffer user(UserRecord userRecord) {
+        return frame(output -> {
+            var user = userRecord.user();
+            output.writeByte(USER);
+            writeUuid(output, user.getUuid());
+            writeString(output, user.getName());
+            writeString(output, user.getEmail());
+            writeString(output, user.getPassword());
+            writeDateTime(output, user.getCreatedAt());
+            writeDateTime(output, user.getModifiedAt());
+            writeDateTime(output, user.getLastLogin());
+            writeString(output, user.getToken());
+            output.writeBoolean(user.isActive());
+            output.writeShort(userRecord.phones().size());
+            for (var phone : userRecord.phones()) {
+                writeString(output, phone.getNumber());
+                writeString(output, phone.getCityCode());
+                writeString(output, phone.getCountryCode());
+            }
+        });
+    }
+
+    static ByteBuffer commitRecord(List<UUID> uuids) {
+        return frame(output -> {
+            output.writeByte(COMMIT);
+            output.writeInt(uuids.size());
+            for (var uuid : uuids) {
+                writeUuid(output, uuid);
+            }
+        });
+    }
+
+    private static UserRecord readUser(DataInputStream input) throws IOException {
+        var user = UserEntity.builder()
+                .uuid(readUuid(input))
+                .name(readString(input))
+                .email(readString(input))
+                .password(readString(input))
+                .createdAt(readDateTime(input))
+                .modifiedAt(readDateTime(input))
+                .lastLogin(readDateTime(input))
+                .token(readString(input))
+                .isActive(input.readBoolean())
+                .build();
+        int phoneCount = input.readShort();
+        var phones = new ArrayList<PhoneEntity>(phoneCount);
+        for (int i = 0; i < phoneCount; i++) {
+            phones.add(PhoneEntity.builder()
+                    .uuid(user.getUuid())
+                    .number(readString(input))
+                    .cityCode(readString(input))
+                    .countryCode(readString(input))
+                    .build());
+        }
+        return new UserRecord(user, phones);
+    }
+
+    private static void readUuids(DataInputStream input, Set<UUID> uuids) throws IOException {
+        int count = input.readInt();
+        for (int i = 0; i < count; i++) {
+            uuids.add(readUuid(input));
+        }
+    }
+
+    private interface RecordWriter {
+        void write(DataOutputStream output) throws IOException;
+    }
+
+    private static ByteBuffer frame(RecordWriter writer) {
+        var bytes = new ByteArrayOutputStream(256);
+        try (var output = new DataOutputStream(bytes)) {
+            output.writeInt(0);
+            output.writeInt(0);
+            writer.write(output);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        var buffer = ByteBuffer.wrap(bytes.toByteArray());
+        var crc = new CRC32C();
+        crc.update(buffer.array(), HEADER_BYTES, buffer.limit() - HEADER_BYTES);
+        buffer.putInt(0, buffer.limit() - HEADER_BYTES);
+        buffer.putInt(Integer.BYTES, (int) crc.getValue());
+        return buffer;
+    }
+
+    private static void writeUuid(DataOutputStream output, UUID uuid) throws IOException {
+        output.writeLong(uuid.getMostSignificantBits());
+        output.writeLong(uuid.getLeastSignificantBits());
+    }
+
+    private static UUID readUuid(DataInputStream input) throws IOException {
+        return new UUID(input.readLong(), input.readLong());
+    }
+
+    private static void writeString(DataOutputStream output, String value) throws IOException {
+        output.writeBoolean(value != null);
+        if (value != null) {
+            output.writeUTF(value);
+        }
+    }
+
+    private static String readString(DataInputStream input) throws IOException {
+        return input.readBoolean() ? input.readUTF() : null;
+    }
+
+    private static void writeDateTime(DataOutputStream output, LocalDateTime value) throws IOException {
+        output.writeBoolean(value != null);
+        if (value != null) {
+            output.writeLong(value.toEpochSecond(ZoneOffset.UTC));
+            output.writeInt(value.getNano());
+        }
+    }
+
+    private static LocalDateTime readDateTime(DataInputStream input) throws IOException {
+        return input.readBoolean()
+                ? LocalDateTime.ofEpochSecond(input.readLong(), input.readInt(), ZoneOffset.UTC)
+                : null;
+    }
+}
@@ -0,0 +1,108 @@
+package com.evaluation.project.util;
+
+import com.evaluation.project.model.dto.Phone;
+import com.evaluation.project.model.dto.UserField;
+import com.evaluation.project.model.dto.UserRequest;
+import com.evaluation.project.model.dto.UserResponse;
+import com.evaluation.project.model.entity.PhoneEntity;
+import com.evaluation.project.model.entity.UserEntity;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+public final class UserMapper {
+
+  private UserMapper() {
+  }
+
+  public static UserResponse mapToUserResponse(
+          UserEntity userEntity,
+          List<PhoneEntity> phoneEntities) {
+    return UserResponse.builder()
+            .uuid(userEntity.getUuid().toString())
+            .userInformation(mapToUserRequest(userEntity, phoneEntities))
+            .created(userEntity.getCreatedAt())
+            .modified(userEntity.getModifiedAt())
+            .lastLogin(userEntity.getLastLogin())
+            .token(userEntity.getToken())
+            .isActive(userEntity.isActive())
+            .version(userEntity.getVersion())
+            .build();
+  }
+
+  public static UserRequest mapToUserRequest(
+          UserEntity userEntity,
+          List<PhoneEntity> phoneEntities){
+    return UserRequest.builder()
+      .name(userEntity.getName())
+      .email(userEntity.getEmail())
+      .phones(phoneEntities.stream()
+              .map(UserMapper::mapToPhone)
+              .toList())
+      .build();
+  }
+
+  /** {@code userResponse} as it may be cached and read by anyone: without the token issued to its creator. */
+  public static UserResponse withoutToken(UserResponse userResponse) {
+    return userResponse.getToken() == null ? userResponse : userResponse.toBuilder().token(null).build();
+  }
+
+  /** The JSON shape of {@code userResponse} restricted to {@code fields}, keeping nulls of the selected fields. */
+  public static Map<String, Object> project(UserResponse userResponse, Set<UserField> fields) {
+    var projection = new LinkedHashMap<String, Object>();
+    var userInformation = userResponse.getUserInformation();
+    Map<String, Object> information = null;
+    for (UserField field : fields) {
+      if (field.isUserInformation()) {
+        if (information == null) {
+          information = new LinkedHashMap<>();
+          projection.put("userInformation", information);
+        }
+        information.put(field.property(), switch (field) {
+          case NAME -> userInformation.getName();
+          case EMAIL -> userInformation.getEmail();
+          case PHONES -> userInformation.getPhones();
+          default -> throw new IllegalArgumentException(field.name());
+        });
+        continue;
+      }
+      projection.put(field.property(), switch (field) {
+        case UUID -> userResponse.getUuid();
+        case CREATED -> userResponse.getCreated();
+        case MODIFIED -> userResponse.getModified();
+        case LAST_LOGIN -> userResponse.getLastLogin();
+        case IS_ACTIVE -> userResponse.getIsActive();
+        case VERSION -> userResponse.getVersion();
+        default -> throw new IllegalArgumentException(field.name());
+      });
+    }
+    return projection;
+  }
+
+  public static Phone mapToPhone(PhoneEntity phoneEntity) {
+    return Phone.builder()
+      .number(phoneEntity.getNumber())
+      .cityCode(phoneEntity.getCityCode())
+      .countryCode(phoneEntity.getCountryCode())
+      .build();
+  }
+
+  public static List<PhoneEntity> mapToPhoneEntities(List<Phone> phones, UUID uuid) {
+    if (phones == null) {
+      return List.of();
+    }
+    return
+            phones.stream()
+            .map(phone ->
+                    PhoneEntity.builder()
+                            .uuid(uuid)
+                            .number(phone.getNumber())
+                            .cityCode(phone.getCityCode())
+                            .countryCode(phone.getCountryCode())
+                            .build())
+            .toList();
+  }
+}
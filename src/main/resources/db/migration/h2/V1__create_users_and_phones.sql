@@ -1,4 +1,4 @@
--- Crear una tabla
+-- Esquema inicial (tal como lo creaba scripts/h2/schema.sql)
 CREATE TABLE "USERS" (
     "UUID" UUID DEFAULT RANDOM_UUID() PRIMARY KEY,
     "NAME" VARCHAR(255) NOT NULL,
@@ -17,5 +17,5 @@ CREATE TABLE "PHONES" (
     "NUMBER" VARCHAR(20) NOT NULL,
     "CITY_CODE" VARCHAR(10) NOT NULL,
     "COUNTRY_CODE" VARCHAR(10) NOT NULL,
-    FOREIGN KEY ("UUID") REFERENCES "USERS"("UUID")
-);
\ No newline at end of file
+    CONSTRAINT "FK_PHONES_USERS" FOREIGN KEY ("UUID") REFERENCES "USERS"("UUID")
+);
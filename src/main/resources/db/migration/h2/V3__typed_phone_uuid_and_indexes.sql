@@ -0,0 +1,8 @@
+-- PHONES.UUID pasa a UUID nativo (antes VARCHAR: cada búsqueda convertía y comparaba cadenas)
+ALTER TABLE "PHONES" DROP CONSTRAINT "FK_PHONES_USERS";
+ALTER TABLE "PHONES" ALTER COLUMN "UUID" SET DATA TYPE UUID;
+ALTER TABLE "PHONES" ALTER COLUMN "UUID" SET NOT NULL;
+ALTER TABLE "PHONES" ADD CONSTRAINT "FK_PHONES_USERS" FOREIGN KEY ("UUID") REFERENCES "USERS"("UUID");
+
+CREATE INDEX "IX_PHONES_UUID" ON "PHONES"("UUID");
+CREATE UNIQUE INDEX IF NOT EXISTS "UX_USERS_EMAIL" ON "USERS"("EMAIL");
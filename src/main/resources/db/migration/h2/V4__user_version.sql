@@ -0,0 +1,2 @@
+-- Versión para el control de concurrencia optimista de PATCH /users/id/{uuid}
+ALTER TABLE "USERS" ADD COLUMN "VERSION" BIGINT DEFAULT 0 NOT NULL;
@@ -0,0 +1,3 @@
+-- Los usuarios con login más reciente se leen al arrancar para precargar la caché (app.cache.users.warm-up-size);
+-- sin índice, ORDER BY LAST_LOGIN DESC LIMIT n recorre y ordena toda la tabla
+CREATE INDEX "IX_USERS_LAST_LOGIN" ON "USERS"("LAST_LOGIN");
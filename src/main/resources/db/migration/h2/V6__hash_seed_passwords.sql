@@ -0,0 +1,9 @@
+-- V2 sembró las contraseñas en texto plano, que el login (PBKDF2) nunca acepta; se reemplazan por su hash
+-- en el formato de PasswordHasher. Solo si siguen en texto plano, para no pisar una contraseña ya cambiada
+UPDATE "USERS"
+SET "PASSWORD" = 'pbkdf2-sha512$210000$CiqeQeDLp+6lifGD03K5Yg$L+8prYP/1kwA6nGtxq5l004BX+haj4bqKSJNxlO7XOo'
+WHERE "UUID" = '11111111-1111-1111-1111-111111111111' AND "PASSWORD" = 'pass123';
+
+UPDATE "USERS"
+SET "PASSWORD" = 'pbkdf2-sha512$210000$oyMUYFn43hkKr4iWbnF9SQ$/3ztWAUdK66J40vnCqZ9Jn14El6bRZzfdIScqXLiwM8'
+WHERE "UUID" = '22222222-2222-2222-2222-222222222222' AND "PASSWORD" = 'pass456';
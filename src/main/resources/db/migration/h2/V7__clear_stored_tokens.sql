@@ -0,0 +1,3 @@
+-- El token se devuelve solo al crear el usuario y al iniciar sesión; guardado en USERS cualquier lectura lo exponía
+-- y con él se podía modificar al usuario. Ya no se escribe, y los guardados hasta ahora se borran
+UPDATE "USERS" SET "TOKEN" = NULL WHERE "TOKEN" IS NOT NULL;
@@ -0,0 +1,21 @@
+-- En PostgreSQL la clave foránea exige tipos compatibles, así que PHONES.UUID nace como UUID
+CREATE TABLE users (
+    uuid UUID DEFAULT gen_random_uuid() PRIMARY KEY,
+    name VARCHAR(255) NOT NULL,
+    email VARCHAR(255) NOT NULL,
+    password VARCHAR(255) NOT NULL,
+    created_at TIMESTAMP,
+    modified_at TIMESTAMP,
+    last_login TIMESTAMP,
+    token VARCHAR(255),
+    is_active BOOLEAN DEFAULT TRUE
+);
+
+CREATE TABLE phones (
+    phone_id INTEGER GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    uuid UUID NOT NULL,
+    number VARCHAR(20) NOT NULL,
+    city_code VARCHAR(10) NOT NULL,
+    country_code VARCHAR(10) NOT NULL,
+    CONSTRAINT fk_phones_users FOREIGN KEY (uuid) REFERENCES users (uuid)
+);
@@ -0,0 +1,2 @@
+CREATE INDEX ix_phones_uuid ON phones (uuid);
+CREATE UNIQUE INDEX IF NOT EXISTS ux_users_email ON users (email);
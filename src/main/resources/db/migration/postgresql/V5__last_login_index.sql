@@ -0,0 +1 @@
+CREATE INDEX ix_users_last_login ON users (last_login);
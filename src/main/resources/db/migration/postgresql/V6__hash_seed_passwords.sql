@@ -0,0 +1,9 @@
+-- Igual que en H2: los usuarios sembrados con contraseña en texto plano pasan al hash PBKDF2 de PasswordHasher.
+-- Este conjunto no siembra usuarios, así que solo cambia una base cargada con los datos de V2
+UPDATE users
+SET password = 'pbkdf2-sha512$210000$CiqeQeDLp+6lifGD03K5Yg$L+8prYP/1kwA6nGtxq5l004BX+haj4bqKSJNxlO7XOo'
+WHERE uuid = '11111111-1111-1111-1111-111111111111' AND password = 'pass123';
+
+UPDATE users
+SET password = 'pbkdf2-sha512$210000$oyMUYFn43hkKr4iWbnF9SQ$/3ztWAUdK66J40vnCqZ9Jn14El6bRZzfdIScqXLiwM8'
+WHERE uuid = '22222222-2222-2222-2222-222222222222' AND password = 'pass456';
@@ -0,0 +1,2 @@
+-- Igual que en H2: el token ya no se guarda en USERS y los guardados hasta ahora se borran
+UPDATE users SET token = NULL WHERE token IS NOT NULL;
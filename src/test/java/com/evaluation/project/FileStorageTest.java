@@ -0,0 +1,75 @@
+package com.evaluation.project;
+
+import com.evaluation.project.model.dto.Phone;
+import com.evaluation.project.model.dto.UserField;
+import com.evaluation.project.model.dto.UserRequest;
+import com.evaluation.project.model.dto.UserResponse;
+import com.evaluation.project.repository.UserRepository;
+import com.evaluation.project.service.impl.UserCacheWarmer;
+import com.evaluation.project.service.impl.UserResponseCache;
+import com.evaluation.project.service.impl.UserSearchIndex;
+import com.evaluation.project.service.impl.UserServiceImpl;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import reactor.core.publisher.Flux;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FileStorageTest {
+
+  @TempDir
+  private Path directory;
+
+  private ConfigurableApplicationContext start() {
+    var context = new SpringApplicationBuilder(CreateUserApplication.class)
+      .web(WebApplicationType.NONE)
+      .profiles("file")
+      // arguments, so they take precedence over application-file.yml
+      .run(
+        "--app.datasource.url=r2dbc:h2:file:///" + directory.resolve("users")
+          + "?options=DB_CLOSE_ON_EXIT=FALSE;USER=sa;PASSWORD=",
+        "--app.password.iterations=1000",
+        "--app.write-behind.journal=" + directory.resolve("users-write-behind.journal"));
+    var searchIndex = context.getBean(UserSearchIndex.class);
+    var cacheWarmer = context.getBean(UserCacheWarmer.class);
+    Flux.interval(Duration.ofMillis(10))
+      .filter(tick -> searchIndex.isReady() && cacheWarmer.isDone())
+      .blockFirst(Duration.ofSeconds(10));
+    return context;
+  }
+
+  @Test
+  void restart_keepsUsersAndWarmsUpFromDisk() {
+    UserResponse created;
+    try (var context = start()) {
+      created = context.getBean(UserServiceImpl.class)
+        .createUser(UserRequest.builder()
+          .name("Julio Disco")
+          .email("julio.disco@example.com")
+          .password("Passw0rd!")
+          .phones(List.of(Phone.builder().number("987654321").cityCode("1").countryCode("51").build()))
+          .build())
+        .block();
+    }
+    assertThat(Files.exists(directory.resolve("users.mv.db"))).isTrue();
+
+    try (var context = start()) {
+      var uuid = UUID.fromString(created.getUuid());
+      assertThat(context.getBean(UserRepository.class).findUser(uuid, UserField.ALL).block())
+        .extracting(user -> user.getUserInformation().getEmail())
+        .isEqualTo("julio.disco@example.com");
+      assertThat(context.getBean(UserResponseCache.class).peek(uuid)).isNotNull();
+      assertThat(context.getBean(UserSearchIndex.class).search(new UserSearchIndex.Query("disco", null, null, null), null, 10))
+        .containsExactly(uuid);
+    }
+  }
+}
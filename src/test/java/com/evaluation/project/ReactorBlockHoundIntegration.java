@@ -0,0 +1,13 @@
+package com.evaluation.project;
+
+import reactor.blockhound.BlockHound;
+import reactor.blockhound.integration.BlockHoundIntegration;
+
+public class ReactorBlockHoundIntegration implements BlockHoundIntegration {
+  
+  @Override
+  public void applyTo(BlockHound.Builder builder) {
+    // UUID.randomUUID() reads buffered bytes from /dev/urandom, which never blocks
+    builder.allowBlockingCallsInside("sun.security.provider.NativePRNG$RandomIO", "implNextBytes");
+  }
+}
@@ -0,0 +1,540 @@
+package com.evaluation.project;
+
+import com.evaluation.project.controller.UserController;
+import com.evaluation.project.model.dto.BatchUserResult;
+import com.evaluation.project.model.dto.Phone;
+import com.evaluation.project.model.dto.UserField;
+import com.evaluation.project.model.dto.UserRequest;
+import com.evaluation.project.model.dto.UserResponse;
+import com.evaluation.project.repository.UserRepository;
+import com.evaluation.project.service.impl.JwtService;
+import com.evaluation.project.service.impl.LastLoginRecorder;
+import com.evaluation.project.service.impl.UserSearchIndex;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+@SpringBootTest(
+  webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+  properties = {
+    "app.datasource.url=r2dbc:h2:mem:///usersapi?options=DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE;USER=sa;PASSWORD=",
+    "app.password.iterations=1000"})
+class UserApiIntegrationTest {
+  
+  @Autowired
+  private WebTestClient webTestClient;
+  
+  @Autowired
+  private JwtService jwtService;
+  
+  @Autowired
+  private UserRepository userRepository;
+  
+  @Autowired
+  private LastLoginRecorder lastLoginRecorder;
+  
+  @Autowired
+  private UserSearchIndex userSearchIndex;
+  
+  @LocalServerPort
+  private int port;
+  
+  private UserRequest userRequest(String email) {
+    return UserRequest.builder()
+      .name("Julio Puma")
+      .email(email)
+      .password("Passw0rd!")
+      .phones(List.of(Phone.builder().number("987654321").cityCode("1").countryCode("51").build()))
+      .build();
+  }
+  
+  private UserResponse createUser(String email) {
+    return webTestClient.post()
+      .uri("/users")
+      .contentType(MediaType.APPLICATION_JSON)
+      .bodyValue(userRequest(email))
+      .exchange()
+      .expectStatus().isOk()
+      .expectBody(UserResponse.class)
+      .returnResult()
+      .getResponseBody();
+  }
+  
+  @Test
+  void createThenGetUser() {
+    UserResponse created = createUser("julio.get@example.com");
+    
+    webTestClient.get()
+      .uri("/users/id/{uuid}", created.getUuid())
+      .header(HttpHeaders.AUTHORIZATION, "Bearer " + created.getToken())
+      .exchange()
+      .expectStatus().isOk()
+      .expectBody(UserResponse.class)
+      .value(user -> {
+        assertThat(user.getUserInformation().getEmail()).isEqualTo("julio.get@example.com");
+        assertThat(user.getUserInformation().getPhones()).hasSize(1);
+      });
+  }
+  
+  @Test
+  void createAndGetUser_neverReturnPassword() {
+    webTestClient.post()
+      .uri("/users")
+      .contentType(MediaType.APPLICATION_JSON)
+      .bodyValue(userRequest("julio.password@example.com"))
+      .exchange()
+      .expectStatus().isOk()
+      .expectBody()
+      .jsonPath("$.userInformation.email").isEqualTo("julio.password@example.com")
+      .jsonPath("$.userInformation.password").doesNotExist();
+    UserResponse created = createUser("julio.password2@example.com");
+    
+    webTestClient.get()
+      .uri("/users/id/{uuid}", created.getUuid())
+      .header(HttpHeaders.AUTHORIZATION, "Bearer " + created.getToken())
+      .exchange()
+      .expectStatus().isOk()
+      .expectBody()
+      .jsonPath("$.userInformation.email").isEqualTo("julio.password2@example.com")
+      .jsonPath("$.userInformation.password").doesNotExist();
+  }
+  
+  @Test
+  void getAndListUsers_withFields_returnOnlyThoseFields() {
+    UserResponse created = createUser("julio.fields@example.com");
+    String bearer = "Bearer " + created.getToken();
+    
+    webTestClient.get()
+      .uri("/users/id/{uuid}?fields=email,isActive,phones", created.getUuid())
+      .header(HttpHeaders.AUTHORIZATION, bearer)
+      .exchange()
+      .expectStatus().isOk()
+      .expectBody()
+      .jsonPath("$.uuid").isEqualTo(created.getUuid())
+      .jsonPath("$.userInformation.email").isEqualTo("julio.fields@example.com")
+      .jsonPath("$.userInformation.phones.length()").isEqualTo(1)
+      .jsonPath("$.userInformation.name").doesNotExist()
+      .jsonPath("$.isActive").isEqualTo(true)
+      .jsonPath("$.token").doesNotExist();
+    
+    webTestClient.get()
+      .uri("/users?fields=email,modified&limit=500")
+      .header(HttpHeaders.AUTHORIZATION, bearer)
+      .exchange()
+      .expectStatus().isOk()
+      .expectBody()
+      .jsonPath("$[?(@.uuid == '%s')].userInformation.email".formatted(created.getUuid())).isEqualTo("julio.fields@example.com")
+      .jsonPath("$[?(@.uuid == '%s')].modified".formatted(created.getUuid())).isEqualTo(null)
+      .jsonPath("$[0].userInformation.phones").doesNotExist()
+      .jsonPath("$[0].userInformation.name").doesNotExist()
+      .jsonPath("$[0].isActive").doesNotExist();
+  }
+  
+  @Test
+  void listUsers_negotiatesCompression() throws Exception {
+    UserResponse created = createUser("julio.gzip@example.com");
+    // the reactor-netty client behind WebTestClient decompresses gzip transparently, so the JDK client is used
+    HttpClient client = HttpClient.newHttpClient();
+    
+    for (String encoding : List.of("gzip", "deflate")) {
+      HttpResponse<byte[]> response = client.send(
+        HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/users?limit=500"))
+          .header(HttpHeaders.AUTHORIZATION, "Bearer " + created.getToken())
+          .header(HttpHeaders.ACCEPT_ENCODING, encoding)
+          .build(),
+        HttpResponse.BodyHandlers.ofByteArray());
+      
+      assertThat(response.statusCode()).isEqualTo(200);
+      assertThat(response.headers().firstValue(HttpHeaders.CONTENT_ENCODING)).hasValue(encoding);
+    }
+  }
+  
+  @Test
+  void getAndListUsers_foldAllPhonesIntoTheirUser() {
+    var request = userRequest("julio.phones@example.com");
+    request.setPhones(List.of(
+      Phone.builder().number("111111111").cityCode("1").countryCode("51").build(),
+      Phone.builder().number("222222222").cityCode("1").countryCode("51").build()));
+    UserResponse created = webTestClient.post()
+      .uri("/users")
+      .contentType(MediaType.APPLICATION_JSON)
+      .bodyValue(request)
+      .exchange()
+      .expectStatus().isOk()
+      .expectBody(UserResponse.class)
+      .returnResult()
+      .getResponseBody();
+    UserResponse withoutPhones = webTestClient.post()
+      .uri("/users/batch")
+      .contentType(MediaType.APPLICATION_JSON)
+      .bodyValue(List.of(UserRequest.builder()
+        .name("Julio Puma")
+        .email("julio.nophones@example.com")
+        .password("Passw0rd!")
+        .phones(List.of())
+        .build()))
+      .exchange()
+      .expectStatus().isOk()
+      .expectBodyList(BatchUserResult.class)
+      .returnResult()
+      .getResponseBody()
+      .get(0)
+      .getUser();
+    
+    webTestClient.get()
+      .uri("/users/id/{uuid}", created.getUuid())
+      .header(HttpHeaders.AUTHORIZATION, "Bearer " + created.getToken())
+      .exchange()
+      .expectStatus().isOk()
+      .expectBody(UserResponse.class)
+      .value(user -> assertThat(user.getUserInformation().getPhones())
+        .extracting(Phone::getNumber)
+        .containsExactlyInAnyOrder("111111111", "222222222"));
+    
+    webTestClient.get()
+      .uri("/users?limit=500")
+      .header(HttpHeaders.AUTHORIZATION, "Bearer " + created.getToken())
+      .exchange()
+      .expectStatus().isOk()
+      .expectBodyList(UserResponse.class)
+      .value(users -> {
+        assertThat(users).extracting(UserResponse::getUuid).doesNotHaveDuplicates();
+        assertThat(users)
+          .filteredOn(user -> user.getUuid().equals(created.getUuid()))
+          .singleElement()
+          .satisfies(user -> assertThat(user.getUserInformation().getPhones()).hasSize(2));
+        assertThat(users)
+          .filteredOn(user -> user.getUuid().equals(withoutPhones.getUuid()))
+          .singleElement()
+          .satisfies(user -> assertThat(user.getUserInformation().getPhones()).isEmpty());
+      });
+  }
+  
+  @Test
+  void createdUserToken_authenticatesAsThatUser() {
+    UserResponse created = createUser("julio.token@example.com");
+    
+    assertThat(jwtService.verify(created.getToken()))
+      .extracting(JwtService.Claims::subject)
+      .hasToString(created.getUuid());
+    
+    webTestClient.get()
+      .uri("/users/id/{uuid}", created.getUuid())
+      .exchange()
+      .expectStatus().isUnauthorized();
+  }
+  
+  @Test
+  void anotherUsersToken_cannotBeReadToModifyThem() {
+    UserResponse attacker = createUser("julio.attacker@example.com");
+    UserResponse victim = createUser("julio.victim@tokens.test");
+    String bearer = "Bearer " + attacker.getToken();
+  
+    webTestClient.get()
+      .uri("/users/id/{uuid}", victim.getUuid())
+      .header(HttpHeaders.AUTHORIZATION, bearer)
+      .exchange()
+      .expectStatus().isOk()
+      .expectBody()
+      .jsonPath("$.uuid").isEqualTo(victim.getUuid())
+      .jsonPath("$.token").doesNotExist();
+  
+    webTestClient.get()
+      .uri("/users/id/{uuid}?fields=token", victim.getUuid())
+      .header(HttpHeaders.AUTHORIZATION, bearer)
+      .exchange()
+      .expectStatus().isBadRequest();
+  
+    webTestClient.get()
+      .uri("/users?limit=500")
+      .header(HttpHeaders.AUTHORIZATION, bearer)
+      .exchange()
+      .expectStatus().isOk()
+      .expectBodyList(UserResponse.class)
+      .value(users -> assertThat(users).isNotEmpty().extracting(UserResponse::getToken).containsOnlyNulls());
+  
+    webTestClient.get()
+      .uri("/users")
+      .header(HttpHeaders.AUTHORIZATION, bearer)
+      .accept(MediaType.APPLICATION_NDJSON)
+      .exchange()
+      .expectStatus().isOk()
+      .returnResult(UserResponse.class)
+      .getResponseBody()
+      .filter(user -> user.getToken() != null)
+      .as(StepVerifier::create)
+      .verifyComplete();
+  
+    webTestClient.get()
+      .uri("/users/search?emailDomain=tokens.test")
+      .header(HttpHeaders.AUTHORIZATION, bearer)
+      .exchange()
+      .expectStatus().isOk()
+      .expectBodyList(UserResponse.class)
+      .value(users -> assertThat(users).singleElement().extracting(UserResponse::getToken).isNull());
+  
+    assertThat(userRepository.findAllOrderByUuid()
+      .filter(user -> user.getToken() != null)
+      .collectList()
+      .block()).isEmpty();
+  
+    webTestClient.patch()
+      .uri("/users/id/{uuid}", victim.getUuid())
+      .header(HttpHeaders.AUTHORIZATION, bearer)
+      .contentType(MediaType.APPLICATION_JSON)
+      .bodyValue(Map.of("password", "Takeover1!", "version", 0))
+      .exchange()
+      .expectStatus().isForbidden();
+  }
+  
+  @Test
+  void createUser_duplicateEmail_isRejected() {
+    createUser("julio.duplicate@example.com");
+    
+    webTestClient.post()
+      .uri("/users")
+      .contentType(MediaType.APPLICATION_JSON)
+      .bodyValue(userRequest("julio.duplicate@example.com"))
+      .exchange()
+      .expectStatus().isBadRequest()
+      .expectBody()
+      .jsonPath("$.message").isEqualTo("Email already in use");
+  }
+  
+  @Test
+  void listAndStreamUsers() {
+    String token = createUser("julio.list@example.com").getToken();
+    
+    webTestClient.get()
+      .uri("/users?limit=1")
+      .header(HttpHeaders.AUTHORIZATION, "Bearer " + token)
+      .exchange()
+      .expectStatus().isOk()
+      .expectBodyList(UserResponse.class)
+      .hasSize(1);
+    
+    webTestClient.get()
+      .uri("/users")
+      .header(HttpHeaders.AUTHORIZATION, "Bearer " + token)
+      .accept(MediaType.APPLICATION_NDJSON)
+      .exchange()
+      .expectStatus().isOk()
+      .returnResult(UserResponse.class)
+      .getResponseBody()
+      .filter(user -> user.getUserInformation().getEmail().equals("julio.list@example.com"))
+      .as(StepVerifier::create)
+      .expectNextCount(1)
+      .verifyComplete();
+  }
+  
+  @Test
+  void updateUser_writesChangesAndRejectsStaleVersions() {
+    UserResponse created = createUser("julio.patch@example.com");
+    String bearer = "Bearer " + created.getToken();
+    
+    webTestClient.patch()
+      .uri("/users/id/{uuid}", created.getUuid())
+      .header(HttpHeaders.AUTHORIZATION, bearer)
+      .contentType(MediaType.APPLICATION_JSON)
+      .bodyValue(Map.of(
+        "email", "julio.patched@example.com",
+        "phones", List.of(Map.of("number", "111222333", "cityCode", "1", "countryCode", "51")),
+        "version", 0))
+      .exchange()
+      .expectStatus().isOk()
+      .expectBody(UserResponse.class)
+      .value(user -> {
+        assertThat(user.getVersion()).isEqualTo(1L);
+        assertThat(user.getUserInformation().getName()).isEqualTo("Julio Puma");
+      });
+    
+    webTestClient.patch()
+      .uri("/users/id/{uuid}", created.getUuid())
+      .header(HttpHeaders.AUTHORIZATION, bearer)
+      .contentType(MediaType.APPLICATION_JSON)
+      .bodyValue(Map.of("name", "Julio P.", "version", 0))
+      .exchange()
+      .expectStatus().isEqualTo(HttpStatus.CONFLICT);
+    
+    UserResponse stored = userRepository.findUser(UUID.fromString(created.getUuid()), UserField.ALL).block();
+    assertThat(stored.getVersion()).isEqualTo(1L);
+    assertThat(stored.getUserInformation().getName()).isEqualTo("Julio Puma");
+    assertThat(stored.getUserInformation().getEmail()).isEqualTo("julio.patched@example.com");
+    assertThat(stored.getUserInformation().getPhones()).extracting(Phone::getNumber).containsExactly("111222333");
+  }
+  
+  @Test
+  void login_recordsLastLoginOnFlush() {
+    UserResponse created = createUser("julio.login@example.com");
+    
+    webTestClient.post()
+      .uri("/users/id/{uuid}/login", created.getUuid())
+      .contentType(MediaType.APPLICATION_JSON)
+      .bodyValue(Map.of("password", "wrong"))
+      .exchange()
+      .expectStatus().isUnauthorized();
+    
+    UserResponse loggedIn = webTestClient.post()
+      .uri("/users/id/{uuid}/login", created.getUuid())
+      .contentType(MediaType.APPLICATION_JSON)
+      .bodyValue(Map.of("password", "Passw0rd!"))
+      .exchange()
+      .expectStatus().isOk()
+      .expectBody(UserResponse.class)
+      .returnResult()
+      .getResponseBody();
+    assertThat(loggedIn.getLastLogin()).isAfter(created.getLastLogin());
+    assertThat(jwtService.verify(loggedIn.getToken())).isNotNull();
+    
+    lastLoginRecorder.flush().block();
+    
+    UserResponse stored = userRepository.findUser(UUID.fromString(created.getUuid()), UserField.ALL).block();
+    assertThat(stored.getLastLogin()).isCloseTo(loggedIn.getLastLogin(), within(1, ChronoUnit.MILLIS));
+  }
+  
+  @Test
+  void login_seededUser_acceptsItsSeedPassword() {
+    webTestClient.post()
+      .uri("/users/id/{uuid}/login", "11111111-1111-1111-1111-111111111111")
+      .contentType(MediaType.APPLICATION_JSON)
+      .bodyValue(Map.of("password", "pass123"))
+      .exchange()
+      .expectStatus().isOk();
+  }
+  
+  @Test
+  void searchUsers_findsCreatedAndUpdatedUsers() {
+    Flux.interval(Duration.ofMillis(10)).filter(tick -> userSearchIndex.isReady()).blockFirst(Duration.ofSeconds(10));
+    UserResponse first = createUser("ana.search@buscador.test");
+    UserResponse second = createUser("luis.search@buscador.test");
+    String bearer = "Bearer " + first.getToken();
+    
+    webTestClient.patch()
+      .uri("/users/id/{uuid}", first.getUuid())
+      .header(HttpHeaders.AUTHORIZATION, bearer)
+      .contentType(MediaType.APPLICATION_JSON)
+      .bodyValue(Map.of("name", "Ána Buscada", "version", 0))
+      .exchange()
+      .expectStatus().isOk();
+    
+    webTestClient.get()
+      .uri("/users/search?emailDomain=buscador.test&limit=1")
+      .header(HttpHeaders.AUTHORIZATION, bearer)
+      .exchange()
+      .expectStatus().isOk()
+      .expectBodyList(UserResponse.class)
+      .value(users -> assertThat(users).extracting(UserResponse::getUuid).containsExactly(first.getUuid()));
+    
+    webTestClient.get()
+      .uri("/users/search?emailDomain=buscador.test&after={after}", first.getUuid())
+      .header(HttpHeaders.AUTHORIZATION, bearer)
+      .exchange()
+      .expectStatus().isOk()
+      .expectBodyList(UserResponse.class)
+      .value(users -> assertThat(users).extracting(UserResponse::getUuid).containsExactly(second.getUuid()));
+    
+    webTestClient.get()
+      .uri("/users/search?name=ana bus&countryCode=51")
+      .header(HttpHeaders.AUTHORIZATION, bearer)
+      .accept(MediaType.APPLICATION_NDJSON)
+      .exchange()
+      .expectStatus().isOk()
+      .returnResult(UserResponse.class)
+      .getResponseBody()
+      .as(StepVerifier::create)
+      .assertNext(user -> assertThat(user.getUserInformation().getName()).isEqualTo("Ána Buscada"))
+      .verifyComplete();
+    
+    webTestClient.get()
+      .uri("/users/search")
+      .header(HttpHeaders.AUTHORIZATION, bearer)
+      .exchange()
+      .expectStatus().isBadRequest();
+  }
+  
+  @Test
+  void createUsersInBatch() {
+    webTestClient.post()
+      .uri("/users/batch")
+      .contentType(MediaType.APPLICATION_JSON)
+      .bodyValue(List.of(userRequest("julio.batch1@example.com"), userRequest("julio.batch2@example.com")))
+      .exchange()
+      .expectStatus().isOk()
+      .expectBodyList(BatchUserResult.class)
+      .value(results -> assertThat(results)
+        .extracting(BatchUserResult::getStatus)
+        .containsExactly(BatchUserResult.Status.CREATED, BatchUserResult.Status.CREATED));
+  }
+  
+  @Test
+  void createAndReadUsers_withSmile() {
+    MediaType smile = MediaType.parseMediaType(UserController.APPLICATION_SMILE_VALUE);
+    List<BatchUserResult> results = webTestClient.post()
+      .uri("/users/batch")
+      .contentType(smile)
+      .accept(smile)
+      .bodyValue(List.of(userRequest("julio.smile1@example.com"), userRequest("julio.smile2@example.com")))
+      .exchange()
+      .expectStatus().isOk()
+      .expectHeader().contentTypeCompatibleWith(smile)
+      .expectBodyList(BatchUserResult.class)
+      .returnResult()
+      .getResponseBody();
+    assertThat(results).extracting(BatchUserResult::getStatus)
+      .containsExactly(BatchUserResult.Status.CREATED, BatchUserResult.Status.CREATED);
+    UserResponse created = results.get(0).getUser();
+    String bearer = "Bearer " + created.getToken();
+    
+    UserResponse json = webTestClient.get()
+      .uri("/users/id/{uuid}", created.getUuid())
+      .header(HttpHeaders.AUTHORIZATION, bearer)
+      .accept(MediaType.APPLICATION_JSON)
+      .exchange()
+      .expectBody(UserResponse.class)
+      .returnResult()
+      .getResponseBody();
+    
+    webTestClient.get()
+      .uri("/users/id/{uuid}", created.getUuid())
+      .header(HttpHeaders.AUTHORIZATION, bearer)
+      .accept(smile)
+      .exchange()
+      .expectStatus().isOk()
+      .expectHeader().contentTypeCompatibleWith(smile)
+      .expectBody(UserResponse.class)
+      .value(user -> assertThat(user).usingRecursiveComparison().isEqualTo(json));
+    
+    webTestClient.get()
+      .uri("/users")
+      .header(HttpHeaders.AUTHORIZATION, bearer)
+      .accept(MediaType.parseMediaType(UserController.APPLICATION_STREAM_SMILE_VALUE))
+      .exchange()
+      .expectStatus().isOk()
+      .returnResult(UserResponse.class)
+      .getResponseBody()
+      .filter(user -> user.getUserInformation().getEmail().startsWith("julio.smile"))
+      .as(StepVerifier::create)
+      .expectNextCount(2)
+      .verifyComplete();
+  }
+}
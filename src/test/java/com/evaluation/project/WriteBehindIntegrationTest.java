@@ -0,0 +1,129 @@
+package com.evaluation.project;
+
+import com.evaluation.project.model.dto.Phone;
+import com.evaluation.project.model.dto.UserField;
+import com.evaluation.project.model.dto.UserRequest;
+import com.evaluation.project.model.dto.UserResponse;
+import com.evaluation.project.repository.UserRepository;
+import com.evaluation.project.service.impl.UserWriteBehind;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// the writer only flushes on shutdown, so every user created here stays pending in the write-behind queue
+@SpringBootTest(
+  webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+  properties = {
+    "app.datasource.url=r2dbc:h2:mem:///writebehind?options=DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE;USER=sa;PASSWORD=",
+    "app.password.iterations=1000",
+    "app.write-behind.enabled=true",
+    "app.write-behind.fsync=false",
+    "app.write-behind.flush-interval=1h"})
+class WriteBehindIntegrationTest {
+  
+  @Autowired
+  private WebTestClient webTestClient;
+  
+  @Autowired
+  private UserWriteBehind userWriteBehind;
+  
+  @Autowired
+  private UserRepository userRepository;
+  
+  @DynamicPropertySource
+  static void journals(DynamicPropertyRegistry registry) throws IOException {
+    Path directory = Files.createTempDirectory("write-behind");
+    registry.add("app.write-behind.journal", () -> directory.resolve("users.journal").toString());
+    registry.add("app.write-behind.dead-letter-journal", () -> directory.resolve("users.dead").toString());
+  }
+  
+  private WebTestClient.ResponseSpec postUser(String email, Phone phone) {
+    return webTestClient.post()
+      .uri("/users")
+      .contentType(MediaType.APPLICATION_JSON)
+      .bodyValue(UserRequest.builder()
+        .name("Julio Diferido")
+        .email(email)
+        .password("Passw0rd!")
+        .phones(List.of(phone))
+        .build())
+      .exchange();
+  }
+  
+  @Test
+  void createUser_withPhoneTheTableWouldReject_isRejectedBeforeJournaling() {
+    postUser("oversized@writebehind.test", Phone.builder().number("1".repeat(21)).cityCode("1").countryCode("51").build())
+      .expectStatus().isBadRequest();
+    postUser("nonumber@writebehind.test", Phone.builder().cityCode("1").countryCode("51").build())
+      .expectStatus().isBadRequest();
+    assertThat(userWriteBehind.isReserved("oversized@writebehind.test")).isFalse();
+    assertThat(userWriteBehind.isReserved("nonumber@writebehind.test")).isFalse();
+    
+    UserResponse created = postUser("fits@writebehind.test",
+      Phone.builder().number("1".repeat(20)).cityCode("1".repeat(10)).countryCode("51").build())
+      .expectStatus().isOk()
+      .expectBody(UserResponse.class)
+      .returnResult()
+      .getResponseBody();
+    assertThat(userWriteBehind.find(UUID.fromString(created.getUuid()))).isNotNull();
+  }
+  
+  private UserResponse createPendingUser(String email) {
+    UserResponse created = postUser(email, Phone.builder().number("987654321").cityCode("1").countryCode("51").build())
+      .expectStatus().isOk()
+      .expectBody(UserResponse.class)
+      .returnResult()
+      .getResponseBody();
+    assertThat(userWriteBehind.find(UUID.fromString(created.getUuid()))).isNotNull();
+    return created;
+  }
+  
+  @Test
+  void updateUser_stillPending_isInsertedAndUpdated() {
+    UserResponse created = createPendingUser("patch@writebehind.test");
+    
+    webTestClient.patch()
+      .uri("/users/id/{uuid}", created.getUuid())
+      .header(HttpHeaders.AUTHORIZATION, "Bearer " + created.getToken())
+      .contentType(MediaType.APPLICATION_JSON)
+      .bodyValue(Map.of("name", "Julio Persistido", "version", 0))
+      .exchange()
+      .expectStatus().isOk()
+      .expectBody(UserResponse.class)
+      .value(user -> assertThat(user.getVersion()).isEqualTo(1L));
+    
+    var uuid = UUID.fromString(created.getUuid());
+    assertThat(userWriteBehind.find(uuid)).isNull();
+    assertThat(userRepository.findUser(uuid, UserField.ALL).block())
+      .extracting(user -> user.getUserInformation().getName())
+      .isEqualTo("Julio Persistido");
+  }
+  
+  @Test
+  void login_stillPending_acceptsThePassword() {
+    UserResponse created = createPendingUser("login@writebehind.test");
+    
+    webTestClient.post()
+      .uri("/users/id/{uuid}/login", created.getUuid())
+      .contentType(MediaType.APPLICATION_JSON)
+      .bodyValue(Map.of("password", "Passw0rd!"))
+      .exchange()
+      .expectStatus().isOk();
+    
+    assertThat(userRepository.existsById(UUID.fromString(created.getUuid())).block()).isTrue();
+  }
+}
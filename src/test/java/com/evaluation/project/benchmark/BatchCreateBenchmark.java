@@ -0,0 +1,56 @@
+package com.evaluation.project.benchmark;
+
+import com.evaluation.project.model.dto.BatchUserResult;
+import com.evaluation.project.model.dto.UserResponse;
+import com.evaluation.project.service.impl.UserServiceImpl;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import reactor.core.publisher.Flux;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares {@code POST /users/batch} against the same number of sequential {@code createUser} calls.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BatchCreateBenchmark {
+
+  @Param({"100", "1000"})
+  private int users;
+
+  private ConfigurableApplicationContext context;
+  private UserServiceImpl userService;
+  private long sequence;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    // a low PBKDF2 work factor keeps the comparison about the inserts rather than the password hashing
+    context = BenchmarkApplication.start("app.password.iterations=1000");
+    userService = context.getBean(UserServiceImpl.class);
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    context.close();
+  }
+
+  @Benchmark
+  public List<BatchUserResult> batchInsert() {
+    var requests = BenchmarkApplication.userRequests("batch-", sequence, users, 2);
+    sequence += users;
+    return userService.createUsers(Flux.fromIterable(requests)).collectList().block();
+  }
+
+  @Benchmark
+  public List<UserResponse> singleInserts() {
+    var requests = BenchmarkApplication.userRequests("single-", sequence, users, 2);
+    sequence += users;
+    return Flux.fromIterable(requests).concatMap(userService::createUser).collectList().block();
+  }
+}
@@ -0,0 +1,59 @@
+package com.evaluation.project.benchmark;
+
+import com.evaluation.project.CreateUserApplication;
+import com.evaluation.project.model.dto.Phone;
+import com.evaluation.project.model.dto.UserRequest;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+
+final class BenchmarkApplication {
+
+  private BenchmarkApplication() {
+  }
+
+  static ConfigurableApplicationContext start(String... properties) {
+    return new SpringApplicationBuilder(CreateUserApplication.class)
+      .web(WebApplicationType.NONE)
+      .properties("logging.level.root=WARN", "logging.level.org.springframework.web=WARN")
+      .properties(properties)
+      .run();
+  }
+
+  /** Starts with {@code profile} active; {@code arguments} ({@code --key=value}) take precedence over its yml. */
+  static ConfigurableApplicationContext start(String profile, String[] arguments) {
+    return new SpringApplicationBuilder(CreateUserApplication.class)
+      .web(WebApplicationType.NONE)
+      .profiles(profile)
+      .properties("logging.level.root=WARN", "logging.level.org.springframework.web=WARN")
+      .run(arguments);
+  }
+
+  static List<UserRequest> userRequests(String prefix, long from, int count, int phonesPerUser) {
+    var requests = new ArrayList<UserRequest>(count);
+    for (long i = from; i < from + count; i++) {
+      requests.add(userRequest(prefix + i + "@example.com", phonesPerUser));
+    }
+    return requests;
+  }
+
+  static UserRequest userRequest(String email, int phonesPerUser) {
+    var phones = new ArrayList<Phone>(phonesPerUser);
+    for (int i = 0; i < phonesPerUser; i++) {
+      phones.add(Phone.builder()
+        .number(String.valueOf(300_000_000 + i))
+        .cityCode("01")
+        .countryCode("57")
+        .build());
+    }
+    return UserRequest.builder()
+      .name("Benchmark User")
+      .email(email)
+      .password("Passw0rd!")
+      .phones(phones)
+      .build();
+  }
+}
@@ -0,0 +1,47 @@
+package com.evaluation.project.benchmark;
+
+import com.evaluation.project.service.impl.JwtService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtServiceBenchmark {
+
+  private final JwtService jwtService = new JwtService("secret_key", 60, 100_000, new SimpleMeterRegistry());
+  // cycling through many distinct tokens with a one-entry cache keeps verification on the HMAC path
+  private final JwtService uncachedJwtService = new JwtService("secret_key", 60, 1, new SimpleMeterRegistry());
+  private final UUID userId = UUID.randomUUID();
+  private final String token = jwtService.generate(userId);
+  private final String[] tokens = new String[1 << 16];
+  private int next;
+
+  @Setup
+  public void setUp() {
+    for (int i = 0; i < tokens.length; i++) {
+      tokens[i] = jwtService.generate(UUID.randomUUID());
+    }
+  }
+
+  @Benchmark
+  public String generate() {
+    return jwtService.generate(userId);
+  }
+
+  @Benchmark
+  public JwtService.Claims verifyCached() {
+    return jwtService.verify(token);
+  }
+
+  @Benchmark
+  public JwtService.Claims verifyUncached() {
+    return uncachedJwtService.verify(tokens[next++ & (tokens.length - 1)]);
+  }
+}
@@ -0,0 +1,74 @@
+package com.evaluation.project.benchmark;
+
+import com.evaluation.project.repository.PhoneRepository;
+import com.evaluation.project.repository.UserRepository;
+import com.evaluation.project.service.impl.EmailIndex;
+import com.evaluation.project.service.impl.UserCacheWarmer;
+import com.evaluation.project.service.impl.UserSearchIndex;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Restart of the application on the file-backed H2 database ({@code file} profile) holding {@code users} users: from
+ * the start of the Spring context until the email index, the search index and the user cache are loaded from disk.
+ * Every measurement runs in a fresh JVM, so it includes class loading and JIT warm-up like a real restart. The database
+ * is seeded once under {@code target/restart-benchmark} and reused by later runs; the heap used after a full GC is
+ * printed after each restart.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 0)
+@Measurement(iterations = 1)
+@Fork(value = 5, jvmArgsAppend = "-Xmx1g")
+public class RestartBenchmark {
+
+  @Param({"1000000"})
+  private int users;
+
+  private String[] arguments;
+  private ConfigurableApplicationContext context;
+
+  @Setup(Level.Trial)
+  public void setUp() throws Exception {
+    Path directory = Path.of("target", "restart-benchmark", "users-" + users).toAbsolutePath();
+    arguments = new String[] {
+      "--app.datasource.url=r2dbc:h2:file:///nioMapped:" + directory.resolve("users")
+        + "?options=DB_CLOSE_ON_EXIT=FALSE;CACHE_SIZE=65536;USER=sa;PASSWORD=",
+      "--app.write-behind.journal=" + directory.resolve("users-write-behind.journal")};
+    Path seeded = directory.resolve("seeded");
+    if (!Files.exists(seeded)) {
+      Files.createDirectories(directory);
+      try (var seeding = BenchmarkApplication.start("file", arguments)) {
+        UserReadBenchmark.seed(seeding.getBean(UserRepository.class), seeding.getBean(PhoneRepository.class), users);
+      }
+      Files.createFile(seeded);
+    }
+  }
+
+  @TearDown(Level.Iteration)
+  public void tearDown() {
+    System.gc();
+    var heap = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage();
+    System.out.printf("%nheap used after restart: %d MB (committed %d MB)%n", heap.getUsed() >> 20, heap.getCommitted() >> 20);
+    context.close();
+  }
+
+  @Benchmark
+  public ConfigurableApplicationContext restart() {
+    context = BenchmarkApplication.start("file", arguments);
+    var emailIndex = context.getBean(EmailIndex.class);
+    var searchIndex = context.getBean(UserSearchIndex.class);
+    var cacheWarmer = context.getBean(UserCacheWarmer.class);
+    while (!emailIndex.isReady() || !searchIndex.isReady() || !cacheWarmer.isDone()) {
+      LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1));
+    }
+    return context;
+  }
+}
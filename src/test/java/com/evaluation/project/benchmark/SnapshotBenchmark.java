@@ -0,0 +1,98 @@
+package com.evaluation.project.benchmark;
+
+import com.evaluation.project.model.dto.SnapshotSummary;
+import com.evaluation.project.repository.PhoneRepository;
+import com.evaluation.project.repository.UserRepository;
+import com.evaluation.project.service.impl.EmailIndex;
+import com.evaluation.project.service.impl.UserSearchIndex;
+import com.evaluation.project.service.impl.UserSnapshotService;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import reactor.core.publisher.Flux;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Export and import of a snapshot of {@code users} users with two phones each on an in-memory H2: {@code export} scans
+ * both tables into the snapshot bytes and {@code importSnapshot} loads them into the emptied store from 1 MB chunks,
+ * which is the transaction alone; {@code importUpload} takes the admin endpoint's path, writing the chunks to a
+ * temporary file and reading it through before the same import. The snapshot size is printed once per trial.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class SnapshotBenchmark {
+
+  private static final int CHUNK = 1 << 20;
+
+  @Param({"1000000"})
+  private int users;
+
+  private ConfigurableApplicationContext context;
+  private UserSnapshotService snapshotService;
+  private byte[] snapshot;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    context = BenchmarkApplication.start("app.snapshot.block-size=8192");
+    snapshotService = context.getBean(UserSnapshotService.class);
+    UserReadBenchmark.seed(context.getBean(UserRepository.class), context.getBean(PhoneRepository.class), users);
+    snapshot = export();
+    System.out.printf("%nsnapshot size: %d MB%n", snapshot.length >> 20);
+  }
+
+  // bootstrapping a node imports into an empty store: the DELETE of the previous import is not measured
+  @Setup(Level.Iteration)
+  public void clearStore(BenchmarkParams params) {
+    if (params.getBenchmark().contains(".import")) {
+      var phoneRepository = context.getBean(PhoneRepository.class);
+      phoneRepository.deleteAllRows().then(context.getBean(UserRepository.class).deleteAllRows()).block();
+    }
+  }
+
+  // the indexes are rebuilt after each import; waiting here keeps the rebuild out of the next measurement
+  @TearDown(Level.Iteration)
+  public void awaitIndexes() {
+    var emailIndex = context.getBean(EmailIndex.class);
+    var searchIndex = context.getBean(UserSearchIndex.class);
+    while (!emailIndex.isReady() || !searchIndex.isReady()) {
+      LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1));
+    }
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    context.close();
+  }
+
+  @Benchmark
+  public byte[] export() {
+    var bytes = new ByteArrayOutputStream();
+    snapshotService.export().toIterable().forEach(buffer -> bytes.write(buffer.array(), buffer.position(), buffer.remaining()));
+    return bytes.toByteArray();
+  }
+
+  @Benchmark
+  public SnapshotSummary importSnapshot() {
+    var chunks = Flux.range(0, (snapshot.length + CHUNK - 1) / CHUNK)
+      .map(i -> ByteBuffer.wrap(snapshot, i * CHUNK, Math.min(CHUNK, snapshot.length - i * CHUNK)));
+    return snapshotService.importSnapshot(chunks).block();
+  }
+
+  @Benchmark
+  public SnapshotSummary importUpload() {
+    var upload = Flux.range(0, (snapshot.length + CHUNK - 1) / CHUNK)
+      .map(i -> DefaultDataBufferFactory.sharedInstance.wrap(
+        ByteBuffer.wrap(snapshot, i * CHUNK, Math.min(CHUNK, snapshot.length - i * CHUNK))));
+    return snapshotService.importUpload(upload.cast(DataBuffer.class)).block();
+  }
+}
@@ -0,0 +1,67 @@
+package com.evaluation.project.benchmark;
+
+import com.evaluation.project.model.entity.PhoneEntity;
+import com.evaluation.project.model.entity.UserEntity;
+import com.evaluation.project.repository.PhoneRepository;
+import com.evaluation.project.repository.UserRepository;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Point lookups on a database seeded with {@code users} rows, before ({@code schema=2}: VARCHAR {@code PHONES.UUID},
+ * no extra indexes) and after ({@code schema=latest}) the typed-column and index migration.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class UserLookupBenchmark {
+
+  private static final int SAMPLE = 1024;
+
+  @Param({"1000000"})
+  private int users;
+
+  @Param({"2", "latest"})
+  private String schema;
+
+  private ConfigurableApplicationContext context;
+  private UserRepository userRepository;
+  private PhoneRepository phoneRepository;
+  private UUID[] uuids;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    context = BenchmarkApplication.start("app.datasource.migration.target=" + schema);
+    userRepository = context.getBean(UserRepository.class);
+    phoneRepository = context.getBean(PhoneRepository.class);
+    UserReadBenchmark.seed(userRepository, phoneRepository, users);
+    uuids = userRepository.findPageWithPhones(null, SAMPLE)
+      .map(user -> UUID.fromString(user.getUuid()))
+      .collectList()
+      .block()
+      .toArray(UUID[]::new);
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    context.close();
+  }
+
+  @Benchmark
+  public List<PhoneEntity> phonesByUser() {
+    return phoneRepository.findByUuid(uuids[ThreadLocalRandom.current().nextInt(uuids.length)]).collectList().block();
+  }
+
+  @Benchmark
+  public UserEntity userByEmail() {
+    return userRepository.findByEmail("seed-" + ThreadLocalRandom.current().nextInt(users) + "@example.com").block();
+  }
+}
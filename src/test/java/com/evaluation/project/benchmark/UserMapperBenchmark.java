@@ -0,0 +1,65 @@
+package com.evaluation.project.benchmark;
+
+import com.evaluation.project.model.dto.UserRequest;
+import com.evaluation.project.model.dto.UserResponse;
+import com.evaluation.project.model.entity.PhoneEntity;
+import com.evaluation.project.model.entity.UserEntity;
+import com.evaluation.project.util.UserMapper;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UserMapperBenchmark {
+
+  @Param({"1", "10", "100"})
+  private int phones;
+
+  private UserEntity userEntity;
+  private List<PhoneEntity> phoneEntities;
+
+  @Setup
+  public void setUp() {
+    UUID uuid = UUID.randomUUID();
+    LocalDateTime now = LocalDateTime.now();
+    userEntity = UserEntity.builder()
+      .uuid(uuid)
+      .name("Juan Pérez")
+      .email("juan.perez@example.com")
+      .password("Passw0rd!")
+      .createdAt(now)
+      .lastLogin(now)
+      .token("token")
+      .isActive(true)
+      .build();
+    phoneEntities = new ArrayList<>(phones);
+    for (int i = 0; i < phones; i++) {
+      phoneEntities.add(PhoneEntity.builder()
+        .phoneId(i)
+        .uuid(uuid)
+        .number(String.valueOf(300_000_000 + i))
+        .cityCode("01")
+        .countryCode("57")
+        .build());
+    }
+  }
+
+  @Benchmark
+  public UserResponse mapToUserResponse() {
+    return UserMapper.mapToUserResponse(userEntity, phoneEntities);
+  }
+
+  @Benchmark
+  public UserRequest mapToUserRequest() {
+    return UserMapper.mapToUserRequest(userEntity, phoneEntities);
+  }
+}
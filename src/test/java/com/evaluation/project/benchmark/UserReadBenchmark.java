@@ -0,0 +1,113 @@
+package com.evaluation.project.benchmark;
+
+import com.evaluation.project.model.dto.UserField;
+import com.evaluation.project.model.dto.UserResponse;
+import com.evaluation.project.model.entity.PhoneEntity;
+import com.evaluation.project.model.entity.UserEntity;
+import com.evaluation.project.repository.PhoneRepository;
+import com.evaluation.project.repository.UserRepository;
+import com.evaluation.project.service.impl.UserServiceImpl;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import reactor.core.publisher.Flux;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@code getUsers} pages against an in-memory H2 seeded with {@code users} rows and two phones per user, reading every
+ * field or only the {@code fields} projection.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class UserReadBenchmark {
+
+  private static final int SEED_CHUNK = 1_000;
+
+  @Param({"10000", "100000", "1000000"})
+  private int users;
+
+  @Param({"50"})
+  private int pageSize;
+
+  @Param({"all", "email,isActive"})
+  private String fields;
+
+  private ConfigurableApplicationContext context;
+  private UserServiceImpl userService;
+  private UUID[] cursors;
+  private Set<UserField> selected;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    context = BenchmarkApplication.start();
+    userService = context.getBean(UserServiceImpl.class);
+    selected = fields.equals("all") ? UserField.ALL : UserField.parse(fields);
+    seed(context.getBean(UserRepository.class), context.getBean(PhoneRepository.class), users);
+    cursors = new UUID[1024];
+    for (int i = 0; i < cursors.length; i++) {
+      cursors[i] = new UUID(ThreadLocalRandom.current().nextLong(), ThreadLocalRandom.current().nextLong());
+    }
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    context.close();
+  }
+
+  @Benchmark
+  public List<UserResponse> firstPage() {
+    return userService.getUsers(null, pageSize, selected).collectList().block();
+  }
+
+  @Benchmark
+  public List<UserResponse> pageAfterRandomCursor() {
+    UUID after = cursors[ThreadLocalRandom.current().nextInt(cursors.length)];
+    return userService.getUsers(after, pageSize, selected).collectList().block();
+  }
+
+  static void seed(UserRepository userRepository, PhoneRepository phoneRepository, int users) {
+    LocalDateTime now = LocalDateTime.now();
+    Flux.range(0, users)
+      .buffer(SEED_CHUNK)
+      .concatMap(chunk -> {
+        var userEntities = new ArrayList<UserEntity>(chunk.size());
+        var phoneEntities = new ArrayList<PhoneEntity>(chunk.size() * 2);
+        for (int i : chunk) {
+          UUID uuid = UUID.randomUUID();
+          userEntities.add(UserEntity.builder()
+            .uuid(uuid)
+            .name("Seed User " + i)
+            .email("seed-" + i + "@example.com")
+            .password("Passw0rd!")
+            .createdAt(now)
+            .lastLogin(now)
+            .token("token")
+            .isActive(true)
+            .build());
+          phoneEntities.add(phone(uuid, "300" + i));
+          phoneEntities.add(phone(uuid, "310" + i));
+        }
+        return userRepository.insertAll(userEntities).then(phoneRepository.insertAll(phoneEntities));
+      })
+      .blockLast();
+  }
+
+  private static PhoneEntity phone(UUID uuid, String number) {
+    return PhoneEntity.builder()
+      .uuid(uuid)
+      .number(number)
+      .cityCode("01")
+      .countryCode("57")
+      .build();
+  }
+}
@@ -0,0 +1,81 @@
+package com.evaluation.project.benchmark;
+
+import com.evaluation.project.model.dto.Phone;
+import com.evaluation.project.model.dto.UserRequest;
+import com.evaluation.project.model.dto.UserResponse;
+import com.evaluation.project.repository.PhoneRepository;
+import com.evaluation.project.repository.UserRepository;
+import com.evaluation.project.service.impl.UserSearchIndex;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.*;
+import reactor.core.publisher.Flux;
+
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A first page (50 users) of {@code GET /users/search} answered by {@link UserSearchIndex} holding {@code users}
+ * synthetic users: a one-letter name prefix (long postings lists), a two-word name, and a rare combination of email
+ * domain and country code whose matches are spread over the whole index.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class UserSearchBenchmark {
+
+  private static final int PAGE = 50;
+  private static final String[] FIRST_NAMES = {"Juan", "Julia", "Ana", "Pedro", "María", "Luis", "Carmen", "José"};
+  private static final String[] LAST_NAMES = {"Pérez", "Gómez", "Rodríguez", "López", "Díaz", "Torres", "Rojas", "Vargas"};
+  private static final String[] DOMAINS = {"gmail.com", "outlook.com", "yahoo.com", "example.com"};
+
+  @Param({"100000", "1000000"})
+  private int users;
+
+  private UserSearchIndex index;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    UserRepository userRepository = Mockito.mock(UserRepository.class);
+    PhoneRepository phoneRepository = Mockito.mock(PhoneRepository.class);
+    Mockito.when(userRepository.scanUsers(Mockito.any())).thenReturn(Flux.empty());
+    Mockito.when(phoneRepository.findAll()).thenReturn(Flux.empty());
+    index = new UserSearchIndex(userRepository, phoneRepository, 1000, 20, new SimpleMeterRegistry());
+    index.load();
+    Random random = new Random(42);
+    for (int i = 0; i < users; i++) {
+      index.add(UserResponse.builder()
+        .uuid(new UUID(random.nextLong(), random.nextLong()).toString())
+        .userInformation(UserRequest.builder()
+          .name(FIRST_NAMES[random.nextInt(FIRST_NAMES.length)] + " " + LAST_NAMES[random.nextInt(LAST_NAMES.length)])
+          .email("user" + i + "@" + DOMAINS[random.nextInt(DOMAINS.length)])
+          .phones(List.of(Phone.builder()
+            .number(Integer.toString(random.nextInt(1_000_000_000)))
+            .cityCode(Integer.toString(random.nextInt(100)))
+            .countryCode(Integer.toString(random.nextInt(200)))
+            .build()))
+          .build())
+        .build());
+    }
+  }
+
+  @Benchmark
+  public List<UUID> namePrefix() {
+    return index.search(new UserSearchIndex.Query("j", null, null, null), null, PAGE);
+  }
+
+  @Benchmark
+  public List<UUID> fullName() {
+    return index.search(new UserSearchIndex.Query("juan pe", null, null, null), null, PAGE);
+  }
+
+  @Benchmark
+  public List<UUID> domainAndCountry() {
+    return index.search(new UserSearchIndex.Query(null, "example.com", "57", null), null, PAGE);
+  }
+}
@@ -0,0 +1,56 @@
+package com.evaluation.project.benchmark;
+
+import com.evaluation.project.config.ApplicationProperties;
+import com.evaluation.project.service.impl.UserValidator;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Email validation throughput of {@link UserValidator} against the former per-request
+ * {@code String.matches} on the original regex.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UserValidatorBenchmark {
+
+  private static final String ORIGINAL_EMAIL_REGEX = "^[\\w-\\.]+@([\\w-]+\\.)+[\\w-]{2,4}$";
+  private static final String PASSWORD_REGEX = "[\\w\\W]+";
+
+  @Param({"valid", "invalid", "pathological"})
+  private String input;
+
+  private String email;
+  private UserValidator userValidator;
+
+  @Setup
+  public void setUp() {
+    email = switch (input) {
+      case "valid" -> "juan.perez@example.com";
+      case "invalid" -> "juan.perez@example";
+      default -> "x@" + "aaaa.".repeat(40) + "!";
+    };
+    ApplicationProperties properties = new ApplicationProperties();
+    properties.setEmailRegex("^[\\w.-]+@(?:[\\w-]++\\.)++[\\w-]{2,4}$");
+    properties.setPasswordRegex(PASSWORD_REGEX);
+    properties.setMaxEmailLength(254);
+    properties.setMaxPasswordLength(128);
+    properties.setRegexTimeout(Duration.ofMillis(10));
+    userValidator = new UserValidator(properties);
+  }
+
+  @Benchmark
+  public boolean stringMatches() {
+    return email.matches(ORIGINAL_EMAIL_REGEX) && "Passw0rd!".matches(PASSWORD_REGEX);
+  }
+
+  @Benchmark
+  public boolean userValidator() {
+    return userValidator.isValidEmail(email) && userValidator.isValidPassword("Passw0rd!");
+  }
+}
@@ -0,0 +1,123 @@
+package com.evaluation.project.config;
+
+import com.evaluation.project.service.impl.PasswordHasher;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class DatabaseMigrationTest {
+  
+  @Test
+  void h2Migrations_typePhoneUuidAndAddIndexes() throws SQLException {
+    String url = "jdbc:h2:mem:migration-h2;DB_CLOSE_DELAY=-1";
+    migrate(url, "classpath:db/migration/h2");
+    
+    try (Connection connection = DriverManager.getConnection(url, "sa", "")) {
+      assertThat(columnType(connection, "PHONES", "UUID")).isEqualTo("UUID");
+      assertThat(indexedColumns(connection, "PHONES")).contains("UUID");
+      assertThat(uniqueIndexedColumns(connection, "USERS")).contains("EMAIL");
+      assertThat(columnType(connection, "USERS", "VERSION")).isEqualTo("BIGINT");
+      assertThat(indexedColumns(connection, "USERS")).contains("LAST_LOGIN");
+      assertThat(count(connection, "SELECT COUNT(*) FROM PHONES WHERE UUID = '11111111-1111-1111-1111-111111111111'"))
+        .isEqualTo(2);
+      assertThat(new PasswordHasher(1000).matches("pass123",
+        string(connection, "SELECT PASSWORD FROM USERS WHERE UUID = '11111111-1111-1111-1111-111111111111'")))
+        .isTrue();
+      assertThat(count(connection, "SELECT COUNT(*) FROM USERS WHERE PASSWORD NOT LIKE 'pbkdf2-sha512$%'"))
+        .isZero();
+    }
+  }
+  
+  @Test
+  void postgresqlMigrations_runOnPostgresCompatibilityMode() throws SQLException {
+    String url = "jdbc:h2:mem:migration-pg;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1";
+    migrate(url, "classpath:db/migration/postgresql");
+    
+    try (Connection connection = DriverManager.getConnection(url, "sa", "")) {
+      assertThat(columnType(connection, "phones", "uuid")).isEqualTo("UUID");
+      assertThat(indexedColumns(connection, "phones")).contains("uuid");
+      assertThat(uniqueIndexedColumns(connection, "users")).contains("email");
+      assertThat(columnType(connection, "users", "version")).isEqualTo("BIGINT");
+      assertThat(indexedColumns(connection, "users")).contains("last_login");
+    }
+  }
+  
+  @Test
+  void migrationUrl_derivedFromH2R2dbcUrl() {
+    ApplicationProperties properties = new ApplicationProperties();
+    properties.setDatasourceUrl("r2dbc:h2:mem:///testdb?options=DB_CLOSE_DELAY=-1;USER=sa");
+    
+    assertThat(ReactiveDatabaseConfiguration.migrationUrl(properties))
+      .isEqualTo("jdbc:h2:mem:testdb;DB_CLOSE_DELAY=-1;USER=sa");
+    
+    properties.setDatasourceUrl("r2dbc:h2:file:///./data/users?options=DB_CLOSE_ON_EXIT=FALSE;USER=sa");
+    assertThat(ReactiveDatabaseConfiguration.migrationUrl(properties))
+      .isEqualTo("jdbc:h2:file:./data/users;DB_CLOSE_ON_EXIT=FALSE;USER=sa");
+    
+    properties.setDatasourceUrl("r2dbc:h2:file:///nioMapped:./data/users?options=DB_CLOSE_ON_EXIT=FALSE;USER=sa");
+    assertThat(ReactiveDatabaseConfiguration.migrationUrl(properties))
+      .isEqualTo("jdbc:h2:file:nioMapped:./data/users;DB_CLOSE_ON_EXIT=FALSE;USER=sa");
+    
+    properties.setDatasourceUrl("r2dbc:postgresql://localhost/users");
+    assertThatThrownBy(() -> ReactiveDatabaseConfiguration.migrationUrl(properties))
+      .isInstanceOf(IllegalStateException.class);
+    
+    properties.setMigrationUrl("jdbc:postgresql://localhost/users");
+    assertThat(ReactiveDatabaseConfiguration.migrationUrl(properties)).isEqualTo("jdbc:postgresql://localhost/users");
+  }
+  
+  private static void migrate(String url, String location) {
+    Flyway.configure()
+      .dataSource(url, "sa", "")
+      .locations(location)
+      .load()
+      .migrate();
+  }
+  
+  private static String columnType(Connection connection, String table, String column) throws SQLException {
+    try (var columns = connection.getMetaData().getColumns(null, null, table, column)) {
+      assertThat(columns.next()).isTrue();
+      return columns.getString("TYPE_NAME");
+    }
+  }
+  
+  private static List<String> indexedColumns(Connection connection, String table) throws SQLException {
+    return indexColumns(connection, table, false);
+  }
+  
+  private static List<String> uniqueIndexedColumns(Connection connection, String table) throws SQLException {
+    return indexColumns(connection, table, true);
+  }
+  
+  private static List<String> indexColumns(Connection connection, String table, boolean unique) throws SQLException {
+    var columns = new ArrayList<String>();
+    try (var indexes = connection.getMetaData().getIndexInfo(null, null, table, unique, false)) {
+      while (indexes.next()) {
+        columns.add(indexes.getString("COLUMN_NAME"));
+      }
+    }
+    return columns;
+  }
+  
+  private static String string(Connection connection, String sql) throws SQLException {
+    try (var statement = connection.createStatement(); var resultSet = statement.executeQuery(sql)) {
+      resultSet.next();
+      return resultSet.getString(1);
+    }
+  }
+  
+  private static long count(Connection connection, String sql) throws SQLException {
+    try (var statement = connection.createStatement(); var resultSet = statement.executeQuery(sql)) {
+      resultSet.next();
+      return resultSet.getLong(1);
+    }
+  }
+}
@@ -0,0 +1,71 @@
+package com.evaluation.project.config;
+
+import com.evaluation.project.service.impl.RateLimiter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+import java.net.InetSocketAddress;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RateLimitFilterTest {
+
+  private final RateLimitFilter filter =
+    new RateLimitFilter(new RateLimiter(true, 0.001, 1, 1000, 1000, 0.001, 1, 1000, 1000, 100, new SimpleMeterRegistry()));
+  private final AtomicInteger passed = new AtomicInteger();
+  private final WebFilterChain chain = exchange -> Mono.fromRunnable(passed::incrementAndGet);
+
+  private MockServerWebExchange exchange(MockServerHttpRequest.BaseBuilder<?> request) {
+    return MockServerWebExchange.from(request.remoteAddress(new InetSocketAddress("10.0.0.1", 40000)));
+  }
+
+  @Test
+  void filter_rejectsCreationsOverTheClientRateWithRetryAfter() {
+    filter.filter(exchange(MockServerHttpRequest.post("/users")), chain).block();
+    MockServerWebExchange rejected = exchange(MockServerHttpRequest.post("/users/batch"));
+    filter.filter(rejected, chain).block();
+
+    assertThat(passed).hasValue(1);
+    assertThat(rejected.getResponse().getStatusCode()).isEqualTo(HttpStatus.TOO_MANY_REQUESTS);
+    assertThat(Long.parseLong(rejected.getResponse().getHeaders().getFirst(HttpHeaders.RETRY_AFTER))).isPositive();
+    assertThat(rejected.getResponse().getBodyAsString().block()).contains("Too many requests");
+  }
+
+  @Test
+  void filter_keysClientsByApiKeyBeforeAddress() {
+    filter.filter(exchange(MockServerHttpRequest.post("/users").header(RateLimitFilter.API_KEY_HEADER, "a")), chain).block();
+    filter.filter(exchange(MockServerHttpRequest.post("/users").header(RateLimitFilter.API_KEY_HEADER, "b")), chain).block();
+    filter.filter(exchange(MockServerHttpRequest.post("/users")), chain).block();
+
+    assertThat(passed).hasValue(3);
+  }
+
+  @Test
+  void filter_limitsLoginsWithTheirOwnBuckets() {
+    String login = "/users/id/" + UUID.randomUUID() + "/login";
+    filter.filter(exchange(MockServerHttpRequest.post(login)), chain).block();
+    MockServerWebExchange rejected = exchange(MockServerHttpRequest.post(login));
+    filter.filter(rejected, chain).block();
+    filter.filter(exchange(MockServerHttpRequest.post("/users")), chain).block();
+
+    assertThat(passed).hasValue(2);
+    assertThat(rejected.getResponse().getStatusCode()).isEqualTo(HttpStatus.TOO_MANY_REQUESTS);
+  }
+
+  @Test
+  void filter_leavesReadsAlone() {
+    for (int i = 0; i < 3; i++) {
+      filter.filter(exchange(MockServerHttpRequest.get("/users")), chain).block();
+    }
+
+    assertThat(passed).hasValue(3);
+  }
+}
@@ -0,0 +1,104 @@
+package com.evaluation.project.config;
+
+import com.evaluation.project.model.dto.Phone;
+import com.evaluation.project.model.dto.UserRequest;
+import com.evaluation.project.model.dto.UserResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class UserResponseEncoderTest {
+
+  private static final ResolvableType USER_RESPONSE = ResolvableType.forClass(UserResponse.class);
+
+  // configured like the application's ObjectMapper: ISO-8601 dates instead of timestamps
+  private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json()
+    .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+    .build();
+  private final UserResponseEncoder encoder = new UserResponseEncoder();
+
+  private UserResponse userResponse(int i) {
+    var phones = i % 3 == 0
+      ? null
+      : List.of(new Phone("30" + i, "1", "57"), new Phone("31" + i, null, "57"));
+    return UserResponse.builder()
+      .uuid(UUID.randomUUID().toString())
+      .userInformation(new UserRequest("Juan \"" + i + "\" Pérez", "juan" + i + "@example.com", null, phones))
+      .created(LocalDateTime.of(2024, 1, 2, 3, 4, 0))
+      .modified(i % 2 == 0 ? null : LocalDateTime.of(2024, 1, 2, 3, 4, 5, 123456789))
+      .lastLogin(LocalDateTime.of(2024, 1, 2, 3, 4, 5, 1000))
+      .token(i % 4 == 0 ? null : "token" + i)
+      .isActive(i % 5 != 0)
+      .build();
+  }
+
+  private String encode(Flux<UserResponse> users, MediaType mediaType) {
+    return DataBufferUtils.join(encoder.encode(users, DefaultDataBufferFactory.sharedInstance, USER_RESPONSE, mediaType, null))
+      .map(buffer -> {
+        String json = buffer.toString(StandardCharsets.UTF_8);
+        DataBufferUtils.release(buffer);
+        return json;
+      })
+      .block();
+  }
+
+  @Test
+  void encode_fluxAsJsonArray_matchesJackson() throws Exception {
+    var users = IntStream.range(0, UserResponseEncoder.BATCH_SIZE + 3).mapToObj(this::userResponse).toList();
+
+    assertThat(encode(Flux.fromIterable(users), MediaType.APPLICATION_JSON))
+      .isEqualTo(objectMapper.writeValueAsString(users));
+    assertThat(encode(Flux.empty(), MediaType.APPLICATION_JSON)).isEqualTo("[]");
+  }
+
+  @Test
+  void encode_monoAsSingleObject_matchesJackson() throws Exception {
+    var user = userResponse(1);
+    var json = encoder.encode(Mono.just(user), DefaultDataBufferFactory.sharedInstance, USER_RESPONSE, MediaType.APPLICATION_JSON, null)
+      .single()
+      .map(buffer -> buffer.toString(StandardCharsets.UTF_8))
+      .block();
+
+    assertThat(json).isEqualTo(objectMapper.writeValueAsString(user));
+  }
+
+  @Test
+  void encode_ndjson_writesOneLinePerUser() throws Exception {
+    var users = IntStream.range(0, 3).mapToObj(this::userResponse).toList();
+    var expected = users.stream()
+      .map(user -> {
+        try {
+          return objectMapper.writeValueAsString(user) + "\n";
+        } catch (Exception e) {
+          throw new IllegalStateException(e);
+        }
+      })
+      .collect(Collectors.joining());
+
+    assertThat(encode(Flux.fromIterable(users), MediaType.APPLICATION_NDJSON)).isEqualTo(expected);
+  }
+
+  @Test
+  void canEncode_onlyUserResponsesAsJson() {
+    assertThat(encoder.canEncode(USER_RESPONSE, MediaType.APPLICATION_JSON)).isTrue();
+    assertThat(encoder.canEncode(USER_RESPONSE, null)).isTrue();
+    assertThat(encoder.canEncode(USER_RESPONSE, MediaType.TEXT_EVENT_STREAM)).isFalse();
+    assertThat(encoder.canEncode(ResolvableType.forClass(Object.class), MediaType.APPLICATION_JSON)).isFalse();
+  }
+}
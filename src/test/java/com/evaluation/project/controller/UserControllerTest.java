@@ -1,35 +1,68 @@
 package com.evaluation.project.controller;
 
+import com.evaluation.project.model.dto.BatchUserResult;
+import com.evaluation.project.model.dto.LatencySnapshot;
 import com.evaluation.project.model.dto.Phone;
+import com.evaluation.project.model.dto.UserField;
+import com.evaluation.project.model.dto.UserPatchRequest;
 import com.evaluation.project.model.dto.UserRequest;
 import com.evaluation.project.model.dto.UserResponse;
+import com.evaluation.project.config.ApplicationProperties;
+import com.evaluation.project.service.impl.IdempotencyStore;
+import com.evaluation.project.service.impl.JwtService;
+import com.evaluation.project.service.impl.LatencyRecorder;
+import com.evaluation.project.service.impl.RateLimiter;
+import com.evaluation.project.service.impl.UserSearchIndex;
 import com.evaluation.project.service.impl.UserServiceImpl;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.reactive.server.WebTestClient;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
 
 import java.time.LocalDateTime;
 import java.util.Collections;
 import java.util.List;
+import java.util.Set;
 import java.util.UUID;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
-@WebFluxTest(UserController.class)
+@WebFluxTest(controllers = UserController.class, properties = "app.snapshot.admin-token=" + UserControllerTest.ADMIN_TOKEN)
+@Import({LatencyRecorder.class, IdempotencyStore.class, SimpleMeterRegistry.class, JwtService.class, RateLimiter.class,
+  ApplicationProperties.class})
 class UserControllerTest {
   
+  static final String ADMIN_TOKEN = "operator-token";
+  
   @Autowired
   private WebTestClient webTestClient;
   
+  @Autowired
+  private JwtService jwtService;
+  
   @MockBean
   private UserServiceImpl userService;
   
+  private WebTestClient anonymousClient;
+  
+  @BeforeEach
+  void authenticate() {
+    anonymousClient = webTestClient;
+    webTestClient = webTestClient.mutate()
+      .defaultHeader(HttpHeaders.AUTHORIZATION, "Bearer " + jwtService.generate(UUID.randomUUID()))
+      .build();
+  }
+  
   private UserRequest buildUserRequest() {
     Phone phone = Phone.builder()
       .number("123456789")
@@ -70,7 +103,7 @@ class UserControllerTest {
       .build();
     UserResponse user2 = buildUserResponse(UUID.randomUUID(), userRequest2);
     
-    Mockito.when(userService.getUsers()).thenReturn(Flux.just(user1, user2));
+    Mockito.when(userService.getUsers(null, null)).thenReturn(Flux.just(user1, user2));
     
     webTestClient.get()
       .uri("/users")
@@ -86,6 +119,81 @@ class UserControllerTest {
       });
   }
   
+  @Test
+  void getAllUsers_forwardsCursorAndLimit() {
+    UUID after = UUID.randomUUID();
+    UserResponse user = buildUserResponse(UUID.randomUUID(), buildUserRequest());
+    
+    Mockito.when(userService.getUsers(after, 10)).thenReturn(Flux.just(user));
+    
+    webTestClient.get()
+      .uri(uriBuilder -> uriBuilder.path("/users")
+        .queryParam("after", after)
+        .queryParam("limit", 10)
+        .build())
+      .accept(MediaType.APPLICATION_JSON)
+      .exchange()
+      .expectStatus().isOk()
+      .expectBodyList(UserResponse.class)
+      .hasSize(1);
+  }
+  
+  @Test
+  void getAllUsers_withFields_serializesOnlyThoseFields() {
+    UserResponse user = buildUserResponse(UUID.randomUUID(), buildUserRequest());
+    Set<UserField> fields = UserField.parse("email,isActive");
+    
+    Mockito.when(userService.getUsers(null, null, fields)).thenReturn(Flux.just(user));
+    
+    webTestClient.get()
+      .uri("/users?fields=email,isActive")
+      .accept(MediaType.APPLICATION_JSON)
+      .exchange()
+      .expectStatus().isOk()
+      .expectBody()
+      .jsonPath("$[0].uuid").isEqualTo(user.getUuid())
+      .jsonPath("$[0].userInformation.email").isEqualTo(user.getUserInformation().getEmail())
+      .jsonPath("$[0].isActive").isEqualTo(true)
+      .jsonPath("$[0].userInformation.name").doesNotExist()
+      .jsonPath("$[0].userInformation.phones").doesNotExist()
+      .jsonPath("$[0].token").doesNotExist()
+      .jsonPath("$[0].created").doesNotExist();
+  }
+  
+  @Test
+  void getUserById_withUnknownField_isBadRequest() {
+    webTestClient.get()
+      .uri("/users/id/{uuid}?fields=email,password", UUID.randomUUID())
+      .accept(MediaType.APPLICATION_JSON)
+      .exchange()
+      .expectStatus().isBadRequest()
+      .expectBody()
+      .jsonPath("$.message").isEqualTo("Unknown field: password");
+    
+    Mockito.verifyNoInteractions(userService);
+  }
+  
+  @Test
+  void streamAllUsers_returnsNdjson() {
+    UserResponse user1 = buildUserResponse(UUID.randomUUID(), buildUserRequest());
+    UserResponse user2 = buildUserResponse(UUID.randomUUID(), buildUserRequest());
+    
+    Mockito.when(userService.streamUsers()).thenReturn(Flux.just(user1, user2));
+    
+    webTestClient.get()
+      .uri("/users")
+      .accept(MediaType.APPLICATION_NDJSON)
+      .exchange()
+      .expectStatus().isOk()
+      .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+      .returnResult(UserResponse.class)
+      .getResponseBody()
+      .map(UserResponse::getUuid)
+      .as(StepVerifier::create)
+      .expectNext(user1.getUuid(), user2.getUuid())
+      .verifyComplete();
+  }
+  
   @Test
   void getUserById_returnsUser() {
     UUID uuid = UUID.randomUUID();
@@ -111,6 +219,89 @@ class UserControllerTest {
       });
   }
   
+  @Test
+  void getUserById_withoutToken_isUnauthorized() {
+    anonymousClient.get()
+      .uri("/users/id/{uuid}", UUID.randomUUID())
+      .exchange()
+      .expectStatus().isUnauthorized()
+      .expectHeader().valueEquals(HttpHeaders.WWW_AUTHENTICATE, "Bearer")
+      .expectBody()
+      .jsonPath("$.message").isEqualTo("Missing or invalid bearer token");
+    
+    Mockito.verifyNoInteractions(userService);
+  }
+  
+  @Test
+  void getAllUsers_withTamperedToken_isUnauthorized() {
+    String token = jwtService.generate(UUID.randomUUID());
+    String tampered = token.substring(0, token.length() - 2) + (token.endsWith("AA") ? "BB" : "AA");
+    
+    anonymousClient.get()
+      .uri("/users")
+      .header(HttpHeaders.AUTHORIZATION, "Bearer " + tampered)
+      .exchange()
+      .expectStatus().isUnauthorized();
+    
+    Mockito.verifyNoInteractions(userService);
+  }
+  
+  @Test
+  void updateUser_ownToken_appliesPatch() {
+    UUID uuid = UUID.randomUUID();
+    UserResponse updated = buildUserResponse(uuid, buildUserRequest());
+    updated.setVersion(1L);
+    
+    Mockito.when(userService.updateUser(Mockito.eq(uuid), Mockito.any(UserPatchRequest.class)))
+      .thenReturn(Mono.just(updated));
+    
+    anonymousClient.patch()
+      .uri("/users/id/{uuid}", uuid)
+      .header(HttpHeaders.AUTHORIZATION, "Bearer " + jwtService.generate(uuid))
+      .contentType(MediaType.valueOf(UserController.APPLICATION_MERGE_PATCH_JSON_VALUE))
+      .bodyValue("{\"name\":\"Juan P. Pérez\",\"version\":0}")
+      .exchange()
+      .expectStatus().isOk()
+      .expectBody()
+      .jsonPath("$.version").isEqualTo(1);
+  }
+  
+  @Test
+  void updateUser_otherUsersToken_isForbidden() {
+    webTestClient.patch()
+      .uri("/users/id/{uuid}", UUID.randomUUID())
+      .contentType(MediaType.APPLICATION_JSON)
+      .bodyValue("{\"name\":\"Juan P. Pérez\",\"version\":0}")
+      .exchange()
+      .expectStatus().isForbidden();
+    
+    anonymousClient.patch()
+      .uri("/users/id/{uuid}", UUID.randomUUID())
+      .contentType(MediaType.APPLICATION_JSON)
+      .bodyValue("{\"name\":\"Juan P. Pérez\",\"version\":0}")
+      .exchange()
+      .expectStatus().isUnauthorized();
+    
+    Mockito.verifyNoInteractions(userService);
+  }
+  
+  @Test
+  void searchUsers_forwardsCriteriaAndCursor() {
+    UUID after = UUID.randomUUID();
+    UserResponse found = buildUserResponse(UUID.randomUUID(), buildUserRequest());
+    var query = new UserSearchIndex.Query("juan", "example.com", "57", null);
+    
+    Mockito.when(userService.searchUsers(query, after, 10)).thenReturn(Flux.just(found));
+    
+    webTestClient.get()
+      .uri("/users/search?name=juan&emailDomain=example.com&countryCode=57&after={after}&limit=10", after)
+      .accept(MediaType.APPLICATION_JSON)
+      .exchange()
+      .expectStatus().isOk()
+      .expectBody()
+      .jsonPath("$[0].uuid").isEqualTo(found.getUuid());
+  }
+  
   @Test
   void createUser_returnsCreatedUser() {
     UserRequest request = buildUserRequest();
@@ -134,4 +325,173 @@ class UserControllerTest {
         assertThat(actual.getIsActive()).isEqualTo(expected.getIsActive());
       });
   }
-}
\ No newline at end of file
+  
+  @Test
+  void createUser_sameIdempotencyKey_createsOnce() {
+    UserRequest request = buildUserRequest();
+    UserResponse expected = buildUserResponse(UUID.randomUUID(), request);
+    
+    Mockito.when(userService.createUser(Mockito.any(UserRequest.class))).thenReturn(Mono.just(expected));
+    
+    for (int attempt = 0; attempt < 2; attempt++) {
+      webTestClient.post()
+        .uri("/users")
+        .header("Idempotency-Key", "create-once")
+        .contentType(MediaType.APPLICATION_JSON)
+        .bodyValue(request)
+        .exchange()
+        .expectStatus().isOk()
+        .expectBody(UserResponse.class)
+        .value(actual -> assertThat(actual.getUuid()).isEqualTo(expected.getUuid()));
+    }
+    
+    Mockito.verify(userService, Mockito.times(1)).createUser(Mockito.any(UserRequest.class));
+  }
+  
+  @Test
+  void createUser_idempotencyKeyReusedWithOtherBody_returnsUnprocessableEntity() {
+    UserRequest request = buildUserRequest();
+    UserRequest other = buildUserRequest();
+    other.setEmail("otro@example.com");
+    
+    Mockito.when(userService.createUser(Mockito.any(UserRequest.class)))
+      .thenReturn(Mono.just(buildUserResponse(UUID.randomUUID(), request)));
+    
+    webTestClient.post()
+      .uri("/users")
+      .header("Idempotency-Key", "reused")
+      .contentType(MediaType.APPLICATION_JSON)
+      .bodyValue(request)
+      .exchange()
+      .expectStatus().isOk();
+    
+    webTestClient.post()
+      .uri("/users")
+      .header("Idempotency-Key", "reused")
+      .contentType(MediaType.APPLICATION_JSON)
+      .bodyValue(other)
+      .exchange()
+      .expectStatus().isEqualTo(422)
+      .expectBody()
+      .jsonPath("$.message").isEqualTo("Idempotency-Key was already used with a different request");
+  }
+  
+  @Test
+  void createUsers_returnsPerItemResults() {
+    UserRequest request = buildUserRequest();
+    BatchUserResult created = BatchUserResult.builder()
+      .index(0)
+      .email(request.getEmail())
+      .status(BatchUserResult.Status.CREATED)
+      .user(buildUserResponse(UUID.randomUUID(), request))
+      .build();
+    BatchUserResult rejected = BatchUserResult.builder()
+      .index(1)
+      .email(request.getEmail())
+      .status(BatchUserResult.Status.REJECTED)
+      .reason("Duplicate email in batch")
+      .build();
+    
+    Mockito.when(userService.createUsers(Mockito.any())).thenReturn(Flux.just(created, rejected));
+    
+    webTestClient.post()
+      .uri("/users/batch")
+      .contentType(MediaType.APPLICATION_JSON)
+      .bodyValue(List.of(request, request))
+      .exchange()
+      .expectStatus().isOk()
+      .expectBodyList(BatchUserResult.class)
+      .consumeWith(response -> assertThat(response.getResponseBody())
+        .extracting(BatchUserResult::getStatus)
+        .containsExactly(BatchUserResult.Status.CREATED, BatchUserResult.Status.REJECTED));
+  }
+
+  @Test
+  void createUser_withSmile_readsAndWritesSmile() {
+    UserRequest request = buildUserRequest();
+    UserResponse expected = buildUserResponse(UUID.randomUUID(), request);
+    MediaType smile = MediaType.parseMediaType(UserController.APPLICATION_SMILE_VALUE);
+    
+    Mockito.when(userService.createUser(request)).thenReturn(Mono.just(expected));
+    
+    webTestClient.post()
+      .uri("/users")
+      .contentType(smile)
+      .accept(smile)
+      .bodyValue(request)
+      .exchange()
+      .expectStatus().isOk()
+      .expectHeader().contentTypeCompatibleWith(smile)
+      .expectBody(UserResponse.class)
+      .value(actual -> {
+        assertThat(actual.getUuid()).isEqualTo(expected.getUuid());
+        assertThat(actual.getCreated()).isEqualTo(expected.getCreated());
+        assertThat(actual.getUserInformation().getPhones()).isEqualTo(expected.getUserInformation().getPhones());
+      });
+  }
+  
+  @Test
+  void streamAllUsers_returnsStreamingSmile() {
+    UserResponse user1 = buildUserResponse(UUID.randomUUID(), buildUserRequest());
+    UserResponse user2 = buildUserResponse(UUID.randomUUID(), buildUserRequest());
+    MediaType streamingSmile = MediaType.parseMediaType(UserController.APPLICATION_STREAM_SMILE_VALUE);
+    
+    Mockito.when(userService.streamUsers()).thenReturn(Flux.just(user1, user2));
+    
+    webTestClient.get()
+      .uri("/users")
+      .accept(streamingSmile)
+      .exchange()
+      .expectStatus().isOk()
+      .expectHeader().contentTypeCompatibleWith(streamingSmile)
+      .returnResult(UserResponse.class)
+      .getResponseBody()
+      .map(UserResponse::getUuid)
+      .as(StepVerifier::create)
+      .expectNext(user1.getUuid(), user2.getUuid())
+      .verifyComplete();
+  }
+  
+  @Test
+  void getLatency_reportsRecordedEndpoints() {
+    UUID uuid = UUID.randomUUID();
+    Mockito.when(userService.getUser(uuid)).thenReturn(Mono.just(buildUserResponse(uuid, buildUserRequest())));
+    
+    anonymousClient.delete()
+      .uri("/users/metrics/latency")
+      .header(HttpHeaders.AUTHORIZATION, "Bearer " + ADMIN_TOKEN)
+      .exchange()
+      .expectStatus().isOk();
+    webTestClient.get().uri("/users/id/{uuid}", uuid).exchange().expectStatus().isOk();
+    
+    webTestClient.get()
+      .uri("/users/metrics/latency")
+      .exchange()
+      .expectStatus().isOk()
+      .expectBodyList(LatencySnapshot.class)
+      .consumeWith(response -> assertThat(response.getResponseBody())
+        .singleElement()
+        .satisfies(snapshot -> {
+          assertThat(snapshot.getEndpoint()).isEqualTo("GET /users/id/{uuid}");
+          assertThat(snapshot.getCount()).isEqualTo(1);
+          assertThat(snapshot.getErrors()).isZero();
+        }));
+  }
+  
+  @Test
+  void resetLatency_withoutTheOperatorToken_isUnauthorized() {
+    anonymousClient.delete()
+      .uri("/users/metrics/latency")
+      .exchange()
+      .expectStatus().isUnauthorized();
+    webTestClient.delete()
+      .uri("/users/metrics/latency")
+      .exchange()
+      .expectStatus().isUnauthorized();
+    
+    anonymousClient.get()
+      .uri("/users/metrics/latency")
+      .exchange()
+      .expectStatus().isOk();
+  }
+}
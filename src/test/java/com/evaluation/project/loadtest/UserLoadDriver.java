@@ -0,0 +1,326 @@
+package com.evaluation.project.loadtest;
+
+import com.evaluation.project.CreateUserApplication;
+import com.evaluation.project.model.dto.BatchUserResult;
+import com.evaluation.project.model.dto.LatencySnapshot;
+import com.evaluation.project.model.dto.Phone;
+import com.evaluation.project.model.dto.UserRequest;
+import com.evaluation.project.model.dto.UserResponse;
+import com.evaluation.project.service.impl.LatencyRecorder;
+import org.HdrHistogram.Histogram;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+import reactor.netty.resources.LoopResources;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Open-model load generator for the user API. Requests are scheduled at a fixed rate and their latency is measured
+ * from the moment they were due, so a stalled server shows up in the percentiles instead of silently lowering the
+ * offered load.
+ *
+ * <p>Arguments are {@code key=value} pairs: {@code rps}, {@code duration}, {@code warmup}, {@code seed} (users created
+ * before the run), {@code connections}, {@code mix} (e.g. {@code create:20,get:70,list:10}) and {@code target}
+ * (base URL of a running instance; when absent the application is started in-process with in-memory H2). Options
+ * starting with {@code app.} are passed to the in-process application, e.g. {@code app.password.iterations=1000};
+ * its creation rate limit is off unless {@code app.admission.rate-limit.enabled} is given. Resetting the server's
+ * histograms after the warm-up takes the operator token: {@code app.snapshot.admin-token}, generated for an in-process
+ * application; against a {@code target} without it the server histograms include the warm-up.
+ */
+public final class UserLoadDriver {
+
+  private static final long TICK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+  private static final int PAGE_SIZE = 50;
+  private static final String NO_USER = "00000000-0000-0000-0000-000000000000";
+
+  private final WebClient client;
+  private final Map<Operation, Integer> mix;
+  private final String adminToken;
+  private final AtomicLong emailSequence = new AtomicLong();
+  private final String runId = Long.toString(System.currentTimeMillis(), 36);
+  private List<UserResponse> seededUsers = List.of();
+
+  private UserLoadDriver(WebClient client, Map<Operation, Integer> mix, String adminToken) {
+    this.client = client;
+    this.mix = mix;
+    this.adminToken = adminToken;
+  }
+
+  public static void main(String[] args) {
+    var options = parse(args);
+    int rps = Integer.parseInt(options.getOrDefault("rps", "500"));
+    Duration duration = DurationStyle.detectAndParse(options.getOrDefault("duration", "30s"));
+    Duration warmup = DurationStyle.detectAndParse(options.getOrDefault("warmup", "5s"));
+    int seed = Integer.parseInt(options.getOrDefault("seed", "1000"));
+    int connections = Integer.parseInt(options.getOrDefault("connections", "512"));
+    var mix = parseMix(options.getOrDefault("mix", "create:20,get:70,list:10"));
+
+    ConfigurableApplicationContext context = null;
+    String target = options.get("target");
+    if (target == null) {
+      options.putIfAbsent("app.snapshot.admin-token", UUID.randomUUID().toString());
+      var applicationArgs = new ArrayList<>(List.of(
+        "--server.port=0", "--logging.level.root=WARN", "--logging.level.org.springframework.web=WARN"));
+      options.forEach((key, value) -> {
+        if (key.startsWith("app.")) {
+          applicationArgs.add("--" + key + "=" + value);
+        }
+      });
+      // every request comes from this process, so the per-client rate limit would cap the offered load
+      if (!options.containsKey("app.admission.rate-limit.enabled")) {
+        applicationArgs.add("--app.admission.rate-limit.enabled=false");
+      }
+      context = new SpringApplicationBuilder(CreateUserApplication.class).run(applicationArgs.toArray(String[]::new));
+      target = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+    }
+
+    var connectionProvider = ConnectionProvider.builder("load")
+      .maxConnections(connections)
+      .pendingAcquireMaxCount(-1)
+      .build();
+    // own event loops, so an in-process server stalling its loops does not also stall the client
+    var loopResources = LoopResources.create("load-client", 2, true);
+    var client = WebClient.builder()
+      .baseUrl(target)
+      .clientConnector(new ReactorClientHttpConnector(HttpClient.create(connectionProvider).runOn(loopResources)))
+      .codecs(codecs -> codecs.defaultCodecs().maxInMemorySize(16 * 1024 * 1024))
+      .build();
+
+    try {
+      var driver = new UserLoadDriver(client, mix, options.get("app.snapshot.admin-token"));
+      System.out.printf("Target %s, %d req/s for %s (warm-up %s), mix %s, %d seeded users%n",
+        target, rps, duration, warmup, mix, seed);
+      driver.seed(seed);
+      driver.run(rps, warmup);
+      driver.resetServerLatency();
+
+      var result = driver.run(rps, duration);
+      result.print("Client (response time from scheduled start)", duration);
+
+      var serverSide = client.get().uri("/users/metrics/latency")
+        .retrieve()
+        .bodyToFlux(LatencySnapshot.class)
+        .collectList()
+        .block();
+      print("Server (UserController, GET /users/metrics/latency)", serverSide, duration);
+    } finally {
+      connectionProvider.dispose();
+      loopResources.dispose();
+      if (context != null) {
+        context.close();
+      }
+    }
+  }
+
+  private void seed(int users) {
+    if (users <= 0) {
+      return;
+    }
+    var requests = new ArrayList<UserRequest>(users);
+    for (int i = 0; i < users; i++) {
+      requests.add(nextUserRequest());
+    }
+    seededUsers = client.post().uri("/users/batch")
+      .bodyValue(requests)
+      .retrieve()
+      .bodyToFlux(BatchUserResult.class)
+      .filter(result -> result.getStatus() == BatchUserResult.Status.CREATED)
+      .map(BatchUserResult::getUser)
+      .collectList()
+      .block();
+  }
+
+  private void resetServerLatency() {
+    if (adminToken == null) {
+      System.out.println("No app.snapshot.admin-token given, the server histograms include the warm-up");
+      return;
+    }
+    client.delete().uri("/users/metrics/latency")
+      .header(HttpHeaders.AUTHORIZATION, "Bearer " + adminToken)
+      .retrieve()
+      .toBodilessEntity()
+      .block();
+  }
+
+  private LoadResult run(int rps, Duration duration) {
+    var result = new LoadResult();
+    var weighted = weightedOperations();
+    long ticks = duration.toMillis();
+    long start = System.nanoTime();
+
+    Flux.interval(Duration.ofMillis(1))
+      .onBackpressureBuffer()
+      .take(ticks)
+      .concatMapIterable(tick -> {
+        int due = (int) ((tick + 1) * rps / 1000 - tick * rps / 1000);
+        var operations = new ArrayList<Operation>(due);
+        for (int i = 0; i < due; i++) {
+          operations.add(weighted.get(ThreadLocalRandom.current().nextInt(weighted.size())));
+        }
+        return operations.stream().map(operation -> new ScheduledRequest(operation, start + tick * TICK_NANOS)).toList();
+      })
+      .flatMap(request -> execute(request.operation())
+        .doOnNext(success -> result.record(request.operation(), System.nanoTime() - request.intendedStart(), !success)),
+        Integer.MAX_VALUE)
+      .blockLast();
+    return result;
+  }
+
+  private Mono<Boolean> execute(Operation operation) {
+    // reads authenticate as a random seeded user; without seeded users they go out unauthenticated and fail with 401
+    var user = randomSeededUser();
+    WebClient.RequestHeadersSpec<?> request = switch (operation) {
+      case CREATE -> client.post().uri("/users").bodyValue(nextUserRequest());
+      case GET -> client.get().uri("/users/id/{uuid}", user == null ? NO_USER : user.getUuid());
+      case LIST -> user == null
+        ? client.get().uri("/users?limit={limit}", PAGE_SIZE)
+        : client.get().uri("/users?after={after}&limit={limit}", user.getUuid(), PAGE_SIZE);
+    };
+    if (operation != Operation.CREATE && user != null) {
+      request = request.header(HttpHeaders.AUTHORIZATION, "Bearer " + user.getToken());
+    }
+    return request
+      .exchangeToMono(response -> response.releaseBody().thenReturn(response.statusCode().is2xxSuccessful()))
+      .onErrorReturn(false);
+  }
+
+  private UserRequest nextUserRequest() {
+    return UserRequest.builder()
+      .name("Load User")
+      .email("load-" + runId + "-" + emailSequence.incrementAndGet() + "@example.com")
+      .password("Passw0rd!")
+      .phones(List.of(Phone.builder().number("300000000").cityCode("01").countryCode("57").build()))
+      .build();
+  }
+
+  private UserResponse randomSeededUser() {
+    return seededUsers.isEmpty()
+      ? null
+      : seededUsers.get(ThreadLocalRandom.current().nextInt(seededUsers.size()));
+  }
+
+  private List<Operation> weightedOperations() {
+    var weighted = new ArrayList<Operation>();
+    mix.forEach((operation, weight) -> {
+      for (int i = 0; i < weight; i++) {
+        weighted.add(operation);
+      }
+    });
+    if (weighted.isEmpty()) {
+      throw new IllegalArgumentException("mix must contain at least one positive weight");
+    }
+    return weighted;
+  }
+
+  private static Map<String, String> parse(String[] args) {
+    var options = new HashMap<String, String>();
+    for (String arg : args) {
+      int separator = arg.indexOf('=');
+      if (separator <= 0) {
+        throw new IllegalArgumentException("Expected key=value but got " + arg);
+      }
+      options.put(arg.substring(0, separator), arg.substring(separator + 1));
+    }
+    return options;
+  }
+
+  private static Map<Operation, Integer> parseMix(String mix) {
+    var weights = new LinkedHashMap<Operation, Integer>();
+    for (String entry : mix.split(",")) {
+      String[] parts = entry.split(":");
+      weights.put(Operation.valueOf(parts[0].trim().toUpperCase()), Integer.parseInt(parts[1].trim()));
+    }
+    return weights;
+  }
+
+  private static void print(String title, List<LatencySnapshot> snapshots, Duration duration) {
+    System.out.printf("%n%s%n", title);
+    System.out.printf("%-22s %9s %7s %7s %9s %8s %8s %8s %8s %8s %8s%n",
+      "endpoint", "count", "errors", "err%", "req/s", "mean", "p50", "p90", "p99", "p99.9", "max");
+    for (LatencySnapshot snapshot : snapshots) {
+      System.out.printf("%-22s %9d %7d %6.2f%% %9.1f %8.2f %8.2f %8.2f %8.2f %8.2f %8.2f%n",
+        snapshot.getEndpoint(),
+        snapshot.getCount(),
+        snapshot.getErrors(),
+        snapshot.getCount() == 0 ? 0.0 : 100.0 * snapshot.getErrors() / snapshot.getCount(),
+        snapshot.getCount() / (duration.toMillis() / 1000.0),
+        snapshot.getMeanMs(),
+        snapshot.getP50Ms(),
+        snapshot.getP90Ms(),
+        snapshot.getP99Ms(),
+        snapshot.getP999Ms(),
+        snapshot.getMaxMs());
+    }
+    System.out.println("(latencies in ms)");
+  }
+
+  private enum Operation {
+    CREATE("POST /users"),
+    GET("GET /users/id/{uuid}"),
+    LIST("GET /users");
+
+    private final String endpoint;
+
+    Operation(String endpoint) {
+      this.endpoint = endpoint;
+    }
+  }
+
+  private record ScheduledRequest(Operation operation, long intendedStart) {
+  }
+
+  private static final class LoadResult {
+
+    private final Map<Operation, Histogram> histograms = new LinkedHashMap<>();
+    private final Map<Operation, LongAdder> errors = new LinkedHashMap<>();
+
+    private LoadResult() {
+      for (Operation operation : Operation.values()) {
+        histograms.put(operation, LatencyRecorder.newHistogram());
+        errors.put(operation, new LongAdder());
+      }
+    }
+
+    private void record(Operation operation, long latencyNanos, boolean error) {
+      histograms.get(operation).recordValue(latencyNanos);
+      if (error) {
+        errors.get(operation).increment();
+      }
+    }
+
+    private void print(String title, Duration duration) {
+      var snapshots = new ArrayList<LatencySnapshot>();
+      var total = LatencyRecorder.newHistogram();
+      long totalErrors = 0;
+      for (Operation operation : Operation.values()) {
+        Histogram histogram = histograms.get(operation);
+        long operationErrors = errors.get(operation).sum();
+        if (histogram.getTotalCount() > 0) {
+          snapshots.add(LatencyRecorder.snapshot(operation.endpoint, histogram, operationErrors));
+          total.add(histogram);
+          totalErrors += operationErrors;
+        }
+      }
+      snapshots.add(LatencyRecorder.snapshot("total", total, totalErrors));
+      UserLoadDriver.print(title, snapshots, duration);
+    }
+  }
+}
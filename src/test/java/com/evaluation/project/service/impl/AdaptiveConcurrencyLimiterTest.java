@@ -0,0 +1,78 @@
+package com.evaluation.project.service.impl;
+
+import com.evaluation.project.util.ApiException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.http.HttpStatus;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AdaptiveConcurrencyLimiterTest {
+
+  private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+  private AdaptiveConcurrencyLimiter limiter(int initialLimit, Duration latencyThreshold) {
+    return new AdaptiveConcurrencyLimiter(initialLimit, 1, 8, latencyThreshold, 0.5, meterRegistry);
+  }
+
+  @Test
+  void limit_rejectsOperationsOverTheLimit() {
+    AdaptiveConcurrencyLimiter limiter = limiter(2, Duration.ofSeconds(1));
+    Sinks.One<String> first = Sinks.one();
+    Sinks.One<String> second = Sinks.one();
+
+    StepVerifier.create(limiter.limit(first.asMono()).zipWith(limiter.limit(second.asMono())))
+      .then(() -> {
+        assertThat(limiter.getInFlight()).isEqualTo(2);
+        StepVerifier.create(limiter.limit(Mono.just("third")))
+          .expectErrorSatisfies(throwable -> assertThat(((ApiException) throwable).getStatus())
+            .isEqualTo(HttpStatus.SERVICE_UNAVAILABLE))
+          .verify();
+        first.tryEmitValue("first");
+        second.tryEmitValue("second");
+      })
+      .expectNextCount(1)
+      .verifyComplete();
+
+    assertThat(limiter.getInFlight()).isZero();
+    assertThat(meterRegistry.get("users.admission.rejected").tag("limiter", "concurrency").counter().count()).isEqualTo(1);
+  }
+
+  @Test
+  void limit_growsWhileBusyAndFast() {
+    AdaptiveConcurrencyLimiter limiter = limiter(1, Duration.ofSeconds(1));
+
+    limiter.limit(Mono.just("ok")).block();
+    limiter.limit(Mono.just("ok")).block();
+
+    assertThat(limiter.getLimit()).isEqualTo(3);
+    assertThat(meterRegistry.get("users.admission.concurrency.limit").gauge().value()).isEqualTo(3);
+  }
+
+  @Test
+  void limit_shrinksOnSlowOperationsAndFailures() {
+    AdaptiveConcurrencyLimiter limiter = limiter(8, Duration.ofMillis(1));
+
+    limiter.limit(Mono.delay(Duration.ofMillis(20))).block();
+    assertThat(limiter.getLimit()).isEqualTo(4);
+
+    StepVerifier.create(limiter.limit(Mono.error(new DataAccessResourceFailureException("pool exhausted"))))
+      .expectError(DataAccessResourceFailureException.class)
+      .verify();
+    assertThat(limiter.getLimit()).isEqualTo(2);
+
+    // a constraint violation counts as a completed operation, not as a sign of overload
+    StepVerifier.create(limiter.limit(Mono.error(new DuplicateKeyException("duplicate email"))))
+      .expectError(DuplicateKeyException.class)
+      .verify();
+    assertThat(limiter.getLimit()).isEqualTo(3);
+    assertThat(limiter.getInFlight()).isZero();
+  }
+}
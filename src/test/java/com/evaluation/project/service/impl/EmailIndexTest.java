@@ -0,0 +1,53 @@
+package com.evaluation.project.service.impl;
+
+import com.evaluation.project.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import reactor.core.publisher.Flux;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class EmailIndexTest {
+  
+  private EmailIndex loadedIndex(String... emails) {
+    UserRepository userRepository = Mockito.mock(UserRepository.class);
+    Mockito.when(userRepository.findAllEmails()).thenReturn(Flux.just(emails));
+    EmailIndex emailIndex = new EmailIndex(userRepository, 10_000, 0.01);
+    emailIndex.load();
+    return emailIndex;
+  }
+  
+  @Test
+  void mightContain_beforeLoad_alwaysTrue() {
+    EmailIndex emailIndex = new EmailIndex(Mockito.mock(UserRepository.class), 10_000, 0.01);
+    
+    assertThat(emailIndex.isReady()).isFalse();
+    assertThat(emailIndex.mightContain("nuevo@example.com")).isTrue();
+  }
+  
+  @Test
+  void mightContain_loadedEmails_ignoringCase() {
+    EmailIndex emailIndex = loadedIndex("juan.perez@example.com", "ana.gomez@example.com");
+    
+    assertThat(emailIndex.isReady()).isTrue();
+    assertThat(emailIndex.mightContain("juan.perez@example.com")).isTrue();
+    assertThat(emailIndex.mightContain(" Ana.Gomez@Example.com ")).isTrue();
+  }
+  
+  @Test
+  void mightContain_unknownEmails_mostlyFalse() {
+    EmailIndex emailIndex = loadedIndex();
+    for (int i = 0; i < 1_000; i++) {
+      emailIndex.put("user" + i + "@example.com");
+    }
+    
+    long falsePositives = 0;
+    for (int i = 0; i < 10_000; i++) {
+      if (emailIndex.mightContain("other" + i + "@example.com")) {
+        falsePositives++;
+      }
+    }
+    
+    assertThat(falsePositives).isLessThan(100);
+  }
+}
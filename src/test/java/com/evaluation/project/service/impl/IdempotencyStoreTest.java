@@ -0,0 +1,96 @@
+package com.evaluation.project.service.impl;
+
+import com.evaluation.project.model.dto.UserRequest;
+import com.evaluation.project.model.dto.UserResponse;
+import com.evaluation.project.util.ApiException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class IdempotencyStoreTest {
+  
+  private final IdempotencyStore store = new IdempotencyStore(100, Duration.ofMinutes(1), new SimpleMeterRegistry());
+  
+  private UserRequest request(String email) {
+    return UserRequest.builder()
+      .name("Juan Pérez")
+      .email(email)
+      .password("pass123")
+      .phones(List.of())
+      .build();
+  }
+  
+  @Test
+  void execute_concurrentDuplicates_shareInFlightCreation() {
+    UserResponse user = UserResponse.builder().uuid(UUID.randomUUID().toString()).build();
+    Sinks.One<UserResponse> pendingCreate = Sinks.one();
+    AtomicInteger creations = new AtomicInteger();
+    
+    Mono<UserResponse> first = store.execute("key", request("juan@example.com"), () -> {
+      creations.incrementAndGet();
+      return pendingCreate.asMono();
+    });
+    Mono<UserResponse> retry = store.execute("key", request("juan@example.com"), () -> {
+      creations.incrementAndGet();
+      return Mono.just(user);
+    });
+    
+    StepVerifier.create(Mono.zip(first, retry))
+      .then(() -> pendingCreate.tryEmitValue(user))
+      .assertNext(pair -> assertThat(pair.getT1()).isSameAs(pair.getT2()))
+      .verifyComplete();
+    
+    StepVerifier.create(store.execute("key", request("juan@example.com"), Mono::empty))
+      .expectNext(user)
+      .verifyComplete();
+    assertThat(creations).hasValue(1);
+  }
+  
+  @Test
+  void execute_failedCreation_isNotReplayed() {
+    UserResponse user = UserResponse.builder().uuid(UUID.randomUUID().toString()).build();
+    
+    StepVerifier.create(store.execute("key", request("juan@example.com"), () -> Mono.error(new IllegalStateException("db down"))))
+      .expectErrorMessage("db down")
+      .verify();
+    
+    StepVerifier.create(store.execute("key", request("juan@example.com"), () -> Mono.just(user)))
+      .expectNext(user)
+      .verifyComplete();
+  }
+  
+  @Test
+  void execute_sameKeyOtherRequest_isRejected() {
+    UserResponse user = UserResponse.builder().uuid(UUID.randomUUID().toString()).build();
+    store.execute("key", request("juan@example.com"), () -> Mono.just(user)).block();
+    
+    StepVerifier.create(store.execute("key", request("ana@example.com"), () -> Mono.just(user)))
+      .expectErrorSatisfies(throwable -> assertThat(throwable)
+        .isInstanceOf(ApiException.class)
+        .hasMessage("Idempotency-Key was already used with a different request"))
+      .verify();
+  }
+  
+  @Test
+  void digest_tellsApartEveryFieldAndItsBoundaries() {
+    UserRequest request = request("juan@example.com");
+    UserRequest otherPassword = request("juan@example.com");
+    otherPassword.setPassword("pass124");
+    UserRequest shiftedBoundary = request("juan@example.com");
+    shiftedBoundary.setName("Juan Pérezj");
+    shiftedBoundary.setEmail("uan@example.com");
+    
+    assertThat(IdempotencyStore.digest(request)).isEqualTo(IdempotencyStore.digest(request("juan@example.com")));
+    assertThat(IdempotencyStore.digest(request)).isNotEqualTo(IdempotencyStore.digest(otherPassword));
+    assertThat(IdempotencyStore.digest(request)).isNotEqualTo(IdempotencyStore.digest(shiftedBoundary));
+  }
+}
@@ -0,0 +1,96 @@
+package com.evaluation.project.service.impl;
+
+import com.auth0.jwt.JWT;
+import com.auth0.jwt.algorithms.Algorithm;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.Date;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class JwtServiceTest {
+  
+  private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+  private final JwtService jwtService = new JwtService("secret_key", 60, 100, meterRegistry);
+  
+  @Test
+  void verify_generatedToken_returnsSubject() {
+    UUID userId = UUID.randomUUID();
+    
+    JwtService.Claims claims = jwtService.verify(jwtService.generate(userId));
+    
+    assertThat(claims).isNotNull();
+    assertThat(claims.subject()).isEqualTo(userId);
+    assertThat(claims.expiresAtSeconds()).isGreaterThan(Instant.now().getEpochSecond());
+  }
+  
+  @Test
+  void verify_repeatedToken_hitsCache() {
+    String token = jwtService.generate(UUID.randomUUID());
+    
+    jwtService.verify(token);
+    jwtService.verify(token);
+    
+    assertThat(meterRegistry.get("cache.gets").tag("cache", "jwt").tag("result", "hit").functionCounter().count())
+      .isEqualTo(1);
+  }
+  
+  @Test
+  void verify_rejectsTamperedForeignAndExpiredTokens() {
+    String token = jwtService.generate(UUID.randomUUID());
+    String[] parts = token.split("\\.");
+    String otherPayload = jwtService.generate(UUID.randomUUID()).split("\\.")[1];
+    
+    assertThat(jwtService.verify(parts[0] + "." + otherPayload + "." + parts[2])).isNull();
+    assertThat(new JwtService("other_secret", 60, 100, meterRegistry).verify(token)).isNull();
+    assertThat(jwtService.verify(new JwtService("secret_key", 0, 100, meterRegistry).generate(UUID.randomUUID()))).isNull();
+    assertThat(jwtService.verify("not-a-token")).isNull();
+    assertThat(jwtService.verify(parts[0] + "..")).isNull();
+  }
+  
+  @Test
+  void verify_rejectsTokensIssuedBeforeRevocation() {
+    Algorithm algorithm = Algorithm.HMAC256("secret_key");
+    UUID userId = UUID.randomUUID();
+    UUID otherId = UUID.randomUUID();
+    Instant earlier = Instant.now().minusSeconds(10);
+    String before = JWT.create()
+      .withSubject(userId.toString())
+      .withIssuedAt(Date.from(earlier))
+      .withExpiresAt(Date.from(earlier.plusSeconds(60)))
+      .sign(algorithm);
+    String otherUsers = JWT.create()
+      .withSubject(otherId.toString())
+      .withIssuedAt(Date.from(earlier))
+      .withExpiresAt(Date.from(earlier.plusSeconds(60)))
+      .sign(algorithm);
+    assertThat(jwtService.verify(before)).isNotNull();
+    
+    jwtService.revoke(userId);
+    
+    assertThat(jwtService.verify(before)).isNull();
+    assertThat(jwtService.verify(jwtService.generate(userId))).isNotNull();
+    assertThat(jwtService.verify(otherUsers)).isNotNull();
+  }
+  
+  @Test
+  void tokens_interoperateWithStandardHs256() {
+    Algorithm algorithm = Algorithm.HMAC256("secret_key");
+    UUID userId = UUID.randomUUID();
+    
+    assertThat(JWT.require(algorithm).build().verify(jwtService.generate(userId)).getSubject())
+      .isEqualTo(userId.toString());
+    
+    String issuedElsewhere = JWT.create()
+      .withSubject(userId.toString())
+      .withIssuedAt(new Date())
+      .withExpiresAt(Date.from(Instant.now().plusSeconds(60)))
+      .sign(algorithm);
+    assertThat(jwtService.verify(issuedElsewhere))
+      .extracting(JwtService.Claims::subject)
+      .isEqualTo(userId);
+  }
+}
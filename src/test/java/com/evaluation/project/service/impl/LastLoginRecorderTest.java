@@ -0,0 +1,68 @@
+package com.evaluation.project.service.impl;
+
+import com.evaluation.project.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.Mockito.when;
+
+class LastLoginRecorderTest {
+
+  private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+  private final UserRepository userRepository = Mockito.mock(UserRepository.class);
+  private final LastLoginRecorder recorder =
+    new LastLoginRecorder(userRepository, Duration.ofSeconds(1), 2, meterRegistry);
+
+  @Test
+  void touch_keepsTheLatestLoginPerUser() {
+    UUID uuid = UUID.randomUUID();
+    LocalDateTime first = LocalDateTime.of(2025, 1, 1, 10, 0);
+
+    recorder.touch(uuid, first.plusMinutes(5));
+    recorder.touch(uuid, first);
+
+    assertThat(recorder.pending(uuid)).isEqualTo(first.plusMinutes(5));
+    assertThat(meterRegistry.get("users.login.touches").counter().count()).isEqualTo(2);
+    assertThat(meterRegistry.get("users.login.pending").gauge().value()).isEqualTo(1);
+  }
+
+  @Test
+  void flush_writesPendingLoginsInBatches() {
+    LocalDateTime loginAt = LocalDateTime.of(2025, 1, 1, 10, 0);
+    for (int i = 0; i < 5; i++) {
+      recorder.touch(UUID.randomUUID(), loginAt);
+    }
+    when(userRepository.updateLastLogins(anyMap())).thenReturn(Mono.empty());
+
+    StepVerifier.create(recorder.flush()).verifyComplete();
+
+    ArgumentCaptor<Map<UUID, LocalDateTime>> batches = ArgumentCaptor.forClass(Map.class);
+    Mockito.verify(userRepository, Mockito.times(3)).updateLastLogins(batches.capture());
+    assertThat(batches.getAllValues()).extracting(Map::size).containsExactly(2, 2, 1);
+    assertThat(meterRegistry.get("users.login.flushed").counter().count()).isEqualTo(5);
+    assertThat(meterRegistry.get("users.login.pending").gauge().value()).isZero();
+  }
+
+  @Test
+  void flush_failure_keepsLoginsPending() {
+    UUID uuid = UUID.randomUUID();
+    recorder.touch(uuid, LocalDateTime.of(2025, 1, 1, 10, 0));
+    when(userRepository.updateLastLogins(anyMap())).thenReturn(Mono.error(new IllegalStateException("down")));
+
+    StepVerifier.create(recorder.flush()).verifyComplete();
+
+    assertThat(recorder.pending(uuid)).isNotNull();
+    assertThat(meterRegistry.get("users.login.flushed").counter().count()).isZero();
+  }
+}
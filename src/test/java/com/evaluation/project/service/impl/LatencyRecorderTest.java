@@ -0,0 +1,53 @@
+package com.evaluation.project.service.impl;
+
+import com.evaluation.project.model.dto.LatencySnapshot;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.assertj.core.api.Assertions.within;
+
+class LatencyRecorderTest {
+  
+  private final LatencyRecorder recorder = new LatencyRecorder();
+  
+  @Test
+  void snapshot_reportsPercentilesPerEndpoint() {
+    for (int i = 1; i <= 100; i++) {
+      recorder.record("GET /users", TimeUnit.MILLISECONDS.toNanos(i), i > 98);
+    }
+    recorder.record("POST /users", TimeUnit.MILLISECONDS.toNanos(5), false);
+    
+    assertThat(recorder.snapshot())
+      .extracting(LatencySnapshot::getEndpoint)
+      .containsExactly("GET /users", "POST /users");
+    LatencySnapshot list = recorder.snapshot().get(0);
+    assertThat(list.getCount()).isEqualTo(100);
+    assertThat(list.getErrors()).isEqualTo(2);
+    assertThat(list.getP50Ms()).isCloseTo(50, within(0.1));
+    assertThat(list.getP99Ms()).isCloseTo(99, within(0.1));
+    assertThat(list.getMaxMs()).isCloseTo(100, within(0.1));
+  }
+  
+  @Test
+  void record_timesPublishersAndCountsErrors() {
+    StepVerifier.create(recorder.record("GET /users/id/{uuid}", Mono.just(1).delayElement(Duration.ofMillis(20))))
+      .expectNext(1)
+      .verifyComplete();
+    StepVerifier.create(recorder.record("GET /users", Flux.error(new IllegalStateException("boom"))))
+      .verifyError(IllegalStateException.class);
+    
+    assertThat(recorder.snapshot())
+      .extracting(LatencySnapshot::getEndpoint, LatencySnapshot::getCount, LatencySnapshot::getErrors)
+      .containsExactly(
+        tuple("GET /users", 1L, 1L),
+        tuple("GET /users/id/{uuid}", 1L, 0L));
+    assertThat(recorder.snapshot().get(1).getP50Ms()).isGreaterThanOrEqualTo(19);
+  }
+}
@@ -0,0 +1,33 @@
+package com.evaluation.project.service.impl;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PasswordHasherTest {
+
+  private final PasswordHasher passwordHasher = new PasswordHasher(1000);
+
+  @Test
+  void hash_matchesOnlyTheOriginalPassword() {
+    String encoded = passwordHasher.hash("pass123");
+
+    assertThat(encoded).startsWith("pbkdf2-sha512$1000$").doesNotContain("pass123");
+    assertThat(passwordHasher.matches("pass123", encoded)).isTrue();
+    assertThat(passwordHasher.matches("pass124", encoded)).isFalse();
+  }
+
+  @Test
+  void hash_usesAFreshSaltEachTime() {
+    assertThat(passwordHasher.hash("pass123")).isNotEqualTo(passwordHasher.hash("pass123"));
+  }
+
+  @Test
+  void matches_keepsTheIterationsStoredInTheHash() {
+    String encoded = new PasswordHasher(2000).hash("pass123");
+
+    assertThat(passwordHasher.matches("pass123", encoded)).isTrue();
+    assertThat(passwordHasher.matches("pass123", "pass123")).isFalse();
+    assertThat(passwordHasher.matches("pass123", null)).isFalse();
+  }
+}
@@ -0,0 +1,87 @@
+package com.evaluation.project.service.impl;
+
+import com.evaluation.project.service.impl.RateLimiter.Scope;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RateLimiterTest {
+
+  private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+  private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+  private double rejections(String limiter) {
+    return meterRegistry.get("users.admission.rejected").tag("limiter", limiter).counter().count();
+  }
+
+  @Test
+  void tokenBucket_allowsTheBurstThenRefillsAtTheRate() {
+    TokenBucket bucket = new TokenBucket(10, 3, 0);
+
+    assertThat(bucket.tryAcquire(0)).isZero();
+    assertThat(bucket.tryAcquire(0)).isZero();
+    assertThat(bucket.tryAcquire(0)).isZero();
+    assertThat(bucket.tryAcquire(0)).isEqualTo(SECOND / 10);
+    assertThat(bucket.availableTokens(0)).isZero();
+
+    assertThat(bucket.tryAcquire(SECOND / 20)).isEqualTo(SECOND / 20);
+    assertThat(bucket.tryAcquire(SECOND / 10)).isZero();
+    assertThat(bucket.tryAcquire(SECOND / 10)).isPositive();
+
+    assertThat(bucket.availableTokens(10 * SECOND)).isEqualTo(3);
+  }
+
+  @Test
+  void tryAcquire_limitsEachClientSeparately() {
+    RateLimiter rateLimiter = new RateLimiter(true, 0.001, 2, 1000, 1000, 1000, 1000, 1000, 1000, 100, meterRegistry);
+
+    assertThat(rateLimiter.tryAcquire(Scope.CREATE, "ip:10.0.0.1")).isZero();
+    assertThat(rateLimiter.tryAcquire(Scope.CREATE, "ip:10.0.0.1")).isZero();
+    assertThat(rateLimiter.tryAcquire(Scope.CREATE, "ip:10.0.0.1")).isPositive();
+    assertThat(rateLimiter.tryAcquire(Scope.CREATE, "ip:10.0.0.2")).isZero();
+
+    assertThat(rejections("client")).isEqualTo(1);
+    assertThat(rejections("global")).isZero();
+  }
+
+  @Test
+  void tryAcquire_limitsAllClientsTogether() {
+    RateLimiter rateLimiter = new RateLimiter(true, 1000, 1000, 0.001, 2, 1000, 1000, 1000, 1000, 100, meterRegistry);
+
+    assertThat(rateLimiter.tryAcquire(Scope.CREATE, "key:a")).isZero();
+    assertThat(rateLimiter.tryAcquire(Scope.CREATE, "key:b")).isZero();
+    assertThat(rateLimiter.tryAcquire(Scope.CREATE, "key:c")).isPositive();
+
+    assertThat(rejections("global")).isEqualTo(1);
+    assertThat(meterRegistry.get("users.admission.global.tokens").gauge().value()).isLessThan(1);
+  }
+
+  @Test
+  void tryAcquire_givesTheClientTokenBackWhenTheGlobalBucketIsEmpty() {
+    RateLimiter rateLimiter = new RateLimiter(true, 0.001, 1, 0.001, 1, 1000, 1000, 1000, 1000, 100, meterRegistry);
+
+    assertThat(rateLimiter.tryAcquire(Scope.CREATE, "key:a")).isZero();
+    assertThat(rateLimiter.tryAcquire(Scope.CREATE, "key:b")).isPositive();
+    // key:b still has its only token, so it is the global bucket that turns it away again
+    assertThat(rateLimiter.tryAcquire(Scope.CREATE, "key:b")).isPositive();
+
+    assertThat(rejections("global")).isEqualTo(2);
+    assertThat(rejections("client")).isZero();
+  }
+
+  @Test
+  void tryAcquire_keepsLoginsApartFromCreations() {
+    RateLimiter rateLimiter = new RateLimiter(true, 0.001, 1, 1000, 1000, 0.001, 1, 1000, 1000, 100, meterRegistry);
+
+    assertThat(rateLimiter.tryAcquire(Scope.LOGIN, "key:a")).isZero();
+    assertThat(rateLimiter.tryAcquire(Scope.LOGIN, "key:a")).isPositive();
+    assertThat(rateLimiter.tryAcquire(Scope.CREATE, "key:a")).isZero();
+
+    assertThat(rejections("login_client")).isEqualTo(1);
+    assertThat(rejections("client")).isZero();
+  }
+}
@@ -0,0 +1,60 @@
+package com.evaluation.project.service.impl;
+
+import com.evaluation.project.model.dto.UserField;
+import com.evaluation.project.model.dto.UserResponse;
+import com.evaluation.project.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import reactor.core.publisher.Flux;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class UserCacheWarmerTest {
+
+  private final UserRepository userRepository = Mockito.mock(UserRepository.class);
+  private final UserResponseCache cache = new UserResponseCache(100, Duration.ofMinutes(5), new SimpleMeterRegistry());
+
+  private static UserResponse user(UUID uuid, String token) {
+    return UserResponse.builder().uuid(uuid.toString()).token(token).build();
+  }
+
+  @Test
+  void warmUp_loadsRecentlyActiveUsersInChunksWithoutReplacingCachedOnes() {
+    List<UUID> uuids = List.of(UUID.randomUUID(), UUID.randomUUID(), UUID.randomUUID());
+    cache.put(user(uuids.get(0), "fresh"));
+    when(userRepository.findRecentlyActive(10)).thenReturn(Flux.fromIterable(uuids));
+    when(userRepository.findUsers(anyCollection(), eq(UserField.ALL))).thenAnswer(invocation -> {
+      Collection<UUID> chunk = invocation.getArgument(0);
+      return Flux.fromIterable(chunk).map(uuid -> user(uuid, "stored"));
+    });
+
+    var warmer = new UserCacheWarmer(userRepository, cache, 10, 2);
+    warmer.warmUp();
+
+    assertThat(warmer.isDone()).isTrue();
+    verify(userRepository, Mockito.times(2)).findUsers(anyCollection(), eq(UserField.ALL));
+    assertThat(cache.peek(uuids.get(0)).getToken()).isEqualTo("fresh");
+    assertThat(cache.peek(uuids.get(1)).getToken()).isEqualTo("stored");
+    assertThat(cache.peek(uuids.get(2)).getToken()).isEqualTo("stored");
+  }
+
+  @Test
+  void warmUp_disabledWithZeroSize() {
+    var warmer = new UserCacheWarmer(userRepository, cache, 0, 500);
+    warmer.warmUp();
+
+    assertThat(warmer.isDone()).isTrue();
+    verify(userRepository, never()).findRecentlyActive(Mockito.anyInt());
+  }
+}
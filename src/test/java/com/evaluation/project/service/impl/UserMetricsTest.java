@@ -0,0 +1,46 @@
+package com.evaluation.project.service.impl;
+
+import com.evaluation.project.service.impl.UserMetrics.Outcome;
+import com.evaluation.project.service.impl.UserMetrics.Stage;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.prometheusmetrics.PrometheusConfig;
+import io.micrometer.prometheusmetrics.PrometheusMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class UserMetricsTest {
+  
+  private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+  private final UserMetrics userMetrics = new UserMetrics(meterRegistry);
+  
+  @Test
+  void record_registersOnlyTheStagesAndOutcomesThatOccur() {
+    assertThat(meterRegistry.find("users.stage").timers()).isEmpty();
+    
+    userMetrics.record(Stage.CREATE, Outcome.SUCCESS, TimeUnit.MILLISECONDS.toNanos(5));
+    userMetrics.record(Stage.CREATE, Outcome.SUCCESS, TimeUnit.MILLISECONDS.toNanos(7));
+    userMetrics.record(Stage.CREATE_HASH_PASSWORD, Outcome.OVERLOADED, TimeUnit.MILLISECONDS.toNanos(1));
+    
+    assertThat(meterRegistry.find("users.stage").timers()).hasSize(2);
+    var total = meterRegistry.get("users.stage").tags("stage", "total", "outcome", "success").timer();
+    assertThat(total.count()).isEqualTo(2);
+  }
+  
+  @Test
+  void record_publishesPercentileHistogramsOnlyForTotalsAndScrapes() {
+    var prometheusRegistry = new PrometheusMeterRegistry(PrometheusConfig.DEFAULT);
+    var prometheusMetrics = new UserMetrics(prometheusRegistry);
+    prometheusMetrics.record(Stage.GET, Outcome.SUCCESS, TimeUnit.MILLISECONDS.toNanos(3));
+    prometheusMetrics.record(Stage.GET_LOAD_USER, Outcome.SUCCESS, TimeUnit.MILLISECONDS.toNanos(2));
+    
+    var buckets = prometheusRegistry.scrape().lines()
+      .filter(line -> line.startsWith("users_stage_seconds_bucket"))
+      .toList();
+    assertThat(buckets).filteredOn(line -> line.contains("stage=\"total\"")).hasSizeGreaterThan(20);
+    // the six fixed buckets plus +Inf
+    assertThat(buckets).filteredOn(line -> line.contains("stage=\"load_user\"")).hasSize(7);
+  }
+}
@@ -0,0 +1,73 @@
+package com.evaluation.project.service.impl;
+
+import com.evaluation.project.model.dto.UserResponse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class UserResponseCacheTest {
+  
+  private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+  private final UserResponseCache cache = new UserResponseCache(100, Duration.ofMinutes(1), meterRegistry);
+  
+  @Test
+  void get_concurrentMisses_loadOnce() {
+    UUID uuid = UUID.randomUUID();
+    UserResponse user = UserResponse.builder().uuid(uuid.toString()).build();
+    Sinks.One<UserResponse> pendingLoad = Sinks.one();
+    AtomicInteger loads = new AtomicInteger();
+    
+    Mono<UserResponse> first = cache.get(uuid, key -> {
+      loads.incrementAndGet();
+      return pendingLoad.asMono();
+    });
+    Mono<UserResponse> second = cache.get(uuid, key -> {
+      loads.incrementAndGet();
+      return Mono.just(user);
+    });
+    
+    StepVerifier.create(Mono.zip(first, second))
+      .then(() -> pendingLoad.tryEmitValue(user))
+      .assertNext(pair -> assertThat(pair.getT1()).isSameAs(pair.getT2()))
+      .verifyComplete();
+    
+    assertThat(loads).hasValue(1);
+  }
+  
+  @Test
+  void get_afterPut_hitsWithoutLoading() {
+    UUID uuid = UUID.randomUUID();
+    UserResponse user = UserResponse.builder().uuid(uuid.toString()).build();
+    cache.put(user);
+    
+    StepVerifier.create(cache.get(uuid, key -> Mono.error(new IllegalStateException("unexpected load"))))
+      .expectNext(user)
+      .verifyComplete();
+    
+    assertThat(cache.stats().hitCount()).isEqualTo(1);
+    assertThat(meterRegistry.get("cache.gets").tag("cache", "users").tag("result", "hit").functionCounter().count())
+      .isEqualTo(1);
+  }
+  
+  @Test
+  void get_emptyLoad_isNotCached() {
+    UUID uuid = UUID.randomUUID();
+    AtomicInteger loads = new AtomicInteger();
+    
+    StepVerifier.create(cache.get(uuid, key -> Mono.<UserResponse>empty().doOnSubscribe(s -> loads.incrementAndGet())))
+      .verifyComplete();
+    StepVerifier.create(cache.get(uuid, key -> Mono.<UserResponse>empty().doOnSubscribe(s -> loads.incrementAndGet())))
+      .verifyComplete();
+    
+    assertThat(loads).hasValue(2);
+    assertThat(cache.estimatedSize()).isZero();
+  }
+}
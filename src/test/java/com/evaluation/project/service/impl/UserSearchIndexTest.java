@@ -0,0 +1,163 @@
+package com.evaluation.project.service.impl;
+
+import com.evaluation.project.model.dto.Phone;
+import com.evaluation.project.model.dto.UserRequest;
+import com.evaluation.project.model.dto.UserResponse;
+import com.evaluation.project.model.entity.PhoneEntity;
+import com.evaluation.project.repository.PhoneRepository;
+import com.evaluation.project.repository.UserRepository;
+import com.evaluation.project.util.ApiException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.http.HttpStatus;
+import reactor.core.publisher.Flux;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+class UserSearchIndexTest {
+
+  private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+  private final UserRepository userRepository = Mockito.mock(UserRepository.class);
+  private final PhoneRepository phoneRepository = Mockito.mock(PhoneRepository.class);
+  private final UserSearchIndex index = new UserSearchIndex(userRepository, phoneRepository, 2, 20, meterRegistry);
+
+  private final UserResponse juan = user("Juan Pérez", "juan@example.com", "57", "1");
+  private final UserResponse julia = user("Julia Pereira", "julia@mail.com", "51", "1");
+  private final UserResponse pedro = user("Pedro Juárez", "pedro@example.com", "57", "4");
+
+  private static UserResponse user(String name, String email, String countryCode, String cityCode) {
+    return UserResponse.builder()
+      .uuid(UUID.randomUUID().toString())
+      .userInformation(UserRequest.builder()
+        .name(name)
+        .email(email)
+        .phones(List.of(Phone.builder().number("123").cityCode(cityCode).countryCode(countryCode).build()))
+        .build())
+      .build();
+  }
+
+  // as scanned from USERS: the phones come from the PHONES scan
+  private static UserResponse scanned(UserResponse user) {
+    var information = user.getUserInformation();
+    return user.toBuilder()
+      .userInformation(UserRequest.builder().name(information.getName()).email(information.getEmail()).build())
+      .build();
+  }
+
+  private static PhoneEntity phone(UUID uuid, String countryCode, String cityCode) {
+    return PhoneEntity.builder().uuid(uuid).number("123").cityCode(cityCode).countryCode(countryCode).build();
+  }
+
+  private static UUID uuid(UserResponse user) {
+    return UUID.fromString(user.getUuid());
+  }
+
+  private List<UUID> search(String name, String emailDomain, String countryCode, String cityCode) {
+    return index.search(new UserSearchIndex.Query(name, emailDomain, countryCode, cityCode), null, 10);
+  }
+
+  @BeforeEach
+  void load() {
+    // batches of two; phones in storage order, one of them of a user no longer indexed
+    when(userRepository.scanUsers(any())).thenReturn(Flux.just(scanned(juan), scanned(julia), scanned(pedro)));
+    when(phoneRepository.findAll()).thenReturn(Flux.just(
+      phone(uuid(julia), "51", "1"), phone(uuid(juan), "57", "1"), phone(UUID.randomUUID(), "57", "9"), phone(uuid(pedro), "57", "4")));
+    index.load();
+  }
+
+  @Test
+  void search_matchesNamePrefixesIgnoringCaseAndAccents() {
+    assertThat(search("ju", null, null, null)).containsExactly(uuid(juan), uuid(julia), uuid(pedro));
+    assertThat(search("JUA", null, null, null)).containsExactly(uuid(juan), uuid(pedro));
+    assertThat(search("jua per", null, null, null)).containsExactly(uuid(juan));
+    assertThat(search("juarez", null, null, null)).containsExactly(uuid(pedro));
+    assertThat(meterRegistry.get("users.search.documents").gauge().value()).isEqualTo(3);
+  }
+
+  @Test
+  void search_combinesCriteria() {
+    assertThat(search(null, "@Example.com", null, null)).containsExactly(uuid(juan), uuid(pedro));
+    assertThat(search(null, "example.com", "57", "1")).containsExactly(uuid(juan));
+    assertThat(search("pe", null, null, "1")).containsExactly(uuid(juan), uuid(julia));
+    assertThat(search("maria", "example.com", null, null)).isEmpty();
+    assertThat(search(null, null, null, "9")).isEmpty();
+  }
+
+  @Test
+  void search_pagesAfterTheLastUserReceived() {
+    var query = new UserSearchIndex.Query("j", null, null, null);
+
+    var first = index.search(query, null, 2);
+    assertThat(first).containsExactly(uuid(juan), uuid(julia));
+    assertThat(index.search(query, first.get(1), 2)).containsExactly(uuid(pedro));
+    assertThatThrownBy(() -> index.search(query, UUID.randomUUID(), 2))
+      .isInstanceOf(ApiException.class)
+      .hasMessage(UserSearchIndex.UNKNOWN_CURSOR);
+  }
+
+  @Test
+  void update_movesTheUserToItsNewKeysKeepingItsPosition() {
+    var renamed = juan.toBuilder()
+      .userInformation(UserRequest.builder()
+        .name("Carlos Pérez")
+        .email("carlos@mail.com")
+        .phones(List.of())
+        .build())
+      .build();
+    index.update(juan, renamed);
+
+    assertThat(search("ju", null, null, null)).containsExactly(uuid(julia), uuid(pedro));
+    assertThat(search("car", null, null, null)).containsExactly(uuid(juan));
+    assertThat(search("pe", "mail.com", null, null)).containsExactly(uuid(juan), uuid(julia));
+    assertThat(search(null, null, "57", null)).containsExactly(uuid(pedro));
+
+    var added = user("Juana Díaz", "juana@example.com", "57", "1");
+    index.add(added);
+    index.add(added);
+    assertThat(search("juan", null, null, null)).containsExactly(uuid(added));
+  }
+
+  @Test
+  void search_withoutCriteriaOrBeforeLoading_isRejected() {
+    assertThatThrownBy(() -> search(" ", null, null, ""))
+      .isInstanceOf(ApiException.class)
+      .hasMessage(UserSearchIndex.CRITERION_REQUIRED);
+
+    var loading = new UserSearchIndex(userRepository, phoneRepository, 2, 20, new SimpleMeterRegistry());
+    assertThatThrownBy(() -> loading.search(new UserSearchIndex.Query("ju", null, null, null), null, 10))
+      .isInstanceOfSatisfying(ApiException.class,
+        exception -> assertThat(exception.getStatus()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE));
+  }
+
+  @Test
+  void search_intersectsLongPostingsLists() {
+    var large = new UserSearchIndex(userRepository, phoneRepository, 2, 20, new SimpleMeterRegistry());
+    when(userRepository.scanUsers(any())).thenReturn(Flux.empty());
+    when(phoneRepository.findAll()).thenReturn(Flux.empty());
+    large.load();
+    var expected = new ArrayList<UUID>();
+    for (int i = 0; i < 10_000; i++) {
+      var user = user("Ana " + (i % 7 == 0 ? "Lopez" : "Gomez"), "ana" + i + "@example.com", i % 3 == 0 ? "51" : "57", "1");
+      large.add(user);
+      if (i % 21 == 0) {
+        expected.add(uuid(user));
+      }
+    }
+
+    var query = new UserSearchIndex.Query("ana lo", null, "51", null);
+    var found = new ArrayList<UUID>();
+    for (var page = large.search(query, null, 100); !page.isEmpty(); page = large.search(query, page.get(page.size() - 1), 100)) {
+      found.addAll(page);
+    }
+    assertThat(found).isEqualTo(expected);
+  }
+}
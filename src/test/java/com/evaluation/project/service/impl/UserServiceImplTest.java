@@ -1,33 +1,53 @@
 package com.evaluation.project.service.impl;
 
 import com.evaluation.project.config.ApplicationProperties;
+import com.evaluation.project.model.dto.BatchUserResult;
 import com.evaluation.project.model.dto.Phone;
+import com.evaluation.project.model.dto.UserField;
+import com.evaluation.project.model.dto.UserPatchRequest;
 import com.evaluation.project.model.dto.UserRequest;
+import com.evaluation.project.model.dto.UserResponse;
 import com.evaluation.project.model.entity.PhoneEntity;
 import com.evaluation.project.model.entity.UserEntity;
 import com.evaluation.project.repository.PhoneRepository;
 import com.evaluation.project.repository.UserRepository;
 import com.evaluation.project.util.ApiException;
+import com.evaluation.project.util.UserMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.*;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.reactive.TransactionalOperator;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
 import reactor.test.StepVerifier;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Function;
 
+import static com.evaluation.project.util.UserMapper.mapToUserResponse;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.lenient;
   import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
 class UserServiceImplTest {
   
+  private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+  
   @Mock
   private UserRepository userRepository;
   @Mock
@@ -35,13 +55,66 @@ class UserServiceImplTest {
   @Mock
   private JwtService jwtService;
   @Mock
+  private EmailIndex emailIndex;
+  @Mock
+  private UserResponseCache userResponseCache;
+  @Spy
+  private UserValidator userValidator = new UserValidator(validationProperties());
+  @Spy
+  private Scheduler cryptoScheduler = Schedulers.immediate();
+  @Spy
+  private Scheduler passwordScheduler = Schedulers.immediate();
+  @Spy
+  private PasswordHasher passwordHasher = new PasswordHasher(1000);
+  @Mock
   private ApplicationProperties applicationProperties;
+  @Spy
+  private UserMetrics userMetrics = new UserMetrics(meterRegistry);
+  @Mock
+  private TransactionalOperator transactionalOperator;
+  @Mock
+  private UserWriteBehind userWriteBehind;
+  @Spy
+  private AdaptiveConcurrencyLimiter concurrencyLimiter =
+    new AdaptiveConcurrencyLimiter(1, 1, 1, Duration.ofSeconds(1), 0.9, meterRegistry);
+  @Mock
+  private LastLoginRecorder lastLoginRecorder;
+  @Mock
+  private UserSearchIndex userSearchIndex;
   
   @InjectMocks
   private UserServiceImpl userService;
   
   @BeforeEach
   void setUp() {
+    // both schedulers have the same type, so constructor injection cannot tell them apart
+    ReflectionTestUtils.setField(userService, "cryptoScheduler", cryptoScheduler);
+    ReflectionTestUtils.setField(userService, "passwordScheduler", passwordScheduler);
+    // no user is pending in the write-behind queue unless a test says so
+    lenient().when(userWriteBehind.persistNow(any(UUID.class))).thenReturn(Mono.empty());
+  }
+  
+  static ApplicationProperties validationProperties() {
+    ApplicationProperties properties = new ApplicationProperties();
+    properties.setEmailRegex("^[\\w.-]+@(?:[\\w-]++\\.)++[\\w-]{2,4}$");
+    properties.setPasswordRegex("[\\w\\W]+");
+    properties.setMaxEmailLength(254);
+    properties.setMaxPasswordLength(128);
+    properties.setRegexTimeout(Duration.ofMillis(10));
+    return properties;
+  }
+  
+  private UserResponse userResponse(UUID uuid) {
+    return mapToUserResponse(buildUserEntity(uuid), List.of());
+  }
+  
+  private long stageCount(String operation, String stage, String outcome) {
+    return meterRegistry.get("users.stage")
+      .tag("operation", operation)
+      .tag("stage", stage)
+      .tag("outcome", outcome)
+      .timer()
+      .count();
   }
   
   private UserEntity buildUserEntity(UUID uuid) {
@@ -89,10 +162,11 @@ class UserServiceImplTest {
     UserEntity userEntity = buildUserEntity(uuid);
     PhoneEntity phoneEntity = buildPhoneEntity(uuid);
     
-    when(userRepository.findAll()).thenReturn(Flux.just(userEntity));
-    when(phoneRepository.findAll()).thenReturn(Flux.just(phoneEntity));
+    when(applicationProperties.getDefaultPageSize()).thenReturn(50);
+    when(userRepository.findPage(null, 50, UserField.ALL))
+      .thenReturn(Flux.just(mapToUserResponse(userEntity, List.of(phoneEntity))));
     
-    StepVerifier.create(userService.getUsers())
+    StepVerifier.create(userService.getUsers(null, null))
       .assertNext(userResponse -> {
         assertThat(userResponse.getUuid()).isEqualTo(uuid.toString());
         assertThat(userResponse.getUserInformation().getEmail()).isEqualTo(userEntity.getEmail());
@@ -101,6 +175,51 @@ class UserServiceImplTest {
         assertThat(userResponse.getUserInformation().getPhones().get(0).getNumber()).isEqualTo(phoneEntity.getNumber());
       })
       .verifyComplete();
+    
+    assertThat(stageCount("list", "total", "success")).isEqualTo(1);
+    assertThat(meterRegistry.get("users.rows").tag("operation", "list").summary().totalAmount()).isEqualTo(1);
+  }
+  
+  @Test
+  void getUsers_afterCursor_capsLimit() {
+    UUID after = UUID.randomUUID();
+    UUID first = UUID.randomUUID();
+    UUID second = UUID.randomUUID();
+    
+    when(applicationProperties.getMaxPageSize()).thenReturn(2);
+    when(userRepository.findPage(after, 2, UserField.ALL))
+      .thenReturn(Flux.just(userResponse(first), userResponse(second)));
+    
+    StepVerifier.create(userService.getUsers(after, 10))
+      .expectNextMatches(userResponse -> userResponse.getUuid().equals(first.toString()))
+      .expectNextMatches(userResponse -> userResponse.getUuid().equals(second.toString()))
+      .verifyComplete();
+  }
+  
+  @Test
+  void getUsers_invalidLimit_throwsException() {
+    StepVerifier.create(userService.getUsers(null, 0))
+      .expectError(ApiException.class)
+      .verify();
+  }
+  
+  @Test
+  void streamUsers_readsPagesUntilShortPage() {
+    UUID first = UUID.fromString("00000000-0000-0000-0000-000000000001");
+    UUID second = UUID.fromString("00000000-0000-0000-0000-000000000002");
+    UUID third = UUID.fromString("00000000-0000-0000-0000-000000000003");
+    
+    when(applicationProperties.getStreamChunkSize()).thenReturn(2);
+    when(userRepository.findPage(null, 2, UserField.ALL))
+      .thenReturn(Flux.just(userResponse(first), userResponse(second)));
+    when(userRepository.findPage(second, 2, UserField.ALL)).thenReturn(Flux.just(userResponse(third)));
+    
+    StepVerifier.create(userService.streamUsers(), 1)
+      .expectNextMatches(userResponse -> userResponse.getUuid().equals(first.toString()))
+      .thenRequest(2)
+      .expectNextMatches(userResponse -> userResponse.getUuid().equals(second.toString()))
+      .expectNextMatches(userResponse -> userResponse.getUuid().equals(third.toString()))
+      .verifyComplete();
   }
   
   @Test
@@ -109,8 +228,10 @@ class UserServiceImplTest {
     UserEntity userEntity = buildUserEntity(uuid);
     PhoneEntity phoneEntity = buildPhoneEntity(uuid);
     
-    when(userRepository.findById(uuid)).thenReturn(Mono.just(userEntity));
-    when(phoneRepository.findByUuid(uuid)).thenReturn(Flux.just(phoneEntity));
+    when(userResponseCache.get(eq(uuid), any()))
+      .thenAnswer(invocation -> invocation.<Function<UUID, Mono<UserResponse>>>getArgument(1).apply(uuid));
+    when(userRepository.findUser(uuid, UserField.ALL))
+      .thenReturn(Mono.just(mapToUserResponse(userEntity, List.of(phoneEntity))));
     
     StepVerifier.create(userService.getUser(uuid))
       .assertNext(userResponse -> {
@@ -122,29 +243,172 @@ class UserServiceImplTest {
       .verifyComplete();
   }
   
+  @Test
+  void getUser_pendingWriteBehind_skipsRepositories() {
+    UUID uuid = UUID.randomUUID();
+    UserResponse pending = userResponse(uuid);
+    
+    when(userResponseCache.get(eq(uuid), any()))
+      .thenAnswer(invocation -> invocation.<Function<UUID, Mono<UserResponse>>>getArgument(1).apply(uuid));
+    when(userWriteBehind.find(uuid)).thenReturn(pending);
+    
+    StepVerifier.create(userService.getUser(uuid))
+      .expectNext(pending)
+      .verifyComplete();
+    
+    Mockito.verify(userRepository, Mockito.never()).findUser(any(), any());
+  }
+  
+  @Test
+  void getUser_cached_skipsRepositories() {
+    UUID uuid = UUID.randomUUID();
+    UserResponse cached = UserResponse.builder().uuid(uuid.toString()).build();
+    
+    when(userResponseCache.get(eq(uuid), any())).thenReturn(Mono.just(cached));
+    
+    StepVerifier.create(userService.getUser(uuid))
+      .expectNext(cached)
+      .verifyComplete();
+    
+    Mockito.verifyNoInteractions(userRepository, phoneRepository);
+  }
+  
+  @Test
+  void getUsers_withFields_readsOnlyThoseFields() {
+    Set<UserField> fields = UserField.parse("email,isActive");
+    UserResponse projected = UserResponse.builder().uuid(UUID.randomUUID().toString()).isActive(true).build();
+    
+    when(applicationProperties.getDefaultPageSize()).thenReturn(50);
+    when(userRepository.findPage(null, 50, fields)).thenReturn(Flux.just(projected));
+    
+    StepVerifier.create(userService.getUsers(null, null, fields))
+      .expectNext(projected)
+      .verifyComplete();
+  }
+  
+  @Test
+  void getUser_withFields_projectsCachedUserWithoutLoading() {
+    UUID uuid = UUID.randomUUID();
+    UserResponse cached = userResponse(uuid);
+    
+    when(userResponseCache.peek(uuid)).thenReturn(cached);
+    
+    StepVerifier.create(userService.getUser(uuid, UserField.parse("email")))
+      .expectNext(cached)
+      .verifyComplete();
+    
+    Mockito.verify(userRepository, Mockito.never()).findUser(any(), any());
+  }
+  
+  @Test
+  void getUser_withFields_loadsProjectionWhenNotCached() {
+    UUID uuid = UUID.randomUUID();
+    Set<UserField> fields = UserField.parse("email");
+    UserResponse projected = UserResponse.builder().uuid(uuid.toString()).build();
+    
+    when(userRepository.findUser(uuid, fields)).thenReturn(Mono.just(projected));
+    
+    StepVerifier.create(userService.getUser(uuid, fields))
+      .expectNext(projected)
+      .verifyComplete();
+    
+    Mockito.verify(userResponseCache, Mockito.never()).put(any());
+  }
+  
+  @Test
+  void searchUsers_readsUncachedMatchesInOneQueryKeepingIndexOrder() {
+    UUID cachedUuid = UUID.randomUUID();
+    UUID storedUuid = UUID.randomUUID();
+    UserResponse cached = userResponse(cachedUuid);
+    UserResponse stored = userResponse(storedUuid);
+    var query = new UserSearchIndex.Query("juan", null, null, null);
+    
+    when(applicationProperties.getDefaultPageSize()).thenReturn(50);
+    when(userSearchIndex.search(query, null, 50)).thenReturn(List.of(storedUuid, cachedUuid));
+    when(userResponseCache.peek(any(UUID.class))).thenAnswer(invocation -> cachedUuid.equals(invocation.getArgument(0)) ? cached : null);
+    when(userRepository.findUsers(List.of(storedUuid), UserField.ALL)).thenReturn(Flux.just(stored));
+    
+    StepVerifier.create(userService.searchUsers(query, null, null))
+      .expectNext(stored, cached)
+      .verifyComplete();
+    
+    assertThat(stageCount("search", "load_users", "success")).isEqualTo(1);
+  }
+  
   @Test
   void createUser_success() {
     UserRequest request = buildUserRequest();
-    UUID generatedUuid = UUID.randomUUID();
-    // El repo save devuelve la entidad con uuid asignado
-    UserEntity savedEntity = buildUserEntity(generatedUuid);
-    PhoneEntity savedPhone = buildPhoneEntity(generatedUuid);
+    PhoneEntity savedPhone = buildPhoneEntity(UUID.randomUUID());
+    ArgumentCaptor<UUID> tokenSubject = ArgumentCaptor.forClass(UUID.class);
     
-    when(applicationProperties.getEmailRegex()).thenReturn("^[\\w-\\.]+@([\\w-]+\\.)+[\\w-]{2,4}$");
-    when(applicationProperties.getPasswordRegex()).thenReturn("[\\w\\W]+");
+    when(emailIndex.mightContain(request.getEmail())).thenReturn(true);
     when(userRepository.findByEmail(request.getEmail())).thenReturn(Mono.empty());
-    when(jwtService.generate(any(UUID.class))).thenReturn("token1");
-    when(userRepository.save(any(UserEntity.class))).thenReturn(Mono.just(savedEntity));
+    when(jwtService.generate(tokenSubject.capture())).thenReturn("token1");
+    when(userRepository.insertAll(anyList())).thenReturn(Mono.empty());
     when(phoneRepository.saveAll(anyList())).thenReturn(Flux.just(savedPhone));
+    when(transactionalOperator.transactional(ArgumentMatchers.<Mono<UserResponse>>any()))
+      .thenAnswer(invocation -> invocation.getArgument(0));
     
     StepVerifier.create(userService.createUser(request))
       .assertNext(resp -> {
         assertThat(resp.getUserInformation().getEmail()).isEqualTo(request.getEmail());
         assertThat(resp.getToken()).isEqualTo("token1");
-        assertThat(resp.getUuid()).isEqualTo(generatedUuid.toString());
+        assertThat(resp.getUuid()).isEqualTo(tokenSubject.getValue().toString());
         assertThat(resp.getUserInformation().getPhones()).hasSize(1);
       })
       .verifyComplete();
+    
+    assertThat(stageCount("create", "total", "success")).isEqualTo(1);
+    assertThat(stageCount("create", "validate_email", "success")).isEqualTo(1);
+    assertThat(stageCount("create", "hash_password", "success")).isEqualTo(1);
+    assertThat(stageCount("create", "jwt", "success")).isEqualTo(1);
+    assertThat(stageCount("create", "save_user", "success")).isEqualTo(1);
+    
+    ArgumentCaptor<List<UserEntity>> users = ArgumentCaptor.forClass(List.class);
+    Mockito.verify(userRepository).insertAll(users.capture());
+    String storedPassword = users.getValue().get(0).getPassword();
+    assertThat(storedPassword).isNotEqualTo(request.getPassword());
+    assertThat(passwordHasher.matches(request.getPassword(), storedPassword)).isTrue();
+    assertThat(stageCount("create", "save_phones", "success")).isEqualTo(1);
+    assertThat(meterRegistry.get("users.phones").summary().totalAmount()).isEqualTo(1);
+  }
+  
+  @Test
+  void createUser_unknownEmail_skipsUniquenessQuery() {
+    UserRequest request = buildUserRequest();
+    
+    when(emailIndex.mightContain(request.getEmail())).thenReturn(false);
+    when(jwtService.generate(any(UUID.class))).thenReturn("token1");
+    when(userRepository.insertAll(anyList())).thenReturn(Mono.empty());
+    when(phoneRepository.saveAll(anyList())).thenReturn(Flux.just(buildPhoneEntity(UUID.randomUUID())));
+    when(transactionalOperator.transactional(ArgumentMatchers.<Mono<UserResponse>>any()))
+      .thenAnswer(invocation -> invocation.getArgument(0));
+    
+    StepVerifier.create(userService.createUser(request))
+      .expectNextCount(1)
+      .verifyComplete();
+    
+    Mockito.verify(userRepository, Mockito.never()).findByEmail(anyString());
+    Mockito.verify(emailIndex).put(request.getEmail());
+    Mockito.verify(userResponseCache).put(any(UserResponse.class));
+    Mockito.verify(userSearchIndex).add(any(UserResponse.class));
+  }
+  
+  @Test
+  void createUser_uniqueIndexViolation_throwsEmailInUse() {
+    UserRequest request = buildUserRequest();
+    
+    when(emailIndex.mightContain(request.getEmail())).thenReturn(false);
+    when(jwtService.generate(any(UUID.class))).thenReturn("token1");
+    when(userRepository.insertAll(anyList())).thenReturn(Mono.error(new DuplicateKeyException("UX_USERS_EMAIL")));
+    when(transactionalOperator.transactional(ArgumentMatchers.<Mono<UserResponse>>any()))
+      .thenAnswer(invocation -> invocation.getArgument(0));
+    
+    StepVerifier.create(userService.createUser(request))
+      .expectErrorSatisfies(throwable -> assertThat(throwable)
+        .isInstanceOf(ApiException.class)
+        .hasMessage("Email already in use"))
+      .verify();
   }
   
   @Test
@@ -152,13 +416,111 @@ class UserServiceImplTest {
     UserRequest request = buildUserRequest();
     UserEntity existing = buildUserEntity(UUID.randomUUID());
     
+    when(emailIndex.mightContain(request.getEmail())).thenReturn(true);
     when(userRepository.findByEmail(request.getEmail())).thenReturn(Mono.just(existing));
-    when(applicationProperties.getEmailRegex()).thenReturn("^[\\w-\\.]+@([\\w-]+\\.)+[\\w-]{2,4}$");
-    when(applicationProperties.getPasswordRegex()).thenReturn("[\\w\\W]+");
     
     StepVerifier.create(userService.createUser(request))
       .expectError(ApiException.class)
       .verify();
+    
+    assertThat(stageCount("create", "validate_email", "conflict")).isEqualTo(1);
+    assertThat(stageCount("create", "total", "conflict")).isEqualTo(1);
+  }
+  
+  @Test
+  void createUser_writeBehind_returnsJournaledUserWithoutTouchingTheDatabase() {
+    UserRequest request = buildUserRequest();
+    
+    when(userWriteBehind.isEnabled()).thenReturn(true);
+    when(emailIndex.mightContain(request.getEmail())).thenReturn(false);
+    when(jwtService.generate(any(UUID.class))).thenReturn("token1");
+    when(userWriteBehind.submit(any(UserEntity.class), anyList()))
+      .thenAnswer(invocation -> Mono.just(mapToUserResponse(invocation.getArgument(0), invocation.getArgument(1))));
+    
+    StepVerifier.create(userService.createUser(request))
+      .assertNext(resp -> {
+        assertThat(resp.getUuid()).isNotNull();
+        assertThat(resp.getToken()).isEqualTo("token1");
+        assertThat(resp.getUserInformation().getPhones()).hasSize(1);
+      })
+      .verifyComplete();
+    
+    Mockito.verify(userRepository, Mockito.never()).save(any(UserEntity.class));
+    Mockito.verify(userRepository, Mockito.never()).insertAll(anyList());
+    assertThat(stageCount("create", "journal", "success")).isEqualTo(1);
+  }
+  
+  @Test
+  void createUser_writeBehindFull_insertsSynchronously() {
+    UserRequest request = buildUserRequest();
+    
+    when(userWriteBehind.isEnabled()).thenReturn(true);
+    when(emailIndex.mightContain(request.getEmail())).thenReturn(false);
+    when(jwtService.generate(any(UUID.class))).thenReturn("token1");
+    when(userWriteBehind.submit(any(UserEntity.class), anyList())).thenReturn(Mono.empty());
+    when(transactionalOperator.transactional(ArgumentMatchers.<Mono<Void>>any()))
+      .thenAnswer(invocation -> invocation.getArgument(0));
+    when(userRepository.insertAll(anyList())).thenReturn(Mono.empty());
+    when(phoneRepository.insertAll(anyList())).thenReturn(Mono.empty());
+    
+    StepVerifier.create(userService.createUser(request))
+      .assertNext(resp -> assertThat(resp.getUserInformation().getPhones()).hasSize(1))
+      .verifyComplete();
+    
+    Mockito.verify(userRepository).insertAll(anyList());
+  }
+  
+  @Test
+  void createUser_emailReservedByWriteBehind_throwsEmailInUse() {
+    UserRequest request = buildUserRequest();
+    
+    when(userWriteBehind.isReserved(request.getEmail())).thenReturn(true);
+    
+    StepVerifier.create(userService.createUser(request))
+      .expectErrorMessage("Email already in use")
+      .verify();
+    
+    Mockito.verify(userRepository, Mockito.never()).findByEmail(anyString());
+  }
+  
+  @Test
+  void createUser_passwordPoolSaturated_throwsServiceUnavailable() {
+    UserRequest request = buildUserRequest();
+    
+    when(emailIndex.mightContain(request.getEmail())).thenReturn(false);
+    Mockito.doThrow(new RejectedExecutionException("queue full")).when(passwordScheduler).schedule(any(Runnable.class));
+    
+    StepVerifier.create(userService.createUser(request))
+      .expectErrorSatisfies(throwable -> {
+        assertThat(throwable).isInstanceOf(ApiException.class);
+        assertThat(((ApiException) throwable).getStatus()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+      })
+      .verify();
+    
+    Mockito.verifyNoInteractions(jwtService, userRepository, transactionalOperator);
+    assertThat(stageCount("create", "hash_password", "overloaded")).isEqualTo(1);
+    assertThat(stageCount("create", "total", "overloaded")).isEqualTo(1);
+  }
+  
+  @Test
+  void createUser_concurrencyLimitReached_throwsServiceUnavailableWithoutInserting() {
+    UserRequest request = buildUserRequest();
+    
+    when(emailIndex.mightContain(request.getEmail())).thenReturn(false);
+    var held = concurrencyLimiter.limit(Mono.never()).subscribe();
+    
+    StepVerifier.create(userService.createUser(request))
+      .expectErrorSatisfies(throwable -> {
+        assertThat(throwable).isInstanceOf(ApiException.class);
+        assertThat(((ApiException) throwable).getStatus()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+      })
+      .verify();
+    held.dispose();
+    
+    Mockito.verify(userResponseCache, Mockito.never()).put(any());
+    assertThat(concurrencyLimiter.getInFlight()).isZero();
+    assertThat(meterRegistry.get("users.admission.rejected").tag("limiter", "concurrency").counter().count()).isEqualTo(1);
+    assertThat(stageCount("create", "total", "overloaded")).isEqualTo(1);
   }
   
   @Test
@@ -170,11 +532,206 @@ class UserServiceImplTest {
       .phones(List.of())
       .build();
     
-    when(applicationProperties.getEmailRegex()).thenReturn("^[\\w-\\.]+@([\\w-]+\\.)+[\\w-]{2,4}$");
-    when(applicationProperties.getPasswordRegex()).thenReturn("[\\w\\W]+");
     
     StepVerifier.create(userService.createUser(invalid))
       .expectError(ApiException.class)
       .verify();
+    
+    assertThat(stageCount("create", "total", "validation_rejected")).isEqualTo(1);
+  }
+  
+  @Test
+  void createUsers_insertsValidUsersAndReportsRejections() {
+    UserRequest valid = buildUserRequest();
+    UserRequest taken = UserRequest.builder()
+      .name("Ana Gómez")
+      .email("ana.gomez@example.com")
+      .password("pass456")
+      .build();
+    UserRequest duplicated = buildUserRequest();
+    UserRequest invalid = UserRequest.builder()
+      .name("Sin Correo")
+      .email("invalid-email")
+      .password("pass789")
+      .build();
+    
+    when(applicationProperties.getBatchSize()).thenReturn(10);
+    when(applicationProperties.getPasswordThreads()).thenReturn(2);
+    when(emailIndex.mightContain(valid.getEmail())).thenReturn(false);
+    when(emailIndex.mightContain(taken.getEmail())).thenReturn(true);
+    when(userRepository.findExistingEmails(List.of(taken.getEmail())))
+      .thenReturn(Flux.just(taken.getEmail()));
+    when(jwtService.generate(any(UUID.class))).thenReturn("token1");
+    when(userRepository.insertAll(anyList())).thenReturn(Mono.empty());
+    when(phoneRepository.insertAll(anyList())).thenReturn(Mono.empty());
+    when(transactionalOperator.transactional(ArgumentMatchers.<Mono<Void>>any()))
+      .thenAnswer(invocation -> invocation.getArgument(0));
+    
+    StepVerifier.create(userService.createUsers(Flux.just(valid, taken, duplicated, invalid)))
+      .assertNext(result -> {
+        assertThat(result.getStatus()).isEqualTo(BatchUserResult.Status.CREATED);
+        assertThat(result.getUser().getToken()).isEqualTo("token1");
+        assertThat(result.getUser().getUserInformation().getPhones()).hasSize(1);
+      })
+      .assertNext(result -> assertThat(result.getReason()).isEqualTo("Email already in use"))
+      .assertNext(result -> assertThat(result.getReason()).isEqualTo("Duplicate email in batch"))
+      .assertNext(result -> assertThat(result.getReason()).isEqualTo("Invalid email format"))
+      .verifyComplete();
+    
+    ArgumentCaptor<List<UserEntity>> users = ArgumentCaptor.forClass(List.class);
+    Mockito.verify(userRepository).insertAll(users.capture());
+    assertThat(users.getValue()).extracting(UserEntity::getEmail).containsExactly(valid.getEmail());
+  }
+  
+  @Test
+  void updateUser_staleVersion_throwsConflictWithoutWriting() {
+    UUID uuid = UUID.randomUUID();
+    
+    when(userRepository.findUser(uuid, UserField.ALL)).thenReturn(Mono.just(userResponse(uuid)));
+    
+    StepVerifier.create(userService.updateUser(uuid, UserPatchRequest.builder().name("Otro").version(3L).build()))
+      .expectErrorSatisfies(throwable -> assertThat(throwable)
+        .isInstanceOf(ApiException.class)
+        .hasMessage(UserServiceImpl.VERSION_CONFLICT))
+      .verify();
+    
+    Mockito.verify(userRepository, Mockito.never()).updateUser(any(), anyLong(), any(), any(), any(), any(), any());
+    assertThat(stageCount("update", "total", "conflict")).isEqualTo(1);
+  }
+  
+  @Test
+  void updateUser_unchangedValues_writesNothing() {
+    UUID uuid = UUID.randomUUID();
+    UserResponse current = userResponse(uuid);
+    
+    when(userRepository.findUser(uuid, UserField.ALL)).thenReturn(Mono.just(current));
+    
+    UserPatchRequest patch = UserPatchRequest.builder()
+      .name(current.getUserInformation().getName())
+      .email(current.getUserInformation().getEmail())
+      .isActive(true)
+      .version(0L)
+      .build();
+    StepVerifier.create(userService.updateUser(uuid, patch))
+      .expectNext(current)
+      .verifyComplete();
+    
+    Mockito.verifyNoInteractions(transactionalOperator, emailIndex);
+    Mockito.verify(userRepository, Mockito.never()).updateUser(any(), anyLong(), any(), any(), any(), any(), any());
+  }
+  
+  @Test
+  void updateUser_writesOnlyChangedColumnsAndPhones() {
+    UUID uuid = UUID.randomUUID();
+    PhoneEntity kept = buildPhoneEntity(uuid);
+    PhoneEntity dropped = PhoneEntity.builder().phoneId(2).uuid(uuid).number("987654321").cityCode("02").countryCode("57").build();
+    UserResponse current = mapToUserResponse(buildUserEntity(uuid), List.of(kept, dropped));
+    Phone added = Phone.builder().number("555000111").cityCode("03").countryCode("57").build();
+    
+    when(userRepository.findUser(uuid, UserField.ALL)).thenReturn(Mono.just(current));
+    when(phoneRepository.findByUuid(uuid)).thenReturn(Flux.just(kept, dropped));
+    when(userRepository.updateUser(eq(uuid), eq(0L), any(), eq("Juan P. Pérez"), isNull(), isNull(), isNull()))
+      .thenReturn(Mono.just(1L));
+    when(phoneRepository.deleteAllById(List.of(2))).thenReturn(Mono.empty());
+    when(phoneRepository.insertAll(anyList())).thenReturn(Mono.empty());
+    when(transactionalOperator.transactional(ArgumentMatchers.<Mono<UserResponse>>any()))
+      .thenAnswer(invocation -> invocation.getArgument(0));
+    
+    UserPatchRequest patch = UserPatchRequest.builder()
+      .name("Juan P. Pérez")
+      .phones(List.of(added, UserMapper.mapToPhone(kept)))
+      .version(0L)
+      .build();
+    StepVerifier.create(userService.updateUser(uuid, patch))
+      .assertNext(updated -> {
+        assertThat(updated.getUserInformation().getName()).isEqualTo("Juan P. Pérez");
+        assertThat(updated.getUserInformation().getEmail()).isEqualTo(current.getUserInformation().getEmail());
+        assertThat(updated.getUserInformation().getPhones()).extracting(Phone::getNumber)
+          .containsExactly("123456789", "555000111");
+        assertThat(updated.getVersion()).isEqualTo(1L);
+      })
+      .verifyComplete();
+    
+    ArgumentCaptor<List<PhoneEntity>> inserted = ArgumentCaptor.forClass(List.class);
+    Mockito.verify(phoneRepository).insertAll(inserted.capture());
+    assertThat(inserted.getValue()).extracting(PhoneEntity::getNumber).containsExactly("555000111");
+    Mockito.verify(userResponseCache).put(any(UserResponse.class));
+    Mockito.verify(userSearchIndex).update(Mockito.eq(current), any(UserResponse.class));
+    assertThat(stageCount("update", "save_user", "success")).isEqualTo(1);
+  }
+  
+  @Test
+  void updateUser_concurrentUpdate_throwsConflict() {
+    UUID uuid = UUID.randomUUID();
+    
+    when(userRepository.findUser(uuid, UserField.ALL)).thenReturn(Mono.just(userResponse(uuid)));
+    when(userRepository.updateUser(eq(uuid), eq(0L), any(), any(), any(), any(), any())).thenReturn(Mono.just(0L));
+    when(transactionalOperator.transactional(ArgumentMatchers.<Mono<UserResponse>>any()))
+      .thenAnswer(invocation -> invocation.getArgument(0));
+    
+    StepVerifier.create(userService.updateUser(uuid, UserPatchRequest.builder().isActive(false).version(0L).build()))
+      .expectErrorSatisfies(throwable -> assertThat(((ApiException) throwable).getStatus()).isEqualTo(HttpStatus.CONFLICT))
+      .verify();
+    
+    Mockito.verify(userResponseCache, Mockito.never()).put(any());
+  }
+  
+  @Test
+  void updateUser_newPassword_revokesIssuedTokens() {
+    UUID uuid = UUID.randomUUID();
+    
+    when(userRepository.findUser(uuid, UserField.ALL)).thenReturn(Mono.just(userResponse(uuid)));
+    when(userRepository.updateUser(eq(uuid), eq(0L), any(), isNull(), isNull(), anyString(), isNull()))
+      .thenReturn(Mono.just(1L));
+    when(phoneRepository.insertAll(anyList())).thenReturn(Mono.empty());
+    when(transactionalOperator.transactional(ArgumentMatchers.<Mono<UserResponse>>any()))
+      .thenAnswer(invocation -> invocation.getArgument(0));
+    
+    StepVerifier.create(userService.updateUser(uuid, UserPatchRequest.builder().password("N3wPassw0rd!").version(0L).build()))
+      .assertNext(updated -> assertThat(updated.getVersion()).isEqualTo(1L))
+      .verifyComplete();
+    
+    Mockito.verify(jwtService).revoke(uuid);
+  }
+  
+  @Test
+  void login_wrongPassword_throwsUnauthorized() {
+    UUID uuid = UUID.randomUUID();
+    String passwordHash = passwordHasher.hash("secret1");
+    
+    when(userRepository.findPasswordByUuid(uuid)).thenReturn(Mono.just(passwordHash));
+    
+    StepVerifier.create(userService.login(uuid, "secret2"))
+      .expectErrorSatisfies(throwable -> assertThat(throwable)
+        .isInstanceOf(ApiException.class)
+        .hasMessage(UserServiceImpl.INVALID_CREDENTIALS))
+      .verify();
+    
+    Mockito.verifyNoInteractions(lastLoginRecorder);
+  }
+  
+  @Test
+  void login_success_recordsLoginAndIssuesToken() {
+    UUID uuid = UUID.randomUUID();
+    String passwordHash = passwordHasher.hash("secret1");
+    
+    when(userRepository.findPasswordByUuid(uuid)).thenReturn(Mono.just(passwordHash));
+    when(userResponseCache.get(eq(uuid), any())).thenReturn(Mono.just(userResponse(uuid)));
+    when(jwtService.generate(uuid)).thenReturn("token2");
+    
+    StepVerifier.create(userService.login(uuid, "secret1"))
+      .assertNext(userResponse -> {
+        assertThat(userResponse.getToken()).isEqualTo("token2");
+        assertThat(userResponse.getLastLogin()).isNotNull();
+      })
+      .verifyComplete();
+    
+    ArgumentCaptor<LocalDateTime> loginAt = ArgumentCaptor.forClass(LocalDateTime.class);
+    Mockito.verify(lastLoginRecorder).touch(eq(uuid), loginAt.capture());
+    ArgumentCaptor<UserResponse> cached = ArgumentCaptor.forClass(UserResponse.class);
+    Mockito.verify(userResponseCache).put(cached.capture());
+    assertThat(cached.getValue().getLastLogin()).isEqualTo(loginAt.getValue());
+    assertThat(cached.getValue().getToken()).isEqualTo("token1");
+    assertThat(stageCount("login", "verify_password", "success")).isEqualTo(1);
   }
-}
\ No newline at end of file
+}
@@ -0,0 +1,122 @@
+package com.evaluation.project.service.impl;
+
+import com.evaluation.project.model.entity.PhoneEntity;
+import com.evaluation.project.model.entity.UserEntity;
+import com.evaluation.project.service.impl.UserSnapshot.Block;
+import com.evaluation.project.service.impl.UserSnapshot.End;
+import com.evaluation.project.service.impl.UserSnapshot.InvalidSnapshotException;
+import com.evaluation.project.service.impl.UserSnapshot.Phones;
+import com.evaluation.project.service.impl.UserSnapshot.Users;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class UserSnapshotTest {
+
+  private final UserEntity juan = UserEntity.builder()
+    .uuid(UUID.randomUUID())
+    .name("Juan Pérez")
+    .email("juan@example.com")
+    .password("pbkdf2$1000$c2FsdA==$aGFzaA==")
+    .createdAt(LocalDateTime.of(2025, 3, 1, 10, 15, 30, 123_456_000))
+    .modifiedAt(LocalDateTime.of(1969, 12, 31, 23, 59, 59, 999_999_000))
+    .token("token1")
+    .isActive(true)
+    .version(3)
+    .build();
+  private final UserEntity ana = UserEntity.builder()
+    .uuid(UUID.randomUUID())
+    .name("Ana 李")
+    .email("ana@example.com")
+    .password("hash")
+    .isActive(false)
+    .build();
+
+  private byte[] snapshot(List<PhoneEntity> phones) {
+    var bytes = new ByteArrayOutputStream();
+    for (var buffer : List.of(UserSnapshot.header(), UserSnapshot.users(List.of(juan, ana)),
+        UserSnapshot.phones(phones), UserSnapshot.end(2, phones.size()))) {
+      bytes.write(buffer.array(), buffer.position(), buffer.remaining());
+    }
+    return bytes.toByteArray();
+  }
+
+  // the file split into chunks of chunkSize bytes, as an HTTP body or file reads deliver it
+  private static Flux<ByteBuffer> chunks(byte[] bytes, int chunkSize) {
+    var chunks = new ArrayList<ByteBuffer>();
+    for (int offset = 0; offset < bytes.length; offset += chunkSize) {
+      chunks.add(ByteBuffer.wrap(Arrays.copyOfRange(bytes, offset, Math.min(bytes.length, offset + chunkSize))));
+    }
+    return Flux.fromIterable(chunks);
+  }
+
+  private List<PhoneEntity> phones(int count) {
+    var phones = new ArrayList<PhoneEntity>();
+    for (int i = 0; i < count; i++) {
+      phones.add(PhoneEntity.builder()
+        .uuid(i % 2 == 0 ? juan.getUuid() : ana.getUuid())
+        .number(String.valueOf(300_000_000 + i))
+        .cityCode(i % 7 == 0 ? null : String.valueOf(i % 300))
+        .countryCode(i % 2 == 0 ? "57" : "51")
+        .build());
+    }
+    return phones;
+  }
+
+  @Test
+  void read_decodesEveryColumnWhateverTheChunkSize() {
+    var phones = phones(600); // 300 distinct city codes: two-byte dictionary codes
+    var bytes = snapshot(phones);
+
+    for (int chunkSize : new int[] {1, 7, 4096, bytes.length}) {
+      List<Block> blocks = UserSnapshot.read(chunks(bytes, chunkSize)).collectList().block();
+
+      assertThat(blocks).hasSize(3);
+      var users = ((Users) blocks.get(0)).users();
+      assertThat(users).usingRecursiveFieldByFieldElementComparator().containsExactly(juan, ana);
+      var decodedPhones = ((Phones) blocks.get(1)).phones();
+      assertThat(decodedPhones).usingRecursiveFieldByFieldElementComparator().containsExactlyElementsOf(phones);
+      assertThat(blocks.get(2)).isEqualTo(new End(2, 600));
+    }
+  }
+
+  @Test
+  void encoding_isColumnarAndDictionaryEncoded() {
+    var phones = phones(1000);
+    var block = UserSnapshot.phones(phones);
+
+    // 16 (uuid) + 4 + 9 (number) + 1 (city code) + 1 (country code) bytes per phone, plus the dictionaries
+    assertThat(block.remaining()).isLessThan(1000 * 32 + 4096);
+  }
+
+  @Test
+  void read_rejectsCorruptOrTruncatedSnapshots() {
+    var bytes = snapshot(phones(4));
+
+    var corrupt = bytes.clone();
+    corrupt[bytes.length / 2] ^= 1;
+    StepVerifier.create(UserSnapshot.read(chunks(corrupt, 64)))
+      .expectError(InvalidSnapshotException.class)
+      .verify();
+
+    StepVerifier.create(UserSnapshot.read(chunks(Arrays.copyOf(bytes, bytes.length - 3), 64)))
+      .expectNextCount(2)
+      .expectErrorMessage("Snapshot is truncated: no END block")
+      .verify();
+
+    var notASnapshot = "{\"users\":[]}".getBytes();
+    StepVerifier.create(UserSnapshot.read(chunks(notASnapshot, 64)))
+      .expectErrorMessage("Not a user snapshot")
+      .verify();
+  }
+}
@@ -0,0 +1,74 @@
+package com.evaluation.project.service.impl;
+
+import com.evaluation.project.config.ApplicationProperties;
+import com.evaluation.project.model.dto.Phone;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+
+class UserValidatorTest {
+  
+  private final UserValidator userValidator = new UserValidator(UserServiceImplTest.validationProperties());
+  
+  @Test
+  void isValidEmail_acceptsWellFormedEmails() {
+    assertThat(userValidator.isValidEmail("juan.perez@example.com")).isTrue();
+    assertThat(userValidator.isValidEmail("ana-gomez@mail.example.co")).isTrue();
+  }
+  
+  @Test
+  void isValidEmail_rejectsStructuralErrorsBeforeRegex() {
+    assertThat(userValidator.isValidEmail(null)).isFalse();
+    assertThat(userValidator.isValidEmail("invalid-email")).isFalse();
+    assertThat(userValidator.isValidEmail("@example.com")).isFalse();
+    assertThat(userValidator.isValidEmail("juan@")).isFalse();
+    assertThat(userValidator.isValidEmail("juan@perez@example.com")).isFalse();
+    assertThat(userValidator.isValidEmail("juan perez@example.com")).isFalse();
+    assertThat(userValidator.isValidEmail("a".repeat(250) + "@example.com")).isFalse();
+  }
+  
+  @Test
+  void isValidEmail_pathologicalDomain_returnsQuickly() {
+    String pathological = "x@" + "aaaa.".repeat(50) + "!";
+    
+    assertTimeoutPreemptively(Duration.ofMillis(500), () ->
+      assertThat(userValidator.isValidEmail(pathological)).isFalse());
+  }
+  
+  @Test
+  void isValidPassword_enforcesLengthLimit() {
+    assertThat(userValidator.isValidPassword("Passw0rd!")).isTrue();
+    assertThat(userValidator.isValidPassword("")).isFalse();
+    assertThat(userValidator.isValidPassword(null)).isFalse();
+    assertThat(userValidator.isValidPassword("p".repeat(129))).isFalse();
+  }
+  
+  @Test
+  void isValidPassword_backtrackingRegex_stopsAtTimeout() {
+    ApplicationProperties properties = UserServiceImplTest.validationProperties();
+    properties.setPasswordRegex("(a+)+b");
+    UserValidator backtracking = new UserValidator(properties);
+    
+    assertTimeoutPreemptively(Duration.ofSeconds(2), () ->
+      assertThat(backtracking.isValidPassword("a".repeat(60) + "!")).isFalse());
+  }
+  
+  @Test
+  void isValidPhones_rejectsWhatThePhonesTableWould() {
+    Phone phone = Phone.builder().number("1".repeat(20)).cityCode("1".repeat(10)).countryCode("57").build();
+    
+    assertThat(userValidator.isValidPhones(null)).isTrue();
+    assertThat(userValidator.isValidPhones(List.of(phone))).isTrue();
+    assertThat(userValidator.isValidPhones(Arrays.asList(phone, null))).isFalse();
+    assertThat(userValidator.isValidPhones(List.of(Phone.builder().number("1".repeat(21)).cityCode("1").countryCode("57").build())))
+      .isFalse();
+    assertThat(userValidator.isValidPhones(List.of(Phone.builder().number("123").cityCode("1".repeat(11)).countryCode("57").build())))
+      .isFalse();
+    assertThat(userValidator.isValidPhones(List.of(Phone.builder().number("123").cityCode("1").build()))).isFalse();
+  }
+}
@@ -0,0 +1,139 @@
+package com.evaluation.project.service.impl;
+
+import com.evaluation.project.config.ApplicationProperties;
+import com.evaluation.project.model.entity.PhoneEntity;
+import com.evaluation.project.model.entity.UserEntity;
+import com.evaluation.project.repository.PhoneRepository;
+import com.evaluation.project.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mockito;
+import org.springframework.boot.actuate.health.Status;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.TransientDataAccessResourceException;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.when;
+
+class UserWriteBehindTest {
+  
+  @TempDir
+  Path directory;
+  
+  private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+  private final UserRepository userRepository = Mockito.mock(UserRepository.class);
+  private final PhoneRepository phoneRepository = Mockito.mock(PhoneRepository.class);
+  private final TransactionalOperator transactionalOperator = Mockito.mock(TransactionalOperator.class);
+  private UserWriteBehind userWriteBehind;
+  
+  @BeforeEach
+  void setUp() throws Exception {
+    when(transactionalOperator.transactional(any(Mono.class))).thenAnswer(invocation -> invocation.getArgument(0));
+    when(phoneRepository.insertAll(anyList())).thenReturn(Mono.empty());
+    var properties = new ApplicationProperties();
+    properties.setWriteBehindEnabled(true);
+    properties.setWriteBehindJournal(directory.resolve("users.journal").toString());
+    properties.setWriteBehindDeadLetterJournal(directory.resolve("users.dead").toString());
+    properties.setWriteBehindMaxRetries(1);
+    properties.setWriteBehindCapacity(1);
+    properties.setWriteBehindStrandedRetryInterval(Duration.ofSeconds(2));
+    properties.setWriteBehindBatchSize(10);
+    properties.setWriteBehindFlushInterval(Duration.ofMillis(10));
+    properties.setWriteBehindShutdownTimeout(Duration.ofSeconds(5));
+    userWriteBehind = new UserWriteBehind(userRepository, phoneRepository, transactionalOperator,
+      Mockito.mock(EmailIndex.class), properties, meterRegistry);
+    userWriteBehind.start();
+  }
+  
+  @AfterEach
+  void tearDown() throws Exception {
+    userWriteBehind.stop();
+  }
+  
+  private UserEntity submit(String email) {
+    UserEntity user = userEntity(email);
+    PhoneEntity phone = PhoneEntity.builder().uuid(user.getUuid()).number("123456789").cityCode("01").countryCode("57").build();
+    assertThat(userWriteBehind.submit(user, List.of(phone)).block()).isNotNull();
+    return user;
+  }
+  
+  private static UserEntity userEntity(String email) {
+    return UserEntity.builder()
+      .uuid(UUID.randomUUID())
+      .name("Juan Pérez")
+      .email(email)
+      .password("hash")
+      .createdAt(LocalDateTime.now())
+      .token("token1")
+      .isActive(true)
+      .build();
+  }
+  
+  private static void await(BooleanSupplier condition) {
+    Flux.interval(Duration.ofMillis(10))
+      .filter(tick -> condition.getAsBoolean())
+      .blockFirst(Duration.ofSeconds(5));
+    assertThat(condition.getAsBoolean()).isTrue();
+  }
+  
+  @Test
+  void rejectedUser_goesToTheDeadLetterJournal() throws Exception {
+    when(userRepository.insertAll(anyList())).thenReturn(Mono.error(new DataIntegrityViolationException("Value too long")));
+    when(userRepository.existsById(any(UUID.class))).thenReturn(Mono.just(false));
+    
+    UserEntity user = submit("rejected@example.com");
+    
+    await(() -> userWriteBehind.find(user.getUuid()) == null);
+    assertThat(meterRegistry.get("users.write_behind.dead_letters").counter().count()).isEqualTo(1);
+    try (var deadLetters = new WriteBehindJournal(directory.resolve("users.dead"), false)) {
+      assertThat(deadLetters.open())
+        .extracting(userRecord -> userRecord.user().getUuid())
+        .containsExactly(user.getUuid());
+    }
+  }
+  
+  @Test
+  void batchFailingEveryRetry_isSetAsideAndQueuedAgainOnceTheDatabaseIsBack() throws Exception {
+    when(userRepository.insertAll(anyList()))
+      .thenReturn(Mono.error(new TransientDataAccessResourceException("Connection refused")));
+    var health = new WriteBehindHealthIndicator(userWriteBehind);
+    
+    UserEntity user = submit("stranded@example.com");
+    
+    await(() -> userWriteBehind.stranded() == 1);
+    assertThat(health.health().getStatus()).isEqualTo(Status.DOWN);
+    assertThat(userWriteBehind.find(user.getUuid())).isNotNull();
+    assertThat(userWriteBehind.isReserved("stranded@example.com")).isTrue();
+    try (var journal = new WriteBehindJournal(directory.resolve("users.journal"), false)) {
+      assertThat(journal.open())
+        .extracting(userRecord -> userRecord.user().getUuid())
+        .containsExactly(user.getUuid());
+    }
+    
+    // the stranded user does not hold the only slot of the queue, and once the database is back both get written
+    when(userRepository.insertAll(anyList())).thenReturn(Mono.empty());
+    UserEntity next = submit("next@example.com");
+    await(() -> userWriteBehind.find(next.getUuid()) == null);
+    await(() -> userWriteBehind.find(user.getUuid()) == null);
+    
+    assertThat(userWriteBehind.stranded()).isZero();
+    assertThat(userWriteBehind.pending()).isZero();
+    assertThat(userWriteBehind.isReserved("stranded@example.com")).isFalse();
+    assertThat(health.health().getStatus()).isEqualTo(Status.UP);
+  }
+}
@@ -0,0 +1,124 @@
+package com.evaluation.project.service.impl;
+
+import com.evaluation.project.model.entity.PhoneEntity;
+import com.evaluation.project.model.entity.UserEntity;
+import com.evaluation.project.service.impl.WriteBehindJournal.UserRecord;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import reactor.core.publisher.Mono;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class WriteBehindJournalTest {
+
+  @TempDir
+  Path directory;
+
+  private UserRecord userRecord(String email) {
+    UUID uuid = UUID.randomUUID();
+    UserEntity user = UserEntity.builder()
+      .uuid(uuid)
+      .name("Juan Pérez")
+      .email(email)
+      .password("pass123")
+      .createdAt(LocalDateTime.now())
+      .lastLogin(LocalDateTime.now())
+      .token("token1")
+      .isActive(true)
+      .build();
+    PhoneEntity phone = PhoneEntity.builder()
+      .uuid(uuid)
+      .number("123456789")
+      .cityCode("01")
+      .countryCode("57")
+      .build();
+    return new UserRecord(user, List.of(phone));
+  }
+
+  @Test
+  void open_replaysUsersWithoutCommitRecord() throws Exception {
+    Path path = directory.resolve("users.journal");
+    UserRecord committed = userRecord("committed@example.com");
+    UserRecord pending = userRecord("pending@example.com");
+
+    try (var journal = new WriteBehindJournal(path, true)) {
+      assertThat(journal.open()).isEmpty();
+      journal.append(committed).block();
+      journal.append(pending).block();
+      journal.commit(List.of(committed.user().getUuid())).block();
+    }
+
+    try (var journal = new WriteBehindJournal(path, true)) {
+      var replayed = journal.open();
+
+      assertThat(replayed).hasSize(1);
+      UserEntity user = replayed.get(0).user();
+      assertThat(user.getUuid()).isEqualTo(pending.user().getUuid());
+      assertThat(user.getEmail()).isEqualTo("pending@example.com");
+      assertThat(user.getCreatedAt()).isEqualTo(pending.user().getCreatedAt());
+      assertThat(user.getModifiedAt()).isNull();
+      assertThat(user.isActive()).isTrue();
+      assertThat(replayed.get(0).phones())
+        .singleElement()
+        .satisfies(phone -> {
+          assertThat(phone.getUuid()).isEqualTo(user.getUuid());
+          assertThat(phone.getNumber()).isEqualTo("123456789");
+        });
+    }
+  }
+
+  @Test
+  void open_ignoresTornTail() throws Exception {
+    Path path = directory.resolve("users.journal");
+    UserRecord written = userRecord("written@example.com");
+
+    try (var journal = new WriteBehindJournal(path, false)) {
+      journal.open();
+      journal.append(written).block();
+    }
+    byte[] torn = WriteBehindJournal.user(userRecord("torn@example.com")).array();
+    Files.write(path, Arrays.copyOf(torn, torn.length / 2), StandardOpenOption.APPEND);
+
+    try (var journal = new WriteBehindJournal(path, false)) {
+      assertThat(journal.open())
+        .extracting(userRecord -> userRecord.user().getEmail())
+        .containsExactly("written@example.com");
+    }
+  }
+
+  @Test
+  void truncateIf_emptiesJournalWhenConditionHolds() throws Exception {
+    Path path = directory.resolve("users.journal");
+
+    try (var journal = new WriteBehindJournal(path, false)) {
+      journal.open();
+      journal.append(userRecord("kept@example.com")).block();
+      journal.truncateIf(() -> false).block();
+      assertThat(Files.size(path)).isPositive();
+
+      journal.truncateIf(() -> true).block();
+      assertThat(Files.size(path)).isZero();
+    }
+  }
+
+  @Test
+  void append_completesOffTheJournalThread() throws Exception {
+    try (var journal = new WriteBehindJournal(directory.resolve("users.journal"), false)) {
+      journal.open();
+
+      String thread = journal.append(userRecord("thread@example.com"))
+        .then(Mono.fromCallable(() -> Thread.currentThread().getName()))
+        .block();
+
+      assertThat(thread).doesNotStartWith("write-behind-journal");
+    }
+  }
+}